@@ -0,0 +1,72 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures {@link LWDIContainer#addBean(String, Object)} on a container that already holds the synthetic beans,
+ * single-threaded and from several threads at once, and compares registering a batch of beans one by one with
+ * {@link LWDIContainer#addBeans(Map)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AddBeanBenchmark {
+
+	private static final int CONCURRENT_THREADS = 4;
+
+	private static final int BATCH_SIZE = 1000;
+
+	private final AtomicLong beanCounter = new AtomicLong();
+
+	private LWDIContainer container;
+
+	@Setup(Level.Iteration)
+	public void setUp(SyntheticBeanState state) {
+		container = state.createScannedContainer();
+	}
+
+	@Benchmark
+	public void addBean() {
+		long bean = beanCounter.incrementAndGet();
+		container.addBean("added" + bean, bean);
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_THREADS)
+	public void addBeanConcurrent() {
+		long bean = beanCounter.incrementAndGet();
+		container.addBean("added" + bean, bean);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void addBeanBatchOneByOne() {
+		for (Map.Entry<String, Long> bean : createBatch().entrySet()) {
+			container.addBean(bean.getKey(), bean.getValue());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void addBeans() {
+		container.addBeans(createBatch());
+	}
+
+	private Map<String, Long> createBatch() {
+		Map<String, Long> batch = new LinkedHashMap<>();
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			long bean = beanCounter.incrementAndGet();
+			batch.put("added" + bean, bean);
+		}
+		return batch;
+	}
+}
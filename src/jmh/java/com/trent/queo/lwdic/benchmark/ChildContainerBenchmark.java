@@ -0,0 +1,48 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating a per-tenant child of a started container with creating, scanning and starting a separate
+ * container per tenant. Every tenant registers one bean of its own and looks up one shared bean.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ChildContainerBenchmark {
+
+	private LWDIContainer parent;
+	private Class<?> sharedBeanType;
+
+	@Setup
+	public void setUp(SyntheticBeanState state) {
+		parent = state.createScannedContainer();
+		parent.start();
+		// Bean 1 is the first bean that is injected by type.
+		sharedBeanType = state.getSyntheticBeans().loadBeanClass(1);
+	}
+
+	@Benchmark
+	public Object childContainer() {
+		LWDIContainer child = parent.createChildContainer();
+		return startTenant(child);
+	}
+
+	@Benchmark
+	public Object separateContainer(SyntheticBeanState state) {
+		LWDIContainer container = state.createScannedContainer();
+		return startTenant(container);
+	}
+
+	private Object startTenant(LWDIContainer container) {
+		container.addBean("tenant", new Object());
+		container.start();
+		return container.getBeanByType(sharedBeanType);
+	}
+}
@@ -0,0 +1,70 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.cds.CdsArchive;
+import com.trent.queo.lwdic.cds.CdsTrainer;
+import com.trent.queo.lwdic.cds.TrainingRun;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold start of a new JVM that scans and starts a container of synthetic beans, with and without the
+ * AppCDS archive trained by a {@link CdsTrainer} on the same JDK. Both variants use the same classpath of jar files.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+
+	private static final Path OUTPUT_DIRECTORY = Paths.get("target", "cds");
+
+	@Param({"1000"})
+	public int beans;
+
+	@Param({"false", "true"})
+	public boolean archive;
+
+	private List<String> command;
+
+	private Path log;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		SyntheticBeans syntheticBeans = SyntheticBeans.generate(beans, 2, 1);
+		Path outputDirectory = OUTPUT_DIRECTORY.resolve("b" + beans);
+		CdsArchive cdsArchive = new CdsTrainer(outputDirectory).train(System.getProperty("java.class.path")
+				+ File.pathSeparator + syntheticBeans.getClassesDirectory(), syntheticBeans.getPackageName());
+		System.out.println(cdsArchive);
+
+		command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		if (archive) {
+			command.addAll(cdsArchive.getJvmOptions());
+		} else {
+			command.add("-cp");
+			command.add(cdsArchive.getClasspath());
+		}
+		command.add(TrainingRun.class.getName());
+		command.add(syntheticBeans.getPackageName());
+		log = outputDirectory.resolve("cold-start.log");
+	}
+
+	@Benchmark
+	public int coldStart() throws IOException, InterruptedException {
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+		int exitCode = process.waitFor();
+		if (exitCode != 0) {
+			throw new IllegalStateException("The cold start failed with exit code " + exitCode + ", see " + log + ".");
+		}
+		return exitCode;
+	}
+}
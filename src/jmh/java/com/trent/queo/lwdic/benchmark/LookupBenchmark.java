@@ -0,0 +1,97 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups in a started container, single-threaded and from several threads at once. Every invocation looks
+ * up the next synthetic bean, so that all bindings of the container are exercised.
+ * <p>
+ * With {@code frozen=true} the container is {@link LWDIContainer#freeze() frozen} after the start. The estimated
+ * registry footprint is printed on setup, before and after freezing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+	private static final int CONCURRENT_THREADS = 4;
+
+	@Param({"false", "true"})
+	public boolean frozen;
+
+	private LWDIContainer container;
+	private Class<?>[] typedBeans;
+	private String[] namedBeans;
+	private Class<?>[] namedBeanTypes;
+
+	@Setup
+	public void setUp(SyntheticBeanState state) {
+		SyntheticBeans syntheticBeans = state.getSyntheticBeans();
+		container = state.createScannedContainer();
+		container.start();
+		System.out.println(container.getRegistryFootprint());
+		if (frozen) {
+			container.freeze();
+			System.out.println(container.getRegistryFootprint());
+		}
+
+		int beanCount = syntheticBeans.getBeanCount();
+		typedBeans = new Class<?>[beanCount / 2];
+		namedBeans = new String[(beanCount + 1) / 2];
+		namedBeanTypes = new Class<?>[namedBeans.length];
+		for (int bean = 0; bean < beanCount; bean++) {
+			if (syntheticBeans.isNamed(bean)) {
+				namedBeans[bean / 2] = syntheticBeans.getBeanName(bean);
+				namedBeanTypes[bean / 2] = syntheticBeans.loadBeanClass(bean);
+			} else {
+				typedBeans[bean / 2] = syntheticBeans.loadBeanClass(bean);
+			}
+		}
+	}
+
+	/**
+	 * The position of a benchmark thread in the bean arrays.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		private int position;
+
+		int next(int length) {
+			if (++position >= length) {
+				position = 0;
+			}
+			return position;
+		}
+	}
+
+	@Benchmark
+	public Object getBeanByType(Cursor cursor) {
+		return container.getBeanByType(typedBeans[cursor.next(typedBeans.length)]);
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_THREADS)
+	public Object getBeanByTypeConcurrent(Cursor cursor) {
+		return container.getBeanByType(typedBeans[cursor.next(typedBeans.length)]);
+	}
+
+	@Benchmark
+	public Object getBeanByNameAndType(Cursor cursor) {
+		int bean = cursor.next(namedBeans.length);
+		return container.getBeanByNameAndType(namedBeans[bean], namedBeanTypes[bean]);
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_THREADS)
+	public Object getBeanByNameAndTypeConcurrent(Cursor cursor) {
+		int bean = cursor.next(namedBeans.length);
+		return container.getBeanByNameAndType(namedBeans[bean], namedBeanTypes[bean]);
+	}
+}
@@ -0,0 +1,56 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one {@link LWDIContainer#scanPackage(String)} call per module package with a single batched
+ * {@link LWDIContainer#scanPackages(String...)} call. The bean index is disabled, so that both variants scan the
+ * classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MultiPackageScanBenchmark {
+
+	@Param({"1000", "10000"})
+	public int beans;
+
+	@Param({"2", "8", "32"})
+	public int packages;
+
+	private SyntheticBeans syntheticBeans;
+
+	@Setup
+	public void setUp() {
+		syntheticBeans = SyntheticBeans.generate(beans, 2, 1, packages);
+	}
+
+	@Benchmark
+	public LWDIContainer separateScans() {
+		LWDIContainer container = createContainer();
+		for (String packageName : syntheticBeans.getPackageNames()) {
+			container.scanPackage(packageName);
+		}
+		return container;
+	}
+
+	@Benchmark
+	public LWDIContainer batchedScan() {
+		LWDIContainer container = createContainer();
+		container.scanPackages(syntheticBeans.getPackageNames());
+		return container;
+	}
+
+	private LWDIContainer createContainer() {
+		LWDIContainer container = new LWDIContainer();
+		container.setClassLoader(syntheticBeans.getClassLoader());
+		container.setBeanIndexEnabled(false);
+		return container;
+	}
+}
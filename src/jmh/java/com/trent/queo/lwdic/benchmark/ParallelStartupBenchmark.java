@@ -0,0 +1,51 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sequential startup of a container with the parallel startup driven by the dependency graph, for beans
+ * with expensive constructors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelStartupBenchmark {
+
+	private static final String BEAN_PACKAGE = "com.trent.queo.lwdic.benchmark.slowbeans";
+
+	@Param({"0", "4", "16"})
+	public int threads;
+
+	private ExecutorService executor;
+
+	@Setup
+	public void setUp() {
+		if (threads > 0) {
+			executor = Executors.newFixedThreadPool(threads);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	@Benchmark
+	public LWDIContainer startContainer() {
+		LWDIContainer container = new LWDIContainer();
+		container.setExecutor(executor);
+		container.scanPackage(BEAN_PACKAGE);
+		container.start();
+		return container;
+	}
+}
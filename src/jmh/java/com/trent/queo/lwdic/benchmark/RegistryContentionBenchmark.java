@@ -0,0 +1,47 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import com.trent.queo.lwdic.examples.IDemoBean;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures lookups by many reader threads while a few writer threads register beans at runtime.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Group)
+public class RegistryContentionBenchmark {
+
+	private static final String BEAN_PACKAGE = "com.trent.queo.lwdic.examples";
+
+	private final AtomicLong beanCounter = new AtomicLong();
+
+	private LWDIContainer container;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		container = new LWDIContainer();
+		container.scanPackage(BEAN_PACKAGE);
+	}
+
+	@Benchmark
+	@Group("registry")
+	@GroupThreads(8)
+	public IDemoBean getBeanByType() {
+		return container.getBeanByType(IDemoBean.class);
+	}
+
+	@Benchmark
+	@Group("registry")
+	@GroupThreads(2)
+	public void addBean() {
+		long beanNumber = beanCounter.incrementAndGet();
+		container.addBean("bean" + beanNumber, beanNumber);
+	}
+}
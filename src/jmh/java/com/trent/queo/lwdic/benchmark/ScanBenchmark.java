@@ -0,0 +1,31 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link LWDIContainer#scanPackage(String)} with the compile-time bean index and with classpath scanning.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+
+	@Param({"true", "false"})
+	public boolean beanIndexEnabled;
+
+	@Benchmark
+	public LWDIContainer scanPackage(SyntheticBeanState state) {
+		SyntheticBeans syntheticBeans = state.getSyntheticBeans();
+		LWDIContainer container = new LWDIContainer();
+		container.setClassLoader(syntheticBeans.getClassLoader());
+		container.setBeanIndexEnabled(beanIndexEnabled);
+		container.scanPackage(syntheticBeans.getPackageName());
+		return container;
+	}
+}
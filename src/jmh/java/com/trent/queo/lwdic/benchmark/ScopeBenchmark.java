@@ -0,0 +1,90 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.benchmark.scopedbeans.CachedParser;
+import com.trent.queo.lwdic.benchmark.scopedbeans.PooledParser;
+import com.trent.queo.lwdic.benchmark.scopedbeans.PrototypeParser;
+import com.trent.queo.lwdic.container.BeanPool;
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways to use a stateful helper per call: a prototype bean, a pooled bean and a hand-rolled
+ * {@link ThreadLocal}, single-threaded and from several threads at once. The hit rate and size of the pool are printed
+ * on tear down. The lookup of a cached bean, which may be evicted between calls, is measured for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScopeBenchmark {
+
+	private static final String BEAN_PACKAGE = "com.trent.queo.lwdic.benchmark.scopedbeans";
+	private static final int CONCURRENT_THREADS = 4;
+	private static final String INPUT = "{\"name\": \"value\"}";
+
+	private final ThreadLocal<PrototypeParser> threadLocalParser = ThreadLocal.withInitial(PrototypeParser::new);
+
+	private LWDIContainer container;
+	private BeanPool<PooledParser> pool;
+
+	@Setup
+	public void setUp() {
+		container = new LWDIContainer();
+		container.scanPackage(BEAN_PACKAGE);
+		container.start();
+		pool = container.getBeanPool(PooledParser.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.out.println(pool);
+		System.out.println(container.getBeanCache());
+	}
+
+	@Benchmark
+	public int prototype() {
+		return container.getBeanByType(PrototypeParser.class).parse(INPUT);
+	}
+
+	@Benchmark
+	public int pooled() {
+		PooledParser parser = pool.borrow();
+		try {
+			return parser.parse(INPUT);
+		} finally {
+			pool.release(parser);
+		}
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_THREADS)
+	public int pooledConcurrent() {
+		return pooled();
+	}
+
+	@Benchmark
+	public int cached() {
+		return container.getBeanByType(CachedParser.class).parse(INPUT);
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_THREADS)
+	public int cachedConcurrent() {
+		return cached();
+	}
+
+	@Benchmark
+	public int threadLocal() {
+		return threadLocalParser.get().parse(INPUT);
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_THREADS)
+	public int threadLocalConcurrent() {
+		return threadLocal();
+	}
+}
@@ -0,0 +1,62 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.benchmark.slowbeans.AbstractSlowBean;
+import com.trent.queo.lwdic.container.LWDIContainer;
+import com.trent.queo.lwdic.container.ShutdownReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LWDIContainer#stop()}, which closes independent beans in parallel, with closing the same beans one
+ * after the other, for beans with an expensive shutdown.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShutdownBenchmark {
+
+	private static final String BEAN_PACKAGE = "com.trent.queo.lwdic.benchmark.slowbeans";
+
+	private ExecutorService executor;
+
+	private LWDIContainer container;
+
+	@Setup(Level.Trial)
+	public void setUpExecutor() {
+		executor = Executors.newFixedThreadPool(16);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownExecutor() {
+		executor.shutdown();
+	}
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		container = new LWDIContainer();
+		container.setExecutor(executor);
+		container.scanPackage(BEAN_PACKAGE);
+		container.start();
+	}
+
+	@Benchmark
+	public ShutdownReport stop() {
+		return container.stop();
+	}
+
+	@Benchmark
+	public int closeSequentially() {
+		int closedBeans = 0;
+		for (AbstractSlowBean bean : container.getBeansOfType(AbstractSlowBean.class)) {
+			bean.close();
+			closedBeans++;
+		}
+		return closedBeans;
+	}
+}
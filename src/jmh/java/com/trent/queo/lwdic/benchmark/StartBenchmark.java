@@ -0,0 +1,31 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link LWDIContainer#start()} of a container that has already scanned the synthetic beans.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class StartBenchmark {
+
+	private LWDIContainer container;
+
+	@Setup(Level.Invocation)
+	public void setUp(SyntheticBeanState state) {
+		container = state.createScannedContainer();
+	}
+
+	@Benchmark
+	public LWDIContainer start() {
+		container.start();
+		return container;
+	}
+}
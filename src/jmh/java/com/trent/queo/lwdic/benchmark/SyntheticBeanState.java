@@ -0,0 +1,41 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Shared benchmark state holding the {@link SyntheticBeans} of the configured size and shape.
+ */
+@State(Scope.Benchmark)
+public class SyntheticBeanState {
+
+	@Param({"10", "1000", "50000"})
+	public int beans;
+
+	@Param({"2"})
+	public int interfaces;
+
+	@Param({"1"})
+	public int superclasses;
+
+	private SyntheticBeans syntheticBeans;
+
+	@Setup
+	public void setUp() {
+		syntheticBeans = SyntheticBeans.generate(beans, interfaces, superclasses);
+	}
+
+	public SyntheticBeans getSyntheticBeans() {
+		return syntheticBeans;
+	}
+
+	/**
+	 * @return a container that has scanned, but not yet started, the synthetic beans.
+	 */
+	public LWDIContainer createScannedContainer() {
+		LWDIContainer container = new LWDIContainer();
+		container.setClassLoader(syntheticBeans.getClassLoader());
+		container.scanPackage(syntheticBeans.getPackageName());
+		return container;
+	}
+}
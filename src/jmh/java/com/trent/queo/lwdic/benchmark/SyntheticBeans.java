@@ -0,0 +1,226 @@
+package com.trent.queo.lwdic.benchmark;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates and compiles synthetic {@link com.trent.queo.lwdic.annotations.Bean} classes for benchmarks.
+ * <p>
+ * The beans are split into groups of {@value #GROUP_SIZE}. All beans of a group implement the same
+ * {@code interfaceFanOut} interfaces and extend the same chain of {@code superclassDepth} abstract superclasses, so
+ * every bean is registered under {@code 1 + interfaceFanOut + superclassDepth} names. Every bean but the first
+ * of a group injects its predecessor. Beans with an even number are {@link com.trent.queo.lwdic.annotations.Named}
+ * {@code "bean<number>"} and are injected by name, all other beans are injected by type. The groups can be spread
+ * round-robin over several sub packages, to simulate an application made of several modules.
+ * <p>
+ * The compiled classes are cached in {@code target/synthetic-beans}, so that only the first benchmark fork of a
+ * configuration pays for the compilation. The bean index processor runs during the compilation, so the classes come
+ * with a bean index.
+ */
+public final class SyntheticBeans {
+
+	static final int GROUP_SIZE = 10;
+
+	private static final String BASE_PACKAGE = "com.trent.queo.lwdic.synthetic";
+	private static final Path CACHE_DIRECTORY = Paths.get("target", "synthetic-beans");
+	private static final String COMPLETE_MARKER = "complete";
+
+	private final String packageName;
+	private final int beanCount;
+	private final int packageCount;
+	private final URLClassLoader classLoader;
+
+	private SyntheticBeans(String packageName, int beanCount, int packageCount, URLClassLoader classLoader) {
+		this.packageName = packageName;
+		this.beanCount = beanCount;
+		this.packageCount = packageCount;
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Generates the beans of a configuration, or reuses them if they were already generated.
+	 *
+	 * @param beanCount       the number of bean classes.
+	 * @param interfaceFanOut the number of interfaces implemented by every bean.
+	 * @param superclassDepth the number of abstract superclasses of every bean.
+	 */
+	public static SyntheticBeans generate(int beanCount, int interfaceFanOut, int superclassDepth) {
+		return generate(beanCount, interfaceFanOut, superclassDepth, 1);
+	}
+
+	/**
+	 * Generates the beans of a configuration spread over several sub packages, or reuses them if they were already
+	 * generated.
+	 *
+	 * @param beanCount       the number of bean classes.
+	 * @param interfaceFanOut the number of interfaces implemented by every bean.
+	 * @param superclassDepth the number of abstract superclasses of every bean.
+	 * @param packageCount    the number of sub packages, or 1 to generate all beans into a single package.
+	 */
+	public static synchronized SyntheticBeans generate(int beanCount, int interfaceFanOut, int superclassDepth,
+													   int packageCount) {
+		String configuration = "b" + beanCount + "i" + interfaceFanOut + "s" + superclassDepth
+				+ (packageCount > 1 ? "p" + packageCount : "");
+		String packageName = BASE_PACKAGE + "." + configuration;
+		Path directory = CACHE_DIRECTORY.resolve(configuration).toAbsolutePath();
+		Path classesDirectory = directory.resolve("classes");
+		try {
+			if (!Files.exists(directory.resolve(COMPLETE_MARKER))) {
+				Path sourceDirectory = directory.resolve("sources");
+				Files.createDirectories(sourceDirectory);
+				Files.createDirectories(classesDirectory);
+				SyntheticBeans syntheticBeans = new SyntheticBeans(packageName, beanCount, packageCount, null);
+				List<File> sources = syntheticBeans.writeSources(sourceDirectory, interfaceFanOut, superclassDepth);
+				compile(sources, classesDirectory);
+				Files.createFile(directory.resolve(COMPLETE_MARKER));
+			}
+			URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toUri().toURL()},
+					SyntheticBeans.class.getClassLoader());
+			return new SyntheticBeans(packageName, beanCount, packageCount, classLoader);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to generate synthetic beans.", e);
+		}
+	}
+
+	/**
+	 * @return the package containing all beans, including all sub packages.
+	 */
+	public String getPackageName() {
+		return packageName;
+	}
+
+	/**
+	 * @return the packages the beans are spread over.
+	 */
+	public String[] getPackageNames() {
+		String[] packageNames = new String[Math.min(packageCount, getGroupCount())];
+		for (int group = 0; group < packageNames.length; group++) {
+			packageNames[group] = getGroupPackageName(group);
+		}
+		return packageNames;
+	}
+
+	public int getBeanCount() {
+		return beanCount;
+	}
+
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	/**
+	 * @return the directory of the compiled bean classes, to put the beans on the classpath of another JVM.
+	 */
+	public Path getClassesDirectory() {
+		try {
+			return Paths.get(classLoader.getURLs()[0].toURI());
+		} catch (URISyntaxException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public boolean isNamed(int bean) {
+		return bean % 2 == 0;
+	}
+
+	public String getBeanName(int bean) {
+		return "bean" + bean;
+	}
+
+	public Class<?> loadBeanClass(int bean) {
+		try {
+			return Class.forName(getGroupPackageName(bean / GROUP_SIZE) + ".Bean" + bean, false, classLoader);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("The synthetic bean " + bean + " does not exist.", e);
+		}
+	}
+
+	private int getGroupCount() {
+		return (beanCount + GROUP_SIZE - 1) / GROUP_SIZE;
+	}
+
+	private String getGroupPackageName(int group) {
+		return packageCount > 1 ? packageName + ".module" + group % packageCount : packageName;
+	}
+
+	private List<File> writeSources(Path sourceDirectory, int interfaceFanOut, int superclassDepth) throws IOException {
+		List<File> sources = new ArrayList<>();
+		for (int group = 0; group < getGroupCount(); group++) {
+			String packageName = getGroupPackageName(group);
+			for (int i = 0; i < interfaceFanOut; i++) {
+				sources.add(write(sourceDirectory, "Group" + group + "Interface" + i, "package " + packageName + ";\n"
+						+ "public interface Group" + group + "Interface" + i + " {}\n"));
+			}
+			for (int i = 0; i < superclassDepth; i++) {
+				String superclass = i == 0 ? "" : " extends Group" + group + "Superclass" + (i - 1);
+				sources.add(write(sourceDirectory, "Group" + group + "Superclass" + i, "package " + packageName + ";\n"
+						+ "public abstract class Group" + group + "Superclass" + i + superclass + " {}\n"));
+			}
+		}
+		for (int bean = 0; bean < beanCount; bean++) {
+			sources.add(write(sourceDirectory, "Bean" + bean,
+					beanSource(getGroupPackageName(bean / GROUP_SIZE), bean, interfaceFanOut, superclassDepth)));
+		}
+		return sources;
+	}
+
+	private static String beanSource(String packageName, int bean, int interfaceFanOut, int superclassDepth) {
+		int group = bean / GROUP_SIZE;
+		StringBuilder source = new StringBuilder("package ").append(packageName).append(";\n")
+				.append("@com.trent.queo.lwdic.annotations.Bean\n");
+		if (bean % 2 == 0) {
+			source.append("@com.trent.queo.lwdic.annotations.Named(name = \"bean").append(bean).append("\")\n");
+		}
+		source.append("public class Bean").append(bean);
+		if (superclassDepth > 0) {
+			source.append(" extends Group").append(group).append("Superclass").append(superclassDepth - 1);
+		}
+		for (int i = 0; i < interfaceFanOut; i++) {
+			source.append(i == 0 ? " implements " : ", ").append("Group").append(group).append("Interface").append(i);
+		}
+		source.append(" {\n");
+		if (bean % GROUP_SIZE != 0) {
+			int predecessor = bean - 1;
+			source.append("\t@com.trent.queo.lwdic.annotations.Inject\n");
+			if (predecessor % 2 == 0) {
+				source.append("\t@com.trent.queo.lwdic.annotations.Named(name = \"bean").append(predecessor).append("\")\n");
+			}
+			source.append("\tpublic Bean").append(predecessor).append(" predecessor;\n");
+		}
+		return source.append("}\n").toString();
+	}
+
+	private static File write(Path sourceDirectory, String className, String source) throws IOException {
+		Path sourceFile = sourceDirectory.resolve(className + ".java");
+		Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+		return sourceFile.toFile();
+	}
+
+	private static void compile(List<File> sources, Path classesDirectory) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+			Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(sources);
+			List<String> options = Arrays.asList("-nowarn", "-implicit:none",
+					"-classpath", System.getProperty("java.class.path"),
+					"-d", classesDirectory.toString());
+			if (!compiler.getTask(null, fileManager, null, options, null, compilationUnits).call()) {
+				throw new IllegalStateException("Unable to compile the synthetic beans in " + classesDirectory + ".");
+			}
+		}
+	}
+}
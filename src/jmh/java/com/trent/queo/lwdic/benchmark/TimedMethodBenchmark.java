@@ -0,0 +1,66 @@
+package com.trent.queo.lwdic.benchmark;
+
+import com.trent.queo.lwdic.annotations.Timed;
+import com.trent.queo.lwdic.timing.MethodTimings;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of {@link Timed} on a trivial method: without the annotation, with method timing disabled and
+ * with method timing enabled, single-threaded and from several threads at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimedMethodBenchmark {
+
+	private static final int CONCURRENT_THREADS = 4;
+
+	@Param({"false", "true"})
+	public boolean timingEnabled;
+
+	private int value = 42;
+
+	@Setup
+	public void setUp() {
+		if (timingEnabled) {
+			MethodTimings.enable();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		MethodTimings.disable();
+	}
+
+	@Benchmark
+	public int untimedMethod() {
+		return untimed();
+	}
+
+	@Benchmark
+	public int timedMethod() {
+		return timed();
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_THREADS)
+	public int timedMethodConcurrent() {
+		return timed();
+	}
+
+	@CompilerControl(CompilerControl.Mode.DONT_INLINE)
+	private int untimed() {
+		return value * 31;
+	}
+
+	@Timed
+	@CompilerControl(CompilerControl.Mode.DONT_INLINE)
+	private int timed() {
+		return value * 31;
+	}
+}
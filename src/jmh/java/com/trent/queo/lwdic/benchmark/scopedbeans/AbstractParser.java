@@ -0,0 +1,18 @@
+package com.trent.queo.lwdic.benchmark.scopedbeans;
+
+/**
+ * A stateful helper that is expensive to build because of its buffer.
+ */
+public abstract class AbstractParser {
+
+	private final char[] buffer = new char[8192];
+
+	public int parse(String input) {
+		input.getChars(0, input.length(), buffer, 0);
+		int sum = 0;
+		for (int i = 0; i < input.length(); i++) {
+			sum += buffer[i];
+		}
+		return sum;
+	}
+}
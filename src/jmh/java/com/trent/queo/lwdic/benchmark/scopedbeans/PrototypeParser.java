@@ -0,0 +1,8 @@
+package com.trent.queo.lwdic.benchmark.scopedbeans;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Scope;
+
+@Bean(scope = Scope.PROTOTYPE)
+public class PrototypeParser extends AbstractParser {
+}
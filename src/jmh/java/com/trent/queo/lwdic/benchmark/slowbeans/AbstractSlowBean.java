@@ -0,0 +1,28 @@
+package com.trent.queo.lwdic.benchmark.slowbeans;
+
+/**
+ * Simulates a bean with an expensive constructor and an expensive shutdown, e.g. one that warms a cache or opens files.
+ */
+public abstract class AbstractSlowBean implements AutoCloseable {
+
+	private static final long CONSTRUCTION_MILLIS = 10;
+
+	private static final long CLOSE_MILLIS = 10;
+
+	protected AbstractSlowBean() {
+		sleep(CONSTRUCTION_MILLIS);
+	}
+
+	@Override
+	public void close() {
+		sleep(CLOSE_MILLIS);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
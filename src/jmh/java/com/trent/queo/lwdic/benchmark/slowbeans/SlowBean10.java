@@ -0,0 +1,11 @@
+package com.trent.queo.lwdic.benchmark.slowbeans;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class SlowBean10 extends AbstractSlowBean {
+
+	@Inject
+	public SlowBean2 dependency;
+}
@@ -0,0 +1,11 @@
+package com.trent.queo.lwdic.benchmark.slowbeans;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class SlowBean12 extends AbstractSlowBean {
+
+	@Inject
+	public SlowBean6 dependency;
+}
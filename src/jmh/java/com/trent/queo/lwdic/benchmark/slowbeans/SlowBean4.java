@@ -0,0 +1,7 @@
+package com.trent.queo.lwdic.benchmark.slowbeans;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+@Bean
+public class SlowBean4 extends AbstractSlowBean {
+}
@@ -0,0 +1,23 @@
+package com.trent.queo.lwdic.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a container class at compile time that creates and wires all beans of the given packages without
+ * classpath scanning or reflection. The class is generated into the package of the annotated type.
+ *
+ * @see com.trent.queo.lwdic.aot.AotContainerProcessor
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.TYPE})
+public @interface AotContainer {
+
+	// The packages whose beans are part of the container, including their sub packages
+	String[] packages();
+
+	// The simple name of the generated class, by default the name of the annotated type followed by "Container"
+	String name() default "";
+}
@@ -9,4 +9,13 @@ import java.lang.annotation.Target;
 @Target({ElementType.TYPE})
 public @interface Bean {
 	boolean injectable() default true;
+
+	// Whether the bean is created on first use instead of when its package is scanned
+	boolean lazy() default false;
+
+	// How many instances of the bean are created, prototype and pooled beans are always created on demand
+	Scope scope() default Scope.SINGLETON;
+
+	// The maximum number of idle instances kept by the pool of a pooled bean
+	int poolSize() default 16;
 }
@@ -0,0 +1,15 @@
+package com.trent.queo.lwdic.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a no-arg method of a bean that is called when the container is stopped. The destroy methods of a bean run
+ * before the destroy methods of all beans it depends on.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Destroy {
+}
@@ -0,0 +1,15 @@
+package com.trent.queo.lwdic.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a no-arg method of a bean that is called after all dependencies of the bean were injected. The init methods of
+ * a bean run after the init methods of all beans it depends on.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Init {
+}
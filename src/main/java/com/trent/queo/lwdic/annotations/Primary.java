@@ -0,0 +1,16 @@
+package com.trent.queo.lwdic.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the bean that is resolved if more than one bean is registered under the requested name, e.g. the default
+ * implementation of an interface. Lookups that find several beans of which exactly one is primary return the primary
+ * bean instead of failing with a {@link com.trent.queo.lwdic.container.exceptions.BeanConflictException}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Primary {
+}
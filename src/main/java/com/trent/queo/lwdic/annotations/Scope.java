@@ -0,0 +1,31 @@
+package com.trent.queo.lwdic.annotations;
+
+/**
+ * The scope of a {@link Bean}, which decides how many instances of the bean the container creates.
+ */
+public enum Scope {
+
+	/**
+	 * A single instance, shared by all lookups and injection points.
+	 */
+	SINGLETON,
+
+	/**
+	 * A new instance for every lookup and injection point, injected and initialized like a singleton.
+	 */
+	PROTOTYPE,
+
+	/**
+	 * Instances borrowed from and returned to a {@link com.trent.queo.lwdic.container.BeanPool}, which is looked up
+	 * with {@link com.trent.queo.lwdic.container.LWDIContainer#getBeanPool(Class)} or injected as
+	 * {@code BeanPool<T>}.
+	 */
+	POOLED,
+
+	/**
+	 * A single instance that the container may evict under memory pressure, after an idle timeout or to stay within
+	 * its budget of cached instances, and that is created again on the next resolution. Cached beans should be injected
+	 * as {@code Supplier<T>}, since an injected instance stays reachable after its eviction.
+	 */
+	CACHED
+}
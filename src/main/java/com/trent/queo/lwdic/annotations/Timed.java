@@ -0,0 +1,23 @@
+package com.trent.queo.lwdic.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean method whose latency is recorded in a histogram of the
+ * {@link com.trent.queo.lwdic.timing.MethodTimings} while method timing is enabled. The timing is woven into the
+ * method at compile time by the {@link com.trent.queo.lwdic.timing.TimedAspect}, so the bean has to be compiled by ajc
+ * with this library on the aspect path.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Timed {
+
+	/**
+	 * @return the name of the histogram. Defaults to the name of the declaring class and the method, overloads of a
+	 * method share a histogram.
+	 */
+	String value() default "";
+}
@@ -0,0 +1,520 @@
+package com.trent.queo.lwdic.aot;
+
+import com.trent.queo.lwdic.annotations.AotContainer;
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Named;
+import com.trent.queo.lwdic.annotations.Scope;
+import com.trent.queo.lwdic.container.exceptions.BeanInitializationException;
+import com.trent.queo.lwdic.index.BeanElements;
+import com.trent.queo.lwdic.index.BeanIndexEntry;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Annotation processor that generates a container class for every type annotated with {@link AotContainer}.
+ * <p>
+ * The generated class extends {@link GeneratedContainer}. Its constructor creates all beans of the configured packages
+ * with {@code new}, assigns their injected fields and calls their {@link Init} methods in dependency order, so creating
+ * the container needs no classpath scan, no class loading by name and no reflection. All dependencies are resolved at
+ * compile time: a missing, conflicting or circular dependency is a compile error on the injection point, and no
+ * container is generated.
+ * <p>
+ * Unlike the {@link com.trent.queo.lwdic.container.LWDIContainer}, the generated container can only wire what the
+ * compiler can access: bean classes, their constructors, injected fields and init methods must not be private, and
+ * must be public unless they are in the package of the generated class. Injected fields must not be final. Lazy beans
+ * are created with all other beans, and beans added at runtime can not be injected.
+ */
+@SupportedAnnotationTypes("com.trent.queo.lwdic.annotations.AotContainer")
+public class AotContainerProcessor extends AbstractProcessor {
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getElementsAnnotatedWith(AotContainer.class)) {
+			if (element instanceof TypeElement) {
+				new ContainerGenerator((TypeElement) element).generate(roundEnv);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves and writes the container of one {@link AotContainer} annotated type.
+	 */
+	private final class ContainerGenerator {
+
+		private final Elements elements = processingEnv.getElementUtils();
+		private final Types types = processingEnv.getTypeUtils();
+
+		private final TypeElement containerElement;
+		private final String packageName;
+		private final String className;
+		private final String[] beanPackages;
+
+		private final List<AotBean> beans = new ArrayList<>();
+		private final Map<String, List<AotBean>> bindings = new LinkedHashMap<>();
+		private final Set<String> beanNames = new HashSet<>();
+		private boolean failed;
+
+		private ContainerGenerator(TypeElement containerElement) {
+			AotContainer annotation = containerElement.getAnnotation(AotContainer.class);
+			this.containerElement = containerElement;
+			this.packageName = elements.getPackageOf(containerElement).getQualifiedName().toString();
+			this.className = annotation.name().isEmpty() ? containerElement.getSimpleName() + "Container" : annotation.name();
+			this.beanPackages = annotation.packages();
+		}
+
+		private void generate(RoundEnvironment roundEnv) {
+			for (TypeElement beanElement : findBeanElements(roundEnv)) {
+				addBean(beanElement);
+			}
+			for (AotBean bean : beans) {
+				resolveInjectionPoints(bean);
+			}
+			if (failed) {
+				return;
+			}
+			List<AotBean> creationOrder = sortByDependencies(true);
+			if (failed) {
+				return;
+			}
+			writeContainer(creationOrder, sortByDependencies(false));
+		}
+
+		/**
+		 * The beans of the packages are looked up in the current compilation, which covers sub packages, and in the
+		 * packages themselves, which covers beans that were compiled before.
+		 */
+		private Collection<TypeElement> findBeanElements(RoundEnvironment roundEnv) {
+			Map<String, TypeElement> beanElements = new TreeMap<>();
+			for (Element element : roundEnv.getElementsAnnotatedWith(Bean.class)) {
+				if (element instanceof TypeElement && isInBeanPackages((TypeElement) element)) {
+					beanElements.put(BeanElements.binaryName(elements, (TypeElement) element), (TypeElement) element);
+				}
+			}
+			for (String beanPackage : beanPackages) {
+				PackageElement packageElement = elements.getPackageElement(beanPackage);
+				if (packageElement != null) {
+					collectBeanElements(packageElement.getEnclosedElements(), beanElements);
+				}
+			}
+			return beanElements.values();
+		}
+
+		private void collectBeanElements(List<? extends Element> enclosedElements, Map<String, TypeElement> beanElements) {
+			for (TypeElement type : ElementFilter.typesIn(enclosedElements)) {
+				if (type.getAnnotation(Bean.class) != null) {
+					beanElements.put(BeanElements.binaryName(elements, type), type);
+				}
+				collectBeanElements(type.getEnclosedElements(), beanElements);
+			}
+		}
+
+		private boolean isInBeanPackages(TypeElement type) {
+			String typePackage = elements.getPackageOf(type).getQualifiedName().toString();
+			for (String beanPackage : beanPackages) {
+				if (typePackage.equals(beanPackage) || typePackage.startsWith(beanPackage + ".")) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void addBean(TypeElement beanElement) {
+			BeanIndexEntry entry = BeanElements.createEntry(elements, beanElement);
+			// Like the runtime container, which can not create abstract beans either.
+			if (!entry.isInjectable() || entry.isAbstractType()) {
+				return;
+			}
+			if (!isAccessible(beanElement)) {
+				error(beanElement, "Bean " + entry.getClassName() + " is not accessible from package " + packageName + ".");
+				return;
+			}
+			if (beanElement.getNestingKind() == NestingKind.MEMBER && !beanElement.getModifiers().contains(Modifier.STATIC)) {
+				error(beanElement, "Bean " + entry.getClassName() + " must be a static nested class.");
+				return;
+			}
+			if (entry.getScope() != Scope.SINGLETON) {
+				error(beanElement, "Bean " + entry.getClassName() + " has the scope " + entry.getScope()
+						+ ", generated containers only support singletons.");
+				return;
+			}
+
+			AotBean bean = new AotBean(beanElement, entry, beans.size());
+			if (entry.getName() != null && !beanNames.add(entry.getName())) {
+				error(beanElement, "A bean with the name '" + entry.getName() + "' is already defined.");
+			}
+			beans.add(bean);
+			List<String> bindingNames = new ArrayList<>();
+			bindingNames.add(entry.getName() != null ? entry.getName() : entry.getClassName());
+			bindingNames.addAll(entry.getSupertypeNames());
+			for (String bindingName : bindingNames) {
+				bindings.computeIfAbsent(bindingName, key -> new ArrayList<>()).add(bean);
+			}
+		}
+
+		private void resolveInjectionPoints(AotBean bean) {
+			bean.constructor = findConstructor(bean);
+			if (bean.constructor != null) {
+				for (VariableElement parameter : bean.constructor.getParameters()) {
+					bean.constructorDependencies.add(resolve(parameter));
+				}
+			}
+
+			// Init methods of superclasses run first. Overridden init methods only run once, in their overriding version.
+			Deque<ExecutableElement> initMethods = new ArrayDeque<>();
+			Set<String> initMethodNames = new HashSet<>();
+			for (TypeElement type = bean.element; type != null && !isObject(type); type = BeanElements.asTypeElement(type.getSuperclass())) {
+				for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+					if (!field.getModifiers().contains(Modifier.STATIC)
+							&& (field.getAnnotation(Inject.class) != null || field.getAnnotation(Named.class) != null)) {
+						checkField(bean, field);
+						bean.fields.add(field);
+						bean.fieldDependencies.add(resolve(field));
+					}
+				}
+				List<ExecutableElement> declaredMethods = new ArrayList<>();
+				for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+					if (method.getAnnotation(Init.class) != null && (method.getModifiers().contains(Modifier.PRIVATE)
+							|| initMethodNames.add(method.getSimpleName().toString()))) {
+						checkInitMethod(bean, method);
+						declaredMethods.add(method);
+					}
+				}
+				for (int i = declaredMethods.size() - 1; i >= 0; i--) {
+					initMethods.addFirst(declaredMethods.get(i));
+				}
+			}
+			bean.initMethods.addAll(initMethods);
+		}
+
+		private ExecutableElement findConstructor(AotBean bean) {
+			ExecutableElement injectConstructor = null;
+			ExecutableElement noArgConstructor = null;
+			for (ExecutableElement constructor : ElementFilter.constructorsIn(bean.element.getEnclosedElements())) {
+				if (constructor.getAnnotation(Inject.class) != null) {
+					if (injectConstructor != null) {
+						error(constructor, "Bean " + bean.getClassName() + " has more than one constructor annotated with @Inject.");
+					}
+					injectConstructor = constructor;
+				} else if (constructor.getParameters().isEmpty()) {
+					noArgConstructor = constructor;
+				}
+			}
+			ExecutableElement constructor = injectConstructor != null ? injectConstructor : noArgConstructor;
+			if (constructor == null) {
+				error(bean.element, "Bean " + bean.getClassName() + " has neither a no-arg constructor nor a constructor annotated with @Inject.");
+			} else if (!isAccessible(constructor)) {
+				error(constructor, "The constructor of bean " + bean.getClassName() + " is not accessible from package " + packageName + ".");
+			}
+			return constructor;
+		}
+
+		private void checkField(AotBean bean, VariableElement field) {
+			TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+			if (!isAccessible(field) || declaringType != bean.element && !isAccessible(declaringType)) {
+				error(field, "Field " + field.getSimpleName() + " of bean " + bean.getClassName()
+						+ " is not accessible for injection from package " + packageName + ".");
+			} else if (field.getModifiers().contains(Modifier.FINAL)) {
+				error(field, "Field " + field.getSimpleName() + " of bean " + bean.getClassName() + " must not be final.");
+			}
+		}
+
+		private void checkInitMethod(AotBean bean, ExecutableElement method) {
+			TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+			if (!method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC)) {
+				error(method, "Init method " + method.getSimpleName() + " of bean " + bean.getClassName()
+						+ " must be a method without parameters.");
+			} else if (!isAccessible(method) || declaringType != bean.element && !isAccessible(declaringType)) {
+				error(method, "Init method " + method.getSimpleName() + " of bean " + bean.getClassName()
+						+ " is not accessible from package " + packageName + ".");
+			}
+		}
+
+		/**
+		 * Resolves the bean injected into a field or constructor parameter, by the same names as the runtime container.
+		 */
+		private AotDependency resolve(VariableElement injectionPoint) {
+			TypeMirror type = types.erasure(injectionPoint.asType());
+			boolean provider = false;
+			if (isSupplier(type)) {
+				List<? extends TypeMirror> typeArguments = ((DeclaredType) injectionPoint.asType()).getTypeArguments();
+				if (typeArguments.isEmpty()) {
+					error(injectionPoint, "Supplier " + injectionPoint.getSimpleName() + " must declare the type of the bean.");
+					return null;
+				}
+				TypeMirror typeArgument = typeArguments.get(0);
+				if (typeArgument.getKind() == TypeKind.WILDCARD) {
+					TypeMirror bound = ((WildcardType) typeArgument).getExtendsBound();
+					typeArgument = bound != null ? bound : elements.getTypeElement(Object.class.getName()).asType();
+				}
+				type = types.erasure(typeArgument);
+				provider = true;
+			}
+			TypeElement typeElement = BeanElements.asTypeElement(type);
+			if (typeElement == null) {
+				error(injectionPoint, "Only beans of a class or interface type can be injected into " + injectionPoint.getSimpleName() + ".");
+				return null;
+			}
+
+			Named named = injectionPoint.getAnnotation(Named.class);
+			String name = named != null ? named.name() : BeanElements.binaryName(elements, typeElement);
+			List<AotBean> candidates = bindings.get(name);
+			if (candidates == null) {
+				error(injectionPoint, "No suitable bean was found for " + name + ".");
+				return null;
+			}
+			AotBean bean = selectBean(candidates);
+			if (bean == null) {
+				StringJoiner classNames = new StringJoiner(", ");
+				for (AotBean candidate : candidates) {
+					classNames.add(candidate.getClassName());
+				}
+				error(injectionPoint, "More than one bean was found for " + name + ": " + classNames + ".");
+				return null;
+			}
+			if (!types.isAssignable(types.erasure(bean.element.asType()), type)) {
+				error(injectionPoint, "No bean named " + name + " of type " + typeElement.getQualifiedName() + " was found.");
+				return null;
+			}
+			return new AotDependency(bean, provider);
+		}
+
+		/**
+		 * @return the only candidate, the only primary candidate if there are several, or {@code null}.
+		 */
+		private AotBean selectBean(List<AotBean> candidates) {
+			if (candidates.size() == 1) {
+				return candidates.get(0);
+			}
+			AotBean primaryBean = null;
+			for (AotBean candidate : candidates) {
+				if (candidate.entry.isPrimary()) {
+					if (primaryBean != null) {
+						return null;
+					}
+					primaryBean = candidate;
+				}
+			}
+			return primaryBean;
+		}
+
+		/**
+		 * @param constructorsOnly whether only constructor dependencies are followed. Constructor dependencies must not
+		 *                         form a cycle, all other cycles are broken at an arbitrary bean.
+		 * @return the beans, every bean after the beans it depends on.
+		 */
+		private List<AotBean> sortByDependencies(boolean constructorsOnly) {
+			List<AotBean> sortedBeans = new ArrayList<>(beans.size());
+			Map<AotBean, Boolean> visited = new HashMap<>();
+			for (AotBean bean : beans) {
+				visit(bean, constructorsOnly, visited, sortedBeans);
+			}
+			return sortedBeans;
+		}
+
+		private void visit(AotBean bean, boolean constructorsOnly, Map<AotBean, Boolean> visited, List<AotBean> sortedBeans) {
+			Boolean done = visited.get(bean);
+			if (done != null) {
+				if (!done && constructorsOnly) {
+					error(bean.element, "Bean " + bean.getClassName() + " is part of a circular constructor dependency.");
+				}
+				return;
+			}
+			visited.put(bean, false);
+			for (AotDependency dependency : bean.constructorDependencies) {
+				if (!dependency.provider) {
+					visit(dependency.bean, constructorsOnly, visited, sortedBeans);
+				}
+			}
+			if (!constructorsOnly) {
+				for (AotDependency dependency : bean.fieldDependencies) {
+					if (!dependency.provider) {
+						visit(dependency.bean, false, visited, sortedBeans);
+					}
+				}
+			}
+			visited.put(bean, true);
+			sortedBeans.add(bean);
+		}
+
+		private void writeContainer(List<AotBean> creationOrder, List<AotBean> initOrder) {
+			String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+			StringBuilder source = new StringBuilder();
+			if (!packageName.isEmpty()) {
+				source.append("package ").append(packageName).append(";\n\n");
+			}
+			source.append("/**\n * Generated by ").append(AotContainerProcessor.class.getName()).append(" for {@link ")
+					.append(containerElement.getQualifiedName()).append("}. Do not edit.\n */\n")
+					.append("public final class ").append(className).append(" extends ").append(GeneratedContainer.class.getName()).append(" {\n\n")
+					.append("\tpublic ").append(className).append("() {\n\t\tsuper(createBindings());\n\t}\n\n")
+					.append("\t@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+					.append("\tprivate static Bindings createBindings() {\n")
+					.append("\t\tObject[] beans = new Object[").append(beans.size()).append("];\n");
+
+			for (AotBean bean : creationOrder) {
+				StringJoiner arguments = new StringJoiner(", ");
+				for (AotDependency dependency : bean.constructorDependencies) {
+					arguments.add(dependency.toExpression());
+				}
+				source.append("\t\t").append(bean.getTypeName()).append(' ').append(bean.variable).append(";\n");
+				appendGuarded(source, bean, !bean.constructor.getThrownTypes().isEmpty(),
+						bean.variable + " = new " + bean.getTypeName() + "(" + arguments + ");");
+				source.append("\t\tbeans[").append(bean.index).append("] = ").append(bean.variable).append(";\n");
+			}
+			for (AotBean bean : creationOrder) {
+				for (int i = 0; i < bean.fields.size(); i++) {
+					VariableElement field = bean.fields.get(i);
+					TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+					String target = declaringType == bean.element ? bean.variable
+							: "((" + types.erasure(declaringType.asType()) + ") " + bean.variable + ")";
+					source.append("\t\t").append(target).append('.').append(field.getSimpleName()).append(" = ")
+							.append(bean.fieldDependencies.get(i).toExpression()).append(";\n");
+				}
+			}
+			for (AotBean bean : initOrder) {
+				for (ExecutableElement initMethod : bean.initMethods) {
+					appendGuarded(source, bean, true, bean.variable + "." + initMethod.getSimpleName() + "();");
+				}
+			}
+
+			source.append("\t\tBindings bindings = new Bindings();\n");
+			for (Map.Entry<String, List<AotBean>> binding : bindings.entrySet()) {
+				for (AotBean bean : binding.getValue()) {
+					source.append("\t\tbindings.bind(").append(elements.getConstantExpression(binding.getKey()))
+							.append(", ").append(bean.variable).append(");\n");
+				}
+			}
+			for (AotBean bean : beans) {
+				if (bean.entry.isPrimary()) {
+					source.append("\t\tbindings.markPrimary(").append(bean.variable).append(");\n");
+				}
+			}
+			source.append("\t\treturn bindings;\n\t}\n}\n");
+
+			try {
+				JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(qualifiedName, containerElement);
+				try (Writer writer = sourceFile.openWriter()) {
+					writer.write(source.toString());
+				}
+			} catch (IOException e) {
+				error(containerElement, "Unable to write the container " + qualifiedName + ": " + e.getMessage());
+			}
+		}
+
+		/**
+		 * Failures of constructors and init methods are reported like the runtime container reports failed init methods.
+		 */
+		private void appendGuarded(StringBuilder source, AotBean bean, boolean guarded, String statement) {
+			if (!guarded) {
+				source.append("\t\t").append(statement).append('\n');
+				return;
+			}
+			source.append("\t\ttry {\n\t\t\t").append(statement).append("\n\t\t} catch (Exception e) {\n")
+					.append("\t\t\tthrow new ").append(BeanInitializationException.class.getName()).append('(')
+					.append(elements.getConstantExpression(bean.getClassName())).append(", e);\n\t\t}\n");
+		}
+
+		private boolean isAccessible(Element element) {
+			Set<Modifier> modifiers = element.getModifiers();
+			if (modifiers.contains(Modifier.PRIVATE)) {
+				return false;
+			}
+			if (!modifiers.contains(Modifier.PUBLIC)
+					&& !elements.getPackageOf(element).getQualifiedName().contentEquals(packageName)) {
+				return false;
+			}
+			// A nested class is only accessible if its enclosing classes are.
+			Element enclosingElement = element.getEnclosingElement();
+			return !(element instanceof TypeElement && enclosingElement instanceof TypeElement)
+					|| isAccessible(enclosingElement);
+		}
+
+		private boolean isSupplier(TypeMirror type) {
+			TypeElement typeElement = BeanElements.asTypeElement(type);
+			return typeElement != null && typeElement.getQualifiedName().contentEquals(Supplier.class.getName());
+		}
+
+		private boolean isObject(TypeElement type) {
+			return type.getQualifiedName().contentEquals(Object.class.getName());
+		}
+
+		private void error(Element element, String message) {
+			failed = true;
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+		}
+	}
+
+	/**
+	 * A bean of a generated container and its resolved injection points.
+	 */
+	private static final class AotBean {
+
+		private final TypeElement element;
+		private final BeanIndexEntry entry;
+		private final int index;
+		private final String variable;
+
+		private ExecutableElement constructor;
+		private final List<AotDependency> constructorDependencies = new ArrayList<>();
+		private final List<VariableElement> fields = new ArrayList<>();
+		private final List<AotDependency> fieldDependencies = new ArrayList<>();
+		private final List<ExecutableElement> initMethods = new ArrayList<>();
+
+		private AotBean(TypeElement element, BeanIndexEntry entry, int index) {
+			this.element = element;
+			this.entry = entry;
+			this.index = index;
+			this.variable = "bean" + index;
+		}
+
+		private String getClassName() {
+			return entry.getClassName();
+		}
+
+		private String getTypeName() {
+			return element.getQualifiedName().toString();
+		}
+	}
+
+	/**
+	 * A resolved dependency: the bean itself, or a {@link Supplier} of a bean that may not have been created yet.
+	 */
+	private static final class AotDependency {
+
+		private final AotBean bean;
+		private final boolean provider;
+
+		private AotDependency(AotBean bean, boolean provider) {
+			this.bean = bean;
+			this.provider = provider;
+		}
+
+		private String toExpression() {
+			return provider ? "() -> (" + bean.getTypeName() + ") beans[" + bean.index + "]" : bean.variable;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.trent.queo.lwdic.aot;
+
+import com.trent.queo.lwdic.container.BeanContainer;
+import com.trent.queo.lwdic.container.exceptions.BeanConflictException;
+import com.trent.queo.lwdic.container.exceptions.NoSuitableBeanFoundException;
+
+import java.util.*;
+
+/**
+ * The superclass of the containers generated by the {@link AotContainerProcessor}. The generated constructor creates
+ * and wires all beans and passes their {@link Bindings} to this class, which answers the lookups.
+ * <p>
+ * The result of every lookup is computed on construction and never modified, so lookups need no synchronization and
+ * do not allocate.
+ */
+public abstract class GeneratedContainer implements BeanContainer {
+
+	private final Map<String, Set<Object>> bindings;
+
+	private final Map<String, List<Object>> beansByName;
+
+	// The bean resolved for a name: the only bean or the only primary bean. Ambiguous names are missing.
+	private final Map<String, Optional<Object>> resolvedBeans;
+
+	protected GeneratedContainer(Bindings bindings) {
+		Map<String, Set<Object>> unmodifiableBindings = new HashMap<>(bindings.beans.size() * 2);
+		Map<String, List<Object>> beansByName = new HashMap<>(bindings.beans.size() * 2);
+		Map<String, Optional<Object>> resolvedBeans = new HashMap<>(bindings.beans.size() * 2);
+		for (Map.Entry<String, Set<Object>> binding : bindings.beans.entrySet()) {
+			Set<Object> beans = binding.getValue();
+			unmodifiableBindings.put(binding.getKey(), Collections.unmodifiableSet(beans));
+			beansByName.put(binding.getKey(), Collections.unmodifiableList(Arrays.asList(beans.toArray())));
+			Object bean = selectBean(beans, bindings.primaryBeans);
+			if (bean != null) {
+				resolvedBeans.put(binding.getKey(), Optional.of(bean));
+			}
+		}
+		this.bindings = Collections.unmodifiableMap(unmodifiableBindings);
+		this.beansByName = beansByName;
+		this.resolvedBeans = resolvedBeans;
+	}
+
+	private static Object selectBean(Set<Object> beans, Set<Object> primaryBeans) {
+		if (beans.size() == 1) {
+			return beans.iterator().next();
+		}
+		Object primaryBean = null;
+		for (Object bean : beans) {
+			if (primaryBeans.contains(bean)) {
+				if (primaryBean != null) {
+					return null;
+				}
+				primaryBean = bean;
+			}
+		}
+		return primaryBean;
+	}
+
+	@Override
+	public <T> T getBeanByType(Class<T> beanType) {
+		String beanClassName = beanType.getName();
+		Object bean = getBean(beanClassName, "No suitable bean was found for " + beanClassName + ".");
+		if (!beanType.isInstance(bean)) {
+			throw new NoSuitableBeanFoundException("No suitable bean was found for " + beanClassName + ".");
+		}
+		return beanType.cast(bean);
+	}
+
+	@Override
+	public <T> Optional<T> findBeanByType(Class<T> beanType) {
+		return findBean(beanType.getName(), beanType);
+	}
+
+	@Override
+	public <T> T getBeanByNameAndType(String beanName, Class<T> beanClass) {
+		Object bean = getBean(beanName, "No bean with the name " + beanName + " was found");
+		if (!beanClass.isInstance(bean)) {
+			throw new NoSuitableBeanFoundException("No bean named " + beanName + " of type " + beanClass.getName() + " was found.");
+		}
+		return beanClass.cast(bean);
+	}
+
+	@Override
+	public <T> Optional<T> findBeanByNameAndType(String beanName, Class<T> beanClass) {
+		return findBean(beanName, beanClass);
+	}
+
+	/**
+	 * All beans registered under the name of a type are instances of the type, as the compiler checked.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> List<T> getBeansOfType(Class<T> beanType) {
+		List<Object> beans = beansByName.get(beanType.getName());
+		return beans != null ? (List<T>) beans : Collections.<T>emptyList();
+	}
+
+	@Override
+	public Map<String, Set<Object>> getBeans() {
+		return bindings;
+	}
+
+	private Object getBean(String beanName, String missingMessage) {
+		Optional<Object> bean = resolvedBeans.get(beanName);
+		if (bean == null) {
+			if (bindings.containsKey(beanName)) {
+				throw new BeanConflictException(beanName);
+			}
+			throw new NoSuitableBeanFoundException(missingMessage);
+		}
+		return bean.get();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Optional<T> findBean(String beanName, Class<T> beanClass) {
+		Optional<Object> bean = resolvedBeans.get(beanName);
+		return bean != null && beanClass.isInstance(bean.get()) ? (Optional<T>) bean : Optional.<T>empty();
+	}
+
+	/**
+	 * The beans of a generated container by the names they are registered under, collected by the generated
+	 * constructor.
+	 */
+	public static final class Bindings {
+
+		private final Map<String, Set<Object>> beans = new HashMap<>();
+
+		private final Set<Object> primaryBeans = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		/**
+		 * Registers a bean under a name.
+		 */
+		public void bind(String name, Object bean) {
+			beans.computeIfAbsent(name, key -> new LinkedHashSet<>()).add(bean);
+		}
+
+		/**
+		 * Marks a bean annotated with {@link com.trent.queo.lwdic.annotations.Primary}.
+		 */
+		public void markPrimary(Object bean) {
+			primaryBeans.add(bean);
+		}
+	}
+}
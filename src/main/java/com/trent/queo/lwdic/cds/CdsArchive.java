@@ -0,0 +1,65 @@
+package com.trent.queo.lwdic.cds;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An AppCDS archive created by a {@link CdsTrainer}.
+ */
+public final class CdsArchive {
+
+	private final Path classListFile;
+	private final Path archiveFile;
+	private final String classpath;
+	private final int classCount;
+
+	CdsArchive(Path classListFile, Path archiveFile, String classpath, int classCount) {
+		this.classListFile = classListFile;
+		this.archiveFile = archiveFile;
+		this.classpath = classpath;
+		this.classCount = classCount;
+	}
+
+	/**
+	 * @return the list of all classes loaded by the training run.
+	 */
+	public Path getClassListFile() {
+		return classListFile;
+	}
+
+	/**
+	 * @return the shared archive.
+	 */
+	public Path getArchiveFile() {
+		return archiveFile;
+	}
+
+	/**
+	 * @return the classpath the archive was created for, with jar files in place of the directories of the trained
+	 * classpath. The JVM ignores the archive for any other classpath.
+	 */
+	public String getClasspath() {
+		return classpath;
+	}
+
+	/**
+	 * @return the number of classes in the class list.
+	 */
+	public int getClassCount() {
+		return classCount;
+	}
+
+	/**
+	 * @return the options that launch a JVM with the archive and its classpath. The JVM falls back to loading classes
+	 * normally if the archive can not be mapped.
+	 */
+	public List<String> getJvmOptions() {
+		return Arrays.asList("-XX:SharedArchiveFile=" + archiveFile, "-Xshare:auto", "-cp", classpath);
+	}
+
+	@Override
+	public String toString() {
+		return "CdsArchive{" + archiveFile + ", " + classCount + " classes}";
+	}
+}
@@ -0,0 +1,176 @@
+package com.trent.queo.lwdic.cds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Creates an AppCDS archive of all classes loaded while a container scans and starts, so that later launches map these
+ * classes from the archive instead of loading, parsing and verifying them again. This covers the bean classes loaded
+ * by the container as well as ClassGraph, the container itself and the JDK classes they use.
+ * <p>
+ * A training consists of two runs of a new JVM:
+ * <ol>
+ * <li>A {@link TrainingRun} with {@code -XX:DumpLoadedClassList}, which scans the given packages, starts and stops a
+ * container. The JVM writes every class it loaded to the class list.</li>
+ * <li>A run with {@code -Xshare:dump}, which writes the classes of the list to the shared archive.</li>
+ * </ol>
+ * Archiving application classes requires Java 10 or later. The archive can only be used with the JVM that created it
+ * and with the same classpath, see {@link CdsArchive#getJvmOptions()}. The JVM only archives classes from jar files,
+ * so directories on the classpath, like {@code target/classes}, are packed into jar files in the output directory.
+ */
+public final class CdsTrainer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CdsTrainer.class);
+
+	private static final String CLASS_LIST_FILE = "lwdic.classlist";
+	private static final String ARCHIVE_FILE = "lwdic.jsa";
+	private static final String CLASSPATH_DIRECTORY = "classpath";
+
+	private final Path outputDirectory;
+
+	private Path javaExecutable = Paths.get(System.getProperty("java.home"), "bin", "java");
+
+	/**
+	 * @param outputDirectory the directory of the class list, the archive, the jar files of classpath directories and
+	 *                        the logs of the training runs. Created if necessary.
+	 */
+	public CdsTrainer(Path outputDirectory) {
+		this.outputDirectory = outputDirectory.toAbsolutePath();
+	}
+
+	/**
+	 * Trains an archive with the current classpath.
+	 * <p>
+	 * Usage: {@code java -cp <classpath> com.trent.queo.lwdic.cds.CdsTrainer <output directory> <package>...}
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: CdsTrainer <output directory> <package>...");
+			System.exit(1);
+		}
+		CdsArchive archive = new CdsTrainer(Paths.get(args[0]))
+				.train(System.getProperty("java.class.path"), Arrays.copyOfRange(args, 1, args.length));
+		System.out.println(archive);
+		System.out.println("Launch the application with: " + String.join(" ", archive.getJvmOptions()));
+	}
+
+	/**
+	 * Sets the java executable of the training runs. Defaults to the executable of the running JVM.
+	 */
+	public void setJavaExecutable(Path javaExecutable) {
+		this.javaExecutable = javaExecutable;
+	}
+
+	/**
+	 * Runs the training and replaces the class list and the archive of a previous training.
+	 *
+	 * @param classpath    the classpath of the application, including the bean classes and this library.
+	 * @param packageNames the packages the application scans.
+	 * @return the trained archive.
+	 * @throws IOException if a training run failed. Its output is kept in a log file in the output directory.
+	 */
+	public CdsArchive train(String classpath, String... packageNames) throws IOException {
+		Files.createDirectories(outputDirectory);
+		String archiveClasspath = toArchiveClasspath(classpath);
+		Path classList = outputDirectory.resolve(CLASS_LIST_FILE);
+		Path archive = outputDirectory.resolve(ARCHIVE_FILE);
+		Files.deleteIfExists(classList);
+		Files.deleteIfExists(archive);
+
+		LOGGER.info("Recording the classes loaded by packages {}...", Arrays.toString(packageNames));
+		List<String> trainingCommand = new ArrayList<>(Arrays.asList(javaExecutable.toString(),
+				"-XX:DumpLoadedClassList=" + classList, "-cp", archiveClasspath, TrainingRun.class.getName()));
+		trainingCommand.addAll(Arrays.asList(packageNames));
+		run(trainingCommand, outputDirectory.resolve("training.log"));
+
+		LOGGER.info("Writing the shared archive {}...", archive);
+		run(Arrays.asList(javaExecutable.toString(), "-Xshare:dump", "-XX:SharedClassListFile=" + classList,
+				"-XX:SharedArchiveFile=" + archive, "-cp", archiveClasspath), outputDirectory.resolve("dump.log"));
+		if (!Files.exists(archive)) {
+			throw new IOException("The JVM did not write the shared archive " + archive + ".");
+		}
+		return new CdsArchive(classList, archive, archiveClasspath, countClasses(classList));
+	}
+
+	/**
+	 * @return the classpath with all directories replaced by jar files of their content. Empty and missing entries are
+	 * dropped, since the JVM refuses to map an archive for a classpath with non-empty directories.
+	 */
+	private String toArchiveClasspath(String classpath) throws IOException {
+		Path jarDirectory = outputDirectory.resolve(CLASSPATH_DIRECTORY);
+		List<String> entries = new ArrayList<>();
+		for (String entry : classpath.split(File.pathSeparator)) {
+			if (entry.isEmpty()) {
+				continue;
+			}
+			Path path = Paths.get(entry).toAbsolutePath();
+			if (Files.isDirectory(path)) {
+				Files.createDirectories(jarDirectory);
+				Path jar = jarDirectory.resolve(entries.size() + "-" + path.getFileName() + ".jar");
+				if (writeJar(path, jar)) {
+					entries.add(jar.toString());
+				}
+			} else if (Files.exists(path)) {
+				entries.add(path.toString());
+			}
+		}
+		return String.join(File.pathSeparator, entries);
+	}
+
+	/**
+	 * @return whether the directory had any files.
+	 */
+	private static boolean writeJar(Path directory, Path jar) throws IOException {
+		List<Path> files;
+		try (Stream<Path> paths = Files.walk(directory)) {
+			files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+		if (files.isEmpty()) {
+			return false;
+		}
+		try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar))) {
+			for (Path file : files) {
+				output.putNextEntry(new JarEntry(directory.relativize(file).toString().replace(File.separatorChar, '/')));
+				Files.copy(file, output);
+				output.closeEntry();
+			}
+		}
+		return true;
+	}
+
+	private static void run(List<String> command, Path log) throws IOException {
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+		int exitCode;
+		try {
+			exitCode = process.waitFor();
+		} catch (InterruptedException e) {
+			process.destroy();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for " + command.get(0) + ".");
+		}
+		if (exitCode != 0) {
+			throw new IOException("The training run failed with exit code " + exitCode + ", see " + log + ".");
+		}
+	}
+
+	private static int countClasses(Path classList) throws IOException {
+		try (Stream<String> lines = Files.lines(classList)) {
+			// Comments start with #, lambda proxies and other archived objects with @.
+			return (int) lines.filter(line -> !line.isEmpty() && !line.startsWith("#") && !line.startsWith("@")).count();
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.trent.queo.lwdic.cds;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application run by a {@link CdsTrainer}: scans the given packages, starts the container and stops it again, so
+ * that every class needed to start the container is loaded.
+ * <p>
+ * Usage: {@code java -cp <classpath> com.trent.queo.lwdic.cds.TrainingRun <package>...}
+ */
+public final class TrainingRun {
+
+	private TrainingRun() {
+	}
+
+	public static void main(String[] args) {
+		long startNanos = System.nanoTime();
+		try (LWDIContainer container = new LWDIContainer()) {
+			container.scanPackages(args);
+			container.start();
+		}
+		System.out.println("Started the container in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)
+				+ "ms, " + ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() + " classes loaded.");
+	}
+}
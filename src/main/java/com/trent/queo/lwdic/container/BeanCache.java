@@ -0,0 +1,279 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.timing.LatencyHistogram;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The instances of the {@link com.trent.queo.lwdic.annotations.Scope#CACHED cached} beans of a container, returned by
+ * {@link LWDIContainer#getBeanCache()}.
+ * <p>
+ * A cached instance is evicted when the garbage collector needs its memory, when it was not resolved for the
+ * {@link LWDIContainer#setCachedBeanIdleTimeout(long, TimeUnit) idle timeout}, or when more instances are cached than
+ * the {@link LWDIContainer#setCachedBeanBudget(int) budget} allows, starting with the least recently used one. Evicted
+ * beans are created, injected and initialized again on their next resolution, and the latency of these re-creations
+ * is recorded, so that the timeout and the budget can be tuned against the cost of rebuilding the beans.
+ */
+public final class BeanCache {
+
+	/**
+	 * The reasons for evicting a cached instance.
+	 */
+	public enum EvictionCause {
+		/**
+		 * The instance was cleared by the garbage collector.
+		 */
+		MEMORY,
+		/**
+		 * The instance was not resolved for the idle timeout.
+		 */
+		IDLE,
+		/**
+		 * The instance was the least recently used one when the budget was exceeded.
+		 */
+		BUDGET,
+		/**
+		 * The instance was evicted by {@link LWDIContainer#evictCachedBeans()}.
+		 */
+		EXPLICIT
+	}
+
+	private static final long MIN_EVICTION_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final Set<CachedBean> cachedBeans = ConcurrentHashMap.newKeySet();
+
+	private final Map<EvictionCause, LongAdder> evictions = new EnumMap<>(EvictionCause.class);
+
+	private final LatencyHistogram recreationLatency = new LatencyHistogram();
+
+	private volatile int budget;
+
+	private volatile long idleTimeoutNanos;
+
+	private ScheduledFuture<?> idleEviction;
+
+	BeanCache() {
+		for (EvictionCause cause : EvictionCause.values()) {
+			evictions.put(cause, new LongAdder());
+		}
+	}
+
+	void add(CachedBean cachedBean) {
+		cachedBeans.add(cachedBean);
+	}
+
+	void remove(CachedBean cachedBean) {
+		cachedBeans.remove(cachedBean);
+	}
+
+	/**
+	 * @param budget the maximum number of cached instances, or 0 for no limit.
+	 */
+	void setBudget(int budget) {
+		this.budget = Math.max(0, budget);
+		enforceBudget();
+	}
+
+	/**
+	 * Sets the idle timeout and schedules the periodic eviction of idle instances. Idle instances are evicted at most
+	 * half the timeout after it elapsed.
+	 *
+	 * @param idleTimeoutNanos the idle timeout in nanoseconds, or 0 to keep idle instances.
+	 */
+	synchronized void setIdleTimeout(long idleTimeoutNanos) {
+		this.idleTimeoutNanos = Math.max(0, idleTimeoutNanos);
+		if (idleEviction != null) {
+			idleEviction.cancel(false);
+			idleEviction = null;
+		}
+		if (this.idleTimeoutNanos > 0) {
+			long period = Math.max(MIN_EVICTION_PERIOD_NANOS, this.idleTimeoutNanos / 2);
+			idleEviction = IdleEviction.schedule(this, period);
+		}
+	}
+
+	/**
+	 * Stops the periodic eviction of idle instances.
+	 */
+	synchronized void close() {
+		if (idleEviction != null) {
+			idleEviction.cancel(false);
+			idleEviction = null;
+		}
+	}
+
+	/**
+	 * Evicts the least recently used instances until no more instances are cached than the budget allows.
+	 */
+	void enforceBudget() {
+		int budget = this.budget;
+		if (budget <= 0 || cachedBeans.size() <= budget) {
+			return;
+		}
+		List<CachedBean> cachedInstances = getCachedInstances();
+		if (cachedInstances.size() <= budget) {
+			return;
+		}
+		cachedInstances.sort((first, second) -> Long.signum(first.getLastAccessNanos() - second.getLastAccessNanos()));
+		for (int i = 0; i < cachedInstances.size() - budget; i++) {
+			cachedInstances.get(i).evict(EvictionCause.BUDGET);
+		}
+	}
+
+	/**
+	 * Evicts all instances that were not resolved for the idle timeout. Also counts the instances cleared by the garbage
+	 * collector since the last check.
+	 */
+	void evictIdleBeans() {
+		long idleTimeoutNanos = this.idleTimeoutNanos;
+		long now = System.nanoTime();
+		for (CachedBean cachedBean : cachedBeans) {
+			if (!cachedBean.isCached()) {
+				cachedBean.evict(EvictionCause.MEMORY);
+			} else if (idleTimeoutNanos > 0 && now - cachedBean.getLastAccessNanos() >= idleTimeoutNanos) {
+				cachedBean.evict(EvictionCause.IDLE);
+			}
+		}
+	}
+
+	/**
+	 * Evicts all cached instances.
+	 */
+	void evictAll() {
+		for (CachedBean cachedBean : cachedBeans) {
+			cachedBean.evict(EvictionCause.EXPLICIT);
+		}
+	}
+
+	private List<CachedBean> getCachedInstances() {
+		List<CachedBean> cachedInstances = new ArrayList<>();
+		for (CachedBean cachedBean : cachedBeans) {
+			if (cachedBean.isCached()) {
+				cachedInstances.add(cachedBean);
+			}
+		}
+		return cachedInstances;
+	}
+
+	void recordEviction(EvictionCause cause) {
+		evictions.get(cause).increment();
+	}
+
+	void recordRecreation(long nanos) {
+		recreationLatency.record(nanos);
+	}
+
+	/**
+	 * @return the maximum number of cached instances, or 0 for no limit.
+	 */
+	public int getBudget() {
+		return budget;
+	}
+
+	/**
+	 * @return the idle timeout in nanoseconds, or 0 if idle instances are kept.
+	 */
+	public long getIdleTimeoutNanos() {
+		return idleTimeoutNanos;
+	}
+
+	/**
+	 * @return the number of cached beans registered in the container.
+	 */
+	public int getCachedBeanCount() {
+		return cachedBeans.size();
+	}
+
+	/**
+	 * @return the number of cached beans that currently have an instance.
+	 */
+	public int getCachedInstanceCount() {
+		return getCachedInstances().size();
+	}
+
+	/**
+	 * @return the number of evicted instances for all causes. Instances cleared by the garbage collector are only
+	 * counted once the container notices, on their next resolution or the next check for idle instances.
+	 */
+	public long getEvictionCount() {
+		long count = 0;
+		for (LongAdder eviction : evictions.values()) {
+			count += eviction.sum();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of instances evicted for the given cause.
+	 */
+	public long getEvictionCount(EvictionCause cause) {
+		return evictions.get(cause).sum();
+	}
+
+	/**
+	 * @return the number of instances created again after an eviction.
+	 */
+	public long getRecreationCount() {
+		return recreationLatency.getCount();
+	}
+
+	/**
+	 * @return the latencies of creating, injecting and initializing evicted beans again.
+	 */
+	public LatencyHistogram getRecreationLatency() {
+		return recreationLatency;
+	}
+
+	@Override
+	public String toString() {
+		return "BeanCache{beans=" + getCachedBeanCount() + ", cached=" + getCachedInstanceCount()
+				+ ", evictions=" + getEvictionCount() + ", recreations=" + recreationLatency + "}";
+	}
+
+	/**
+	 * Evicts the idle instances of all containers from a single daemon thread. The scheduled task only references its
+	 * cache weakly, so that a container that is no longer used can be collected; its task is cancelled then.
+	 */
+	private static final class IdleEviction implements Runnable {
+
+		private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "lwdic-bean-cache-eviction");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		private final WeakReference<BeanCache> cache;
+		private volatile ScheduledFuture<?> future;
+
+		private IdleEviction(BeanCache cache) {
+			this.cache = new WeakReference<>(cache);
+		}
+
+		static ScheduledFuture<?> schedule(BeanCache cache, long periodNanos) {
+			IdleEviction idleEviction = new IdleEviction(cache);
+			idleEviction.future = SCHEDULER.scheduleWithFixedDelay(idleEviction, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+			return idleEviction.future;
+		}
+
+		@Override
+		public void run() {
+			BeanCache beanCache = cache.get();
+			if (beanCache != null) {
+				beanCache.evictIdleBeans();
+			} else if (future != null) {
+				future.cancel(false);
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.container.exceptions.BeanConflictException;
+import com.trent.queo.lwdic.container.exceptions.NoSuitableBeanFoundException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The lookup API shared by the {@link LWDIContainer} and the containers generated by the
+ * {@link com.trent.queo.lwdic.aot.AotContainerProcessor}.
+ */
+public interface BeanContainer {
+
+	/**
+	 * @param beanType the type of the bean.
+	 * @return the bean registered under the name of the given type.
+	 * @throws NoSuitableBeanFoundException if there is no bean of the given type.
+	 * @throws BeanConflictException        if more than one bean is registered under the name of the type and none of
+	 *                                      them is {@link com.trent.queo.lwdic.annotations.Primary}.
+	 */
+	<T> T getBeanByType(Class<T> beanType);
+
+	/**
+	 * Like {@link #getBeanByType(Class)}, but a missing or ambiguous bean is not an error.
+	 *
+	 * @param beanType the type of the bean.
+	 * @return the bean registered under the name of the given type, or an empty optional.
+	 */
+	<T> Optional<T> findBeanByType(Class<T> beanType);
+
+	/**
+	 * @param beanName  the name the bean is registered under.
+	 * @param beanClass the expected type of the bean.
+	 * @return the bean registered under the given name.
+	 * @throws NoSuitableBeanFoundException if there is no bean with the given name and type.
+	 * @throws BeanConflictException        if more than one bean is registered under the name and none of them is
+	 *                                      {@link com.trent.queo.lwdic.annotations.Primary}.
+	 */
+	<T> T getBeanByNameAndType(String beanName, Class<T> beanClass);
+
+	/**
+	 * Like {@link #getBeanByNameAndType(String, Class)}, but a missing or ambiguous bean is not an error.
+	 *
+	 * @param beanName  the name the bean is registered under.
+	 * @param beanClass the expected type of the bean.
+	 * @return the bean registered under the given name, or an empty optional.
+	 */
+	<T> Optional<T> findBeanByNameAndType(String beanName, Class<T> beanClass);
+
+	/**
+	 * @param beanType the type of the beans.
+	 * @return an unmodifiable list of all beans registered under the name of the given type, e.g. all implementations
+	 * of an interface.
+	 */
+	<T> List<T> getBeansOfType(Class<T> beanType);
+
+	/**
+	 * @return an unmodifiable snapshot of all beans by the names they are registered under.
+	 */
+	Map<String, Set<Object>> getBeans();
+}
@@ -0,0 +1,308 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.annotations.Scope;
+import com.trent.queo.lwdic.container.exceptions.CircularDependencyException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A bean registered in a {@link BeanRegistry}. The instance of a singleton bean is either given on registration or
+ * created on demand, the first time the bean is resolved. Prototype beans are created every time they are resolved,
+ * pooled beans resolve to their {@link BeanPool} and cached beans resolve to their {@link CachedBean cached instance}.
+ */
+final class BeanDefinition {
+
+	/**
+	 * Creates and initializes the instances of lazy beans and beans with constructor dependencies. Every bean is
+	 * created under its own definition, so unrelated beans can be created concurrently.
+	 */
+	interface BeanLifecycle {
+
+		Object instantiate(BeanDefinition beanDefinition);
+
+		void initialize(BeanDefinition beanDefinition, Object bean);
+	}
+
+	// The prototype beans created by the current thread. A prototype resolved again while it is created depends on
+	// itself and would be created endlessly.
+	private static final ThreadLocal<Set<BeanDefinition>> PROTOTYPES_IN_CREATION = ThreadLocal.withInitial(HashSet::new);
+
+	// The bean every thread waits for while another thread creates it, to find threads that would wait for each other.
+	private static final ConcurrentMap<Thread, BeanDefinition> WAITING_THREADS = new ConcurrentHashMap<>();
+	private static final Object WAITING_THREADS_LOCK = new Object();
+
+	// Returned by awaitCreation() to the thread that has to create the bean.
+	private static final Object CREATE = new Object();
+
+	private final String beanClassName;
+	private final BeanLifecycle lifecycle;
+	private final boolean primary;
+	private final Scope scope;
+	private final BeanPool<Object> pool;
+	private final CachedBean cachedBean;
+
+	private volatile boolean created;
+	private volatile Object instance;
+
+	// The thread creating the bean, changed while holding the lock of this definition.
+	private volatile Thread creatingThread;
+	// Guarded by this definition. Holds the instance while it is initialized, so that circular dependencies can be resolved.
+	private Object earlyInstance;
+
+	private BeanDefinition(String beanClassName, BeanLifecycle lifecycle, boolean primary, Object instance, boolean created) {
+		this(beanClassName, lifecycle, primary, instance, created, Scope.SINGLETON, 0, null);
+	}
+
+	private BeanDefinition(String beanClassName, BeanLifecycle lifecycle, boolean primary, Object instance, boolean created,
+						   Scope scope, int poolSize, BeanCache cache) {
+		this.beanClassName = beanClassName;
+		this.lifecycle = lifecycle;
+		this.primary = primary;
+		this.instance = instance;
+		this.created = created;
+		this.scope = scope;
+		this.pool = scope == Scope.POOLED ? new BeanPool<>(beanClassName, poolSize, () -> lifecycle.instantiate(this)) : null;
+		this.cachedBean = scope == Scope.CACHED ? new CachedBean(beanClassName, () -> lifecycle.instantiate(this), cache) : null;
+	}
+
+	/**
+	 * @return a definition of an existing bean instance.
+	 */
+	static BeanDefinition ofInstance(String beanClassName, Object instance) {
+		return ofInstance(beanClassName, instance, false);
+	}
+
+	/**
+	 * @param primary whether the bean is annotated with {@link com.trent.queo.lwdic.annotations.Primary}.
+	 * @return a definition of an existing bean instance.
+	 */
+	static BeanDefinition ofInstance(String beanClassName, Object instance, boolean primary) {
+		return new BeanDefinition(beanClassName, null, primary, instance, true);
+	}
+
+	/**
+	 * @param primary whether the bean is annotated with {@link com.trent.queo.lwdic.annotations.Primary}.
+	 * @return a definition of a bean that is created by the given lifecycle on first use.
+	 */
+	static BeanDefinition lazy(String beanClassName, BeanLifecycle lifecycle, boolean primary) {
+		return new BeanDefinition(beanClassName, lifecycle, primary, null, false);
+	}
+
+	/**
+	 * @param primary whether the bean is annotated with {@link com.trent.queo.lwdic.annotations.Primary}.
+	 * @return a definition of a bean that is created by the given lifecycle every time it is resolved.
+	 */
+	static BeanDefinition prototype(String beanClassName, BeanLifecycle lifecycle, boolean primary) {
+		return new BeanDefinition(beanClassName, lifecycle, primary, null, false, Scope.PROTOTYPE, 0, null);
+	}
+
+	/**
+	 * @param primary  whether the bean is annotated with {@link com.trent.queo.lwdic.annotations.Primary}.
+	 * @param poolSize the maximum number of idle instances shared by the threads.
+	 * @return a definition of a bean whose instances are created by the given lifecycle for its {@link BeanPool}.
+	 */
+	static BeanDefinition pooled(String beanClassName, BeanLifecycle lifecycle, boolean primary, int poolSize) {
+		return new BeanDefinition(beanClassName, lifecycle, primary, null, false, Scope.POOLED, poolSize, null);
+	}
+
+	/**
+	 * @param primary whether the bean is annotated with {@link com.trent.queo.lwdic.annotations.Primary}.
+	 * @param cache   the cache the instance of the bean is added to.
+	 * @return a definition of a bean whose instance is created by the given lifecycle and may be evicted by the cache.
+	 */
+	static BeanDefinition cached(String beanClassName, BeanLifecycle lifecycle, boolean primary, BeanCache cache) {
+		BeanDefinition beanDefinition = new BeanDefinition(beanClassName, lifecycle, primary, null, false, Scope.CACHED, 0, cache);
+		cache.add(beanDefinition.cachedBean);
+		return beanDefinition;
+	}
+
+	String getBeanClassName() {
+		return beanClassName;
+	}
+
+	boolean isPrimary() {
+		return primary;
+	}
+
+	boolean isLazy() {
+		return lifecycle != null;
+	}
+
+	Scope getScope() {
+		return scope;
+	}
+
+	/**
+	 * @return the cached instance of a cached bean, {@code null} for other beans.
+	 */
+	CachedBean getCachedBean() {
+		return cachedBean;
+	}
+
+	/**
+	 * @return whether every resolution of the bean returns the same instance.
+	 */
+	boolean isSingleton() {
+		return scope == Scope.SINGLETON;
+	}
+
+	boolean isCreated() {
+		return created;
+	}
+
+	/**
+	 * @return the instance of the bean if it was already created, {@code null} otherwise and for prototype, pooled
+	 * and cached beans.
+	 */
+	Object getInstanceIfCreated() {
+		return created ? instance : null;
+	}
+
+	/**
+	 * @return the instance of the bean, which is created if necessary. Prototype beans return a new instance, pooled
+	 * beans return their {@link BeanPool} and cached beans their cached or recreated instance.
+	 */
+	Object getInstance() {
+		if (created) {
+			return instance;
+		}
+		if (scope == Scope.PROTOTYPE) {
+			return createPrototype();
+		}
+		if (scope == Scope.POOLED) {
+			return pool;
+		}
+		if (scope == Scope.CACHED) {
+			return cachedBean.get();
+		}
+		Object bean = awaitCreation();
+		if (bean != CREATE) {
+			return bean;
+		}
+		try {
+			bean = lifecycle.instantiate(this);
+			synchronized (this) {
+				earlyInstance = bean;
+			}
+			lifecycle.initialize(this, bean);
+			publish(bean);
+			return bean;
+		} finally {
+			endCreation();
+		}
+	}
+
+	/**
+	 * Waits until the bean was created, unless the current thread has to create it. A bean resolved again while it is
+	 * created, by the creating thread itself or by a thread the creating thread waits for, resolves to its early
+	 * instance.
+	 *
+	 * @return the instance of the bean, or {@link #CREATE} if the current thread has to create the bean.
+	 * @throws CircularDependencyException if the bean is resolved while its own constructor arguments are resolved.
+	 */
+	private synchronized Object awaitCreation() {
+		Thread currentThread = Thread.currentThread();
+		boolean interrupted = false;
+		try {
+			while (!created) {
+				if (creatingThread == null) {
+					creatingThread = currentThread;
+					return CREATE;
+				}
+				if (creatingThread == currentThread || !registerWaitingThread(currentThread)) {
+					if (earlyInstance == null) {
+						throw new CircularDependencyException(beanClassName);
+					}
+					return earlyInstance;
+				}
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} finally {
+					WAITING_THREADS.remove(currentThread);
+				}
+			}
+			return instance;
+		} finally {
+			if (interrupted) {
+				currentThread.interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Registers the current thread as waiting for this bean, unless the thread creating this bean waits, directly or
+	 * through other threads, for a bean the current thread creates. These threads would wait for each other forever.
+	 *
+	 * @return whether the current thread may wait for this bean.
+	 */
+	private boolean registerWaitingThread(Thread currentThread) {
+		synchronized (WAITING_THREADS_LOCK) {
+			Thread thread = creatingThread;
+			for (int i = 0; thread != null && i <= WAITING_THREADS.size(); i++) {
+				if (thread == currentThread) {
+					return false;
+				}
+				BeanDefinition awaitedBean = WAITING_THREADS.get(thread);
+				thread = awaitedBean != null ? awaitedBean.creatingThread : null;
+			}
+			WAITING_THREADS.put(currentThread, this);
+			return true;
+		}
+	}
+
+	private synchronized void publish(Object bean) {
+		instance = bean;
+		created = true;
+	}
+
+	private synchronized void endCreation() {
+		creatingThread = null;
+		earlyInstance = null;
+		notifyAll();
+	}
+
+	private Object createPrototype() {
+		Set<BeanDefinition> prototypesInCreation = PROTOTYPES_IN_CREATION.get();
+		if (!prototypesInCreation.add(this)) {
+			throw new CircularDependencyException(beanClassName);
+		}
+		try {
+			return lifecycle.instantiate(this);
+		} finally {
+			prototypesInCreation.remove(this);
+		}
+	}
+
+	/**
+	 * Creates the instance of the bean without holding the lock of this definition while the bean is instantiated, so
+	 * that beans can be created in parallel. Only the dependencies of the bean may be resolved concurrently. If the bean
+	 * itself is created concurrently, the thread that starts to initialize its instance first wins.
+	 *
+	 * @return the instance of the bean.
+	 */
+	Object createInstance() {
+		if (created) {
+			return instance;
+		}
+		Object bean = lifecycle.instantiate(this);
+		Object createdBean = awaitCreation();
+		if (createdBean != CREATE) {
+			return createdBean;
+		}
+		try {
+			synchronized (this) {
+				earlyInstance = bean;
+			}
+			lifecycle.initialize(this, bean);
+			publish(bean);
+			return bean;
+		} finally {
+			endCreation();
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Named;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.function.Supplier;
+
+/**
+ * Creates the instances of a bean class. A factory is computed once per class and shared by all containers.
+ * <p>
+ * The factory calls the constructor annotated with {@link Inject}, or the public no-arg constructor if there is none.
+ * Public no-arg constructors are bound to a {@link Supplier} by the {@link LambdaMetafactory}, so that creating a bean
+ * costs about the same as a direct {@code new}. All other constructors are called through a {@link MethodHandle}.
+ */
+final class BeanFactory {
+
+	private static final ClassValue<BeanFactory> FACTORIES = new ClassValue<BeanFactory>() {
+		@Override
+		protected BeanFactory computeValue(Class<?> beanClass) {
+			return new BeanFactory(beanClass);
+		}
+	};
+
+	private static final Dependency[] NO_PARAMETERS = new Dependency[0];
+
+	private final Dependency[] parameters;
+	private final Supplier<Object> supplier;
+	private final MethodHandle constructor;
+	private final ReflectiveOperationException error;
+
+	private BeanFactory(Class<?> beanClass) {
+		Dependency[] parameters = NO_PARAMETERS;
+		Supplier<Object> supplier = null;
+		MethodHandle constructor = null;
+		ReflectiveOperationException error = null;
+		try {
+			Constructor<?> beanConstructor = findConstructor(beanClass);
+			parameters = createParameters(beanConstructor);
+			beanConstructor.setAccessible(true);
+			MethodHandle constructorHandle = MethodHandles.lookup().unreflectConstructor(beanConstructor);
+			if (parameters.length == 0 && isPublic(beanClass, beanConstructor) && isVisible(beanClass)) {
+				supplier = createSupplier(beanClass, constructorHandle);
+			}
+			constructor = constructorHandle.asType(MethodType.genericMethodType(parameters.length))
+					.asSpreader(Object[].class, parameters.length);
+		} catch (ReflectiveOperationException e) {
+			error = e;
+		} catch (RuntimeException e) {
+			error = new InstantiationException("Bean " + beanClass.getName() + " can not be instantiated: " + e);
+		}
+		this.parameters = parameters;
+		this.supplier = supplier;
+		this.constructor = constructor;
+		this.error = error;
+	}
+
+	/**
+	 * @param beanClass the class of a bean.
+	 * @return the cached factory for the given class.
+	 */
+	static BeanFactory forClass(Class<?> beanClass) {
+		return FACTORIES.get(beanClass);
+	}
+
+	/**
+	 * @return the dependencies passed to the constructor, in the order of its parameters.
+	 */
+	Dependency[] getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * @param arguments the resolved {@link #getParameters() parameters} of the constructor.
+	 * @return a new instance of the bean.
+	 * @throws ReflectiveOperationException if the class has no suitable constructor or the constructor failed.
+	 */
+	Object newInstance(Object[] arguments) throws ReflectiveOperationException {
+		if (error != null) {
+			throw error;
+		}
+		try {
+			if (supplier != null) {
+				return supplier.get();
+			}
+			return (Object) constructor.invokeExact(arguments);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	private static Constructor<?> findConstructor(Class<?> beanClass) throws ReflectiveOperationException {
+		if (Modifier.isAbstract(beanClass.getModifiers())) {
+			throw new InstantiationException("Bean " + beanClass.getName() + " is abstract.");
+		}
+		Constructor<?> injectConstructor = null;
+		for (Constructor<?> declaredConstructor : beanClass.getDeclaredConstructors()) {
+			if (declaredConstructor.isAnnotationPresent(Inject.class)) {
+				if (injectConstructor != null) {
+					throw new InstantiationException("Bean " + beanClass.getName()
+							+ " has more than one constructor annotated with @Inject.");
+				}
+				injectConstructor = declaredConstructor;
+			}
+		}
+		return injectConstructor != null ? injectConstructor : beanClass.getConstructor();
+	}
+
+	private static Dependency[] createParameters(Constructor<?> constructor) {
+		if (constructor.getParameterCount() == 0) {
+			return NO_PARAMETERS;
+		}
+		Parameter[] constructorParameters = constructor.getParameters();
+		Dependency[] parameters = new Dependency[constructorParameters.length];
+		for (int i = 0; i < constructorParameters.length; i++) {
+			Named named = constructorParameters[i].getAnnotation(Named.class);
+			parameters[i] = Dependency.create(named != null ? named.name() : null, constructorParameters[i].getType(),
+					constructorParameters[i].getParameterizedType());
+		}
+		return parameters;
+	}
+
+	private static boolean isPublic(Class<?> beanClass, Constructor<?> constructor) {
+		return Modifier.isPublic(beanClass.getModifiers()) && Modifier.isPublic(constructor.getModifiers());
+	}
+
+	/**
+	 * The class generated by the {@link LambdaMetafactory} links against the bean class by name, so the bean class has
+	 * to be visible from the class loader of the container.
+	 */
+	private static boolean isVisible(Class<?> beanClass) {
+		try {
+			return Class.forName(beanClass.getName(), false, BeanFactory.class.getClassLoader()) == beanClass;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Supplier<Object> createSupplier(Class<?> beanClass, MethodHandle constructor) {
+		try {
+			CallSite callSite = LambdaMetafactory.metafactory(MethodHandles.lookup(), "get",
+					MethodType.methodType(Supplier.class), MethodType.methodType(Object.class), constructor,
+					MethodType.methodType(beanClass));
+			return (Supplier<Object>) callSite.getTarget().invoke();
+		} catch (Throwable e) {
+			// The method handle is used instead.
+			return null;
+		}
+	}
+}
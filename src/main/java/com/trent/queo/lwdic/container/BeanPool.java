@@ -0,0 +1,147 @@
+package com.trent.queo.lwdic.container;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The pool of a {@link com.trent.queo.lwdic.annotations.Scope#POOLED pooled} bean. Instances are borrowed with
+ * {@link #borrow()} and returned with {@link #release(Object)}; an instance must not be used after it was returned.
+ * <p>
+ * Borrowing never blocks. If no idle instance is available, a new one is created, injected and initialized by the
+ * container. Returned instances are kept in a fixed number of slots, so the pool never holds more than
+ * {@link #getMaxSize()} idle instances. Every thread probes the slots starting at a position of its own, so a thread
+ * that borrows and returns an instance repeatedly usually gets its own instance back without contending with other
+ * threads. Instances returned while all slots are taken are dropped.
+ *
+ * @param <T> the type of the bean.
+ */
+public final class BeanPool<T> {
+
+	private final String beanClassName;
+	private final Supplier<T> factory;
+	private final AtomicReferenceArray<T> slots;
+
+	private final LongAdder borrows = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+
+	BeanPool(String beanClassName, int poolSize, Supplier<T> factory) {
+		this.beanClassName = beanClassName;
+		this.factory = factory;
+		this.slots = new AtomicReferenceArray<>(Math.max(1, poolSize));
+	}
+
+	/**
+	 * @return an idle instance of the bean or a new one if none is idle.
+	 */
+	public T borrow() {
+		borrows.increment();
+		T instance = takeIdleInstance();
+		if (instance == null) {
+			return factory.get();
+		}
+		hits.increment();
+		return instance;
+	}
+
+	/**
+	 * Returns a borrowed instance to the pool.
+	 *
+	 * @param instance an instance returned by {@link #borrow()}.
+	 */
+	public void release(T instance) {
+		if (instance == null) {
+			return;
+		}
+		offerIdleInstance(instance);
+	}
+
+	private T takeIdleInstance() {
+		int start = probeStart();
+		for (int i = 0; i < slots.length(); i++) {
+			int slot = (start + i) % slots.length();
+			T instance = slots.get(slot);
+			if (instance != null && slots.compareAndSet(slot, instance, null)) {
+				return instance;
+			}
+		}
+		return null;
+	}
+
+	private void offerIdleInstance(T instance) {
+		int start = probeStart();
+		for (int i = 0; i < slots.length(); i++) {
+			int slot = (start + i) % slots.length();
+			if (slots.get(slot) == null && slots.compareAndSet(slot, null, instance)) {
+				return;
+			}
+		}
+	}
+
+	private int probeStart() {
+		return (int) (Thread.currentThread().getId() % slots.length());
+	}
+
+	/**
+	 * @return the class name of the pooled bean.
+	 */
+	public String getBeanClassName() {
+		return beanClassName;
+	}
+
+	/**
+	 * @return the maximum number of idle instances.
+	 */
+	public int getMaxSize() {
+		return slots.length();
+	}
+
+	/**
+	 * @return the number of calls of {@link #borrow()}.
+	 */
+	public long getBorrowCount() {
+		return borrows.sum();
+	}
+
+	/**
+	 * @return the number of calls of {@link #borrow()} that were served by an idle instance.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the share of calls of {@link #borrow()} that were served by an idle instance, or 0 if nothing was
+	 * borrowed yet.
+	 */
+	public double getHitRate() {
+		long borrowCount = getBorrowCount();
+		return borrowCount > 0 ? (double) getHitCount() / borrowCount : 0;
+	}
+
+	/**
+	 * @return the number of instances that were created, which is the number of borrows that missed the pool.
+	 */
+	public long getCreatedCount() {
+		return getBorrowCount() - getHitCount();
+	}
+
+	/**
+	 * @return the number of idle instances in the pool, which can be borrowed by any thread.
+	 */
+	public long getSize() {
+		int size = 0;
+		for (int i = 0; i < slots.length(); i++) {
+			if (slots.get(i) != null) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "BeanPool[" + beanClassName + "]{size=" + getSize() + ", borrows=" + getBorrowCount()
+				+ ", hitRate=" + getHitRate() + "}";
+	}
+}
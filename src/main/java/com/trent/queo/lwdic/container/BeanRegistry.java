@@ -0,0 +1,236 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.container.exceptions.BeanAlreadyDefinedException;
+import com.trent.queo.lwdic.container.exceptions.ContainerFrozenException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe registry of the {@link BeanDefinition}s managed by a {@link LWDIContainer}.
+ * <p>
+ * Reads never block. The sets of bean definitions bound to a name are immutable and every write replaces the whole set
+ * atomically, so a reader sees either the old or the new binding of a name, never a partially updated one. Single
+ * writes run concurrently with each other; a {@link #addAll(Map) batch} is bound into a copy of the bindings, which
+ * replaces the bindings at once, so a reader sees either none or all bindings of a batch.
+ * <p>
+ * Every write increments the {@link #getVersion() version} of the registry after the binding was replaced. A result
+ * resolved from the registry stays valid as long as the version read before the resolution did not change.
+ * <p>
+ * Once all beans are registered, the registry can be {@link #freeze() frozen} into {@link FrozenBindings}, which need
+ * less memory and answer lookups faster. A frozen registry rejects all writes.
+ */
+final class BeanRegistry {
+
+	// Null once the registry is frozen.
+	private volatile ConcurrentMap<String, Set<BeanDefinition>> liveBindings = new ConcurrentHashMap<>();
+
+	// The bindings all reads go to: the live bindings or, once frozen, the frozen bindings.
+	private volatile Map<String, Set<BeanDefinition>> bindings = liveBindings;
+
+	// Single writes share the read lock, batches and freezing replace the live bindings under the write lock.
+	private final ReadWriteLock writeLock = new ReentrantReadWriteLock();
+
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * Binds a bean definition to a name that must not be bound yet.
+	 *
+	 * @throws BeanAlreadyDefinedException if the name is already bound.
+	 */
+	void add(String beanName, BeanDefinition beanDefinition) {
+		writeLock.readLock().lock();
+		try {
+			if (writableBindings(beanName).putIfAbsent(beanName, Collections.singleton(beanDefinition)) != null) {
+				throw new BeanAlreadyDefinedException(beanName);
+			}
+			version.incrementAndGet();
+		} finally {
+			writeLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Binds several bean definitions to names that must not be bound yet, either all of them or none. The bindings are
+	 * copied once into a map sized for the batch, the batch is bound into the copy and the copy replaces the bindings,
+	 * so the version is incremented once and lookups see the whole batch at once.
+	 *
+	 * @throws BeanAlreadyDefinedException listing all names of the batch that are already bound.
+	 */
+	void addAll(Map<String, BeanDefinition> beanDefinitions) {
+		if (beanDefinitions.isEmpty()) {
+			return;
+		}
+		writeLock.writeLock().lock();
+		try {
+			ConcurrentMap<String, Set<BeanDefinition>> liveBindings = writableBindings(beanDefinitions.keySet().iterator().next());
+			List<String> conflictingNames = new ArrayList<>();
+			for (String beanName : beanDefinitions.keySet()) {
+				if (liveBindings.containsKey(Objects.requireNonNull(beanName, "The name of a bean must not be null."))) {
+					conflictingNames.add(beanName);
+				}
+			}
+			if (!conflictingNames.isEmpty()) {
+				throw new BeanAlreadyDefinedException(conflictingNames);
+			}
+
+			ConcurrentMap<String, Set<BeanDefinition>> updatedBindings =
+					new ConcurrentHashMap<>(liveBindings.size() + beanDefinitions.size());
+			updatedBindings.putAll(liveBindings);
+			for (Map.Entry<String, BeanDefinition> beanDefinition : beanDefinitions.entrySet()) {
+				updatedBindings.put(beanDefinition.getKey(), Collections.singleton(beanDefinition.getValue()));
+			}
+			this.liveBindings = updatedBindings;
+			bindings = updatedBindings;
+			version.incrementAndGet();
+		} finally {
+			writeLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds a bean definition to the definitions bound to a name.
+	 */
+	void addInstance(String beanName, BeanDefinition beanDefinition) {
+		writeLock.readLock().lock();
+		try {
+			writableBindings(beanName).compute(beanName, (name, beanDefinitions) -> {
+				if (beanDefinitions == null) {
+					return Collections.singleton(beanDefinition);
+				}
+				if (beanDefinitions.contains(beanDefinition)) {
+					return beanDefinitions;
+				}
+				Set<BeanDefinition> updatedBeanDefinitions = new HashSet<>(beanDefinitions);
+				updatedBeanDefinitions.add(beanDefinition);
+				return Collections.unmodifiableSet(updatedBeanDefinitions);
+			});
+			version.incrementAndGet();
+		} finally {
+			writeLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds several bean definitions to the definitions bound to a name, copying the bound set only once.
+	 */
+	void addInstances(String beanName, Collection<BeanDefinition> beanDefinitions) {
+		writeLock.readLock().lock();
+		try {
+			writableBindings(beanName).compute(beanName, (name, boundDefinitions) -> {
+				Set<BeanDefinition> updatedBeanDefinitions = boundDefinitions != null ? new HashSet<>(boundDefinitions) : new HashSet<>();
+				updatedBeanDefinitions.addAll(beanDefinitions);
+				return Collections.unmodifiableSet(updatedBeanDefinitions);
+			});
+			version.incrementAndGet();
+		} finally {
+			writeLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a bean definition from the definitions bound to a name. The name is unbound if no definition is left.
+	 */
+	void remove(String beanName, BeanDefinition beanDefinition) {
+		writeLock.readLock().lock();
+		try {
+			writableBindings(beanName).computeIfPresent(beanName, (name, beanDefinitions) -> {
+				if (!beanDefinitions.contains(beanDefinition)) {
+					return beanDefinitions;
+				}
+				if (beanDefinitions.size() == 1) {
+					return null;
+				}
+				Set<BeanDefinition> updatedBeanDefinitions = new HashSet<>(beanDefinitions);
+				updatedBeanDefinitions.remove(beanDefinition);
+				return Collections.unmodifiableSet(updatedBeanDefinitions);
+			});
+			version.incrementAndGet();
+		} finally {
+			writeLock.readLock().unlock();
+		}
+	}
+
+	private ConcurrentMap<String, Set<BeanDefinition>> writableBindings(String beanName) {
+		ConcurrentMap<String, Set<BeanDefinition>> liveBindings = this.liveBindings;
+		if (liveBindings == null) {
+			throw new ContainerFrozenException(beanName);
+		}
+		return liveBindings;
+	}
+
+	/**
+	 * Replaces the live bindings by {@link FrozenBindings} holding the same bean definitions. Writes fail with a
+	 * {@link ContainerFrozenException} afterwards. Waits for running writes, reads may continue.
+	 */
+	void freeze() {
+		writeLock.writeLock().lock();
+		try {
+			ConcurrentMap<String, Set<BeanDefinition>> liveBindings = this.liveBindings;
+			if (liveBindings == null) {
+				return;
+			}
+			this.liveBindings = null;
+			bindings = new FrozenBindings(liveBindings);
+		} finally {
+			writeLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return whether the registry was frozen.
+	 */
+	boolean isFrozen() {
+		return liveBindings == null;
+	}
+
+	/**
+	 * @return the number of bindings and the estimated memory footprint of the registry.
+	 */
+	RegistryFootprint getFootprint() {
+		Map<String, Set<BeanDefinition>> bindings = this.bindings;
+		long beanDefinitionReferences = 0;
+		for (Set<BeanDefinition> beanDefinitions : bindings.values()) {
+			beanDefinitionReferences += beanDefinitions.size();
+		}
+		if (bindings instanceof FrozenBindings) {
+			return new RegistryFootprint(true, bindings.size(), beanDefinitionReferences,
+					RegistryFootprint.estimateFrozenBytes((FrozenBindings) bindings));
+		}
+		return new RegistryFootprint(false, bindings.size(), beanDefinitionReferences,
+				RegistryFootprint.estimateLiveBytes(bindings));
+	}
+
+	/**
+	 * @return the immutable set of bean definitions bound to the given name or {@code null} if the name is not bound.
+	 */
+	Set<BeanDefinition> get(String beanName) {
+		return bindings.get(beanName);
+	}
+
+	/**
+	 * @return the number of writes to the registry so far.
+	 */
+	long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * @return an unmodifiable live view of all bindings. The view does not follow a later {@link #freeze()} or
+	 * {@link #addAll(Map)}.
+	 */
+	Map<String, Set<BeanDefinition>> asMap() {
+		return Collections.unmodifiableMap(bindings);
+	}
+}
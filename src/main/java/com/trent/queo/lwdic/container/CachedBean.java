@@ -0,0 +1,123 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.container.BeanCache.EvictionCause;
+import com.trent.queo.lwdic.container.exceptions.CircularDependencyException;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * The instance of a {@link com.trent.queo.lwdic.annotations.Scope#CACHED cached} bean. The instance is only softly
+ * reachable from the container, so the garbage collector clears it under memory pressure, and it can be evicted by its
+ * {@link BeanCache}. Either way it is created again the next time it is resolved.
+ */
+final class CachedBean {
+
+	// Accesses within this interval are not recorded, so that a hot bean is not written by every thread reading it.
+	private static final long ACCESS_RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final String beanClassName;
+	private final Supplier<Object> factory;
+	private final BeanCache cache;
+
+	private final AtomicReference<SoftReference<Object>> reference = new AtomicReference<>();
+	private volatile long lastAccessNanos;
+
+	// Guarded by this.
+	private boolean creating;
+	private boolean created;
+
+	CachedBean(String beanClassName, Supplier<Object> factory, BeanCache cache) {
+		this.beanClassName = beanClassName;
+		this.factory = factory;
+		this.cache = cache;
+	}
+
+	/**
+	 * @return the cached instance of the bean, which is created if it was not created yet or evicted.
+	 */
+	Object get() {
+		SoftReference<Object> currentReference = reference.get();
+		Object instance = currentReference != null ? currentReference.get() : null;
+		if (instance == null) {
+			instance = create();
+			// Called without holding the lock of this bean, since the budget evicts other beans.
+			cache.enforceBudget();
+			return instance;
+		}
+		long now = System.nanoTime();
+		if (now - lastAccessNanos > ACCESS_RESOLUTION_NANOS) {
+			lastAccessNanos = now;
+		}
+		return instance;
+	}
+
+	private synchronized Object create() {
+		SoftReference<Object> currentReference = reference.get();
+		Object instance = currentReference != null ? currentReference.get() : null;
+		if (instance != null) {
+			return instance;
+		}
+		if (currentReference != null && reference.compareAndSet(currentReference, null)) {
+			cache.recordEviction(EvictionCause.MEMORY);
+		}
+		if (creating) {
+			throw new CircularDependencyException(beanClassName);
+		}
+		creating = true;
+		long startNanos = System.nanoTime();
+		try {
+			instance = factory.get();
+		} finally {
+			creating = false;
+		}
+		if (instance == null) {
+			return null;
+		}
+		long now = System.nanoTime();
+		if (created) {
+			cache.recordRecreation(now - startNanos);
+		}
+		created = true;
+		lastAccessNanos = now;
+		reference.set(new SoftReference<>(instance));
+		return instance;
+	}
+
+	/**
+	 * Drops the cached instance, unless it is not cached.
+	 *
+	 * @return whether an instance was evicted.
+	 */
+	boolean evict(EvictionCause cause) {
+		SoftReference<Object> currentReference = reference.get();
+		if (currentReference == null || !reference.compareAndSet(currentReference, null)) {
+			return false;
+		}
+		// An instance cleared by the garbage collector is counted as a memory eviction, whatever the given cause.
+		cache.recordEviction(currentReference.get() != null ? cause : EvictionCause.MEMORY);
+		currentReference.clear();
+		return true;
+	}
+
+	/**
+	 * @return whether the bean has an instance that was neither evicted nor cleared by the garbage collector.
+	 */
+	boolean isCached() {
+		SoftReference<Object> currentReference = reference.get();
+		return currentReference != null && currentReference.get() != null;
+	}
+
+	/**
+	 * @return the {@link System#nanoTime()} of the last resolution of the bean, accurate to a millisecond.
+	 */
+	long getLastAccessNanos() {
+		return lastAccessNanos;
+	}
+
+	String getBeanClassName() {
+		return beanClassName;
+	}
+}
@@ -0,0 +1,47 @@
+package com.trent.queo.lwdic.container;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR events emitted by a {@link LWDIContainer} with enabled {@link ContainerMetrics}.
+ */
+final class ContainerEvents {
+
+	private static final String CATEGORY = "LWDI Container";
+
+	private ContainerEvents() {
+	}
+
+	@Name("com.trent.queo.lwdic.Scan")
+	@Label("Package Scan")
+	@Category(CATEGORY)
+	static final class ScanEvent extends Event {
+
+		@Label("Package")
+		String packageName;
+
+		@Label("Bean Count")
+		int beanCount;
+	}
+
+	@Name("com.trent.queo.lwdic.BeanCreation")
+	@Label("Bean Creation")
+	@Category(CATEGORY)
+	static final class BeanCreationEvent extends Event {
+
+		@Label("Bean Class")
+		String beanClassName;
+	}
+
+	@Name("com.trent.queo.lwdic.Injection")
+	@Label("Bean Injection")
+	@Category(CATEGORY)
+	static final class InjectionEvent extends Event {
+
+		@Label("Bean Count")
+		int beanCount;
+	}
+}
@@ -0,0 +1,140 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.container.ContainerEvents.BeanCreationEvent;
+import com.trent.queo.lwdic.container.ContainerEvents.InjectionEvent;
+import com.trent.queo.lwdic.container.ContainerEvents.ScanEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and counters of a {@link LWDIContainer}, recorded once enabled by {@link LWDIContainer#enableMetrics()}.
+ * Every phase and every bean creation is also emitted as a JFR event.
+ * <p>
+ * All durations are in nanoseconds.
+ */
+public final class ContainerMetrics {
+
+	private final LongAdder scanTime = new LongAdder();
+	private final LongAdder scannedBeans = new LongAdder();
+	private final LongAdder injectionTime = new LongAdder();
+	private final LongAdder lookups = new LongAdder();
+	private final LongAdder lookupMisses = new LongAdder();
+	private final ConcurrentMap<String, Long> instantiationTimes = new ConcurrentHashMap<>();
+
+	ContainerMetrics() {
+	}
+
+	/**
+	 * @return the total time spent in {@link LWDIContainer#scanPackage(String)}.
+	 */
+	public long getScanTime() {
+		return scanTime.sum();
+	}
+
+	/**
+	 * @return the number of beans found by all scans.
+	 */
+	public long getScannedBeanCount() {
+		return scannedBeans.sum();
+	}
+
+	/**
+	 * @return the total time spent injecting beans in {@link LWDIContainer#start()}.
+	 */
+	public long getInjectionTime() {
+		return injectionTime.sum();
+	}
+
+	/**
+	 * @return the number of lookups by type or by name.
+	 */
+	public long getLookupCount() {
+		return lookups.sum();
+	}
+
+	/**
+	 * @return the number of lookups that did not find a suitable bean.
+	 */
+	public long getLookupMissCount() {
+		return lookupMisses.sum();
+	}
+
+	/**
+	 * @return the time it took to create each bean, by bean class name.
+	 */
+	public Map<String, Long> getInstantiationTimes() {
+		return Collections.unmodifiableMap(instantiationTimes);
+	}
+
+	/**
+	 * @return the total time spent creating beans.
+	 */
+	public long getInstantiationTime() {
+		long total = 0;
+		for (Long instantiationTime : instantiationTimes.values()) {
+			total += instantiationTime;
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		return "ContainerMetrics{scanTime=" + TimeUnit.NANOSECONDS.toMillis(getScanTime()) + "ms"
+				+ ", scannedBeans=" + getScannedBeanCount()
+				+ ", instantiationTime=" + TimeUnit.NANOSECONDS.toMillis(getInstantiationTime()) + "ms"
+				+ ", injectionTime=" + TimeUnit.NANOSECONDS.toMillis(getInjectionTime()) + "ms"
+				+ ", lookups=" + getLookupCount()
+				+ ", lookupMisses=" + getLookupMissCount() + "}";
+	}
+
+	ScanEvent beginScan(String packageName) {
+		ScanEvent event = new ScanEvent();
+		event.packageName = packageName;
+		event.begin();
+		return event;
+	}
+
+	void endScan(ScanEvent event, long startNanos, int beanCount) {
+		scanTime.add(System.nanoTime() - startNanos);
+		scannedBeans.add(beanCount);
+		event.beanCount = beanCount;
+		event.commit();
+	}
+
+	BeanCreationEvent beginBeanCreation(String beanClassName) {
+		BeanCreationEvent event = new BeanCreationEvent();
+		event.beanClassName = beanClassName;
+		event.begin();
+		return event;
+	}
+
+	void endBeanCreation(BeanCreationEvent event, long startNanos) {
+		instantiationTimes.put(event.beanClassName, System.nanoTime() - startNanos);
+		event.commit();
+	}
+
+	InjectionEvent beginInjection() {
+		InjectionEvent event = new InjectionEvent();
+		event.begin();
+		return event;
+	}
+
+	void endInjection(InjectionEvent event, long startNanos, int beanCount) {
+		injectionTime.add(System.nanoTime() - startNanos);
+		event.beanCount = beanCount;
+		event.commit();
+	}
+
+	void recordLookup() {
+		lookups.increment();
+	}
+
+	void recordLookupMiss() {
+		lookupMisses.increment();
+	}
+}
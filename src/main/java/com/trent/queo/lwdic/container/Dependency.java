@@ -0,0 +1,94 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.annotations.Named;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.function.Supplier;
+
+/**
+ * A dependency of a bean, declared by an injected field or constructor parameter. The dependency is resolved by its
+ * {@link Named} name if present, by its type otherwise.
+ * <p>
+ * A field or parameter of type {@link Supplier Supplier&lt;T&gt;} declares a provider dependency on {@code T}, which
+ * is only resolved when the supplier is called for the first time. A field or parameter of type
+ * {@link BeanPool BeanPool&lt;T&gt;} declares a dependency on the pool of a pooled bean {@code T}.
+ */
+final class Dependency {
+
+	private final String name;
+	private final Class<?> type;
+	private final boolean provider;
+	private final boolean pool;
+
+	private Dependency(String name, Class<?> type, boolean provider, boolean pool) {
+		this.name = name;
+		this.type = type;
+		this.provider = provider;
+		this.pool = pool;
+	}
+
+	/**
+	 * @param name        the {@link Named} name of the field or parameter or {@code null}.
+	 * @param type        the type of the field or parameter.
+	 * @param genericType the generic type of the field or parameter.
+	 */
+	static Dependency create(String name, Class<?> type, Type genericType) {
+		if (type == Supplier.class || type == BeanPool.class) {
+			Type suppliedType = genericType instanceof ParameterizedType
+					? ((ParameterizedType) genericType).getActualTypeArguments()[0] : Object.class;
+			return new Dependency(name, getRawType(suppliedType), type == Supplier.class, type == BeanPool.class);
+		}
+		return new Dependency(name, type, false, false);
+	}
+
+	private static Class<?> getRawType(Type type) {
+		if (type instanceof Class) {
+			return (Class<?>) type;
+		}
+		if (type instanceof ParameterizedType) {
+			return getRawType(((ParameterizedType) type).getRawType());
+		}
+		if (type instanceof WildcardType) {
+			return getRawType(((WildcardType) type).getUpperBounds()[0]);
+		}
+		return Object.class;
+	}
+
+	/**
+	 * @return the bean name given by {@link Named} or {@code null} if the dependency is resolved by type.
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the type of the bean, which is the supplied type for provider dependencies and the pooled type for pool
+	 * dependencies.
+	 */
+	Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * @return whether the dependency is injected as a {@link Supplier} of the bean.
+	 */
+	boolean isProvider() {
+		return provider;
+	}
+
+	/**
+	 * @return whether the dependency is injected as the {@link BeanPool} of a pooled bean.
+	 */
+	boolean isPool() {
+		return pool;
+	}
+
+	/**
+	 * @return the name the dependency is registered under, which is either its {@link Named} name or its type name.
+	 */
+	String getDependencyName() {
+		return name != null ? name : type.getName();
+	}
+}
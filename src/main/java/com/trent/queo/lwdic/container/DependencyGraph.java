@@ -0,0 +1,105 @@
+package com.trent.queo.lwdic.container;
+
+import java.util.*;
+
+/**
+ * The dependencies between the beans of a container, derived from their {@link InjectionPlan}s or the constructor
+ * parameters of their {@link BeanFactory}.
+ * <p>
+ * The graph is split into levels: every bean only depends on beans of earlier levels, so all beans of a level can be
+ * processed in parallel once the previous levels are done. Beans that are part of a dependency cycle, or depend on
+ * one, can not be ordered and are placed together in the last level.
+ */
+final class DependencyGraph {
+
+	private final Map<BeanDefinition, Set<BeanDefinition>> dependencies = new LinkedHashMap<>();
+
+	/**
+	 * Adds a bean to the graph.
+	 */
+	void addBean(BeanDefinition bean) {
+		dependencies.computeIfAbsent(bean, key -> new LinkedHashSet<>());
+	}
+
+	/**
+	 * Records that a bean depends on another bean. Dependencies on beans that were not added to the graph are ignored.
+	 */
+	void addDependency(BeanDefinition bean, BeanDefinition dependency) {
+		if (bean != dependency) {
+			dependencies.computeIfAbsent(bean, key -> new LinkedHashSet<>()).add(dependency);
+		}
+	}
+
+	/**
+	 * @return the dependencies of a bean that were recorded by {@link #addDependency(BeanDefinition, BeanDefinition)}.
+	 */
+	Set<BeanDefinition> getDependencies(BeanDefinition bean) {
+		return dependencies.getOrDefault(bean, Collections.<BeanDefinition>emptySet());
+	}
+
+	/**
+	 * @return whether any of the given beans depends on another one of them, which is only the case for the last level
+	 * of a graph with cycles.
+	 */
+	boolean hasDependenciesWithin(Collection<BeanDefinition> beans) {
+		for (BeanDefinition bean : beans) {
+			for (BeanDefinition dependency : dependencies.getOrDefault(bean, Collections.<BeanDefinition>emptySet())) {
+				if (beans.contains(dependency)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the beans of the graph, ordered by level.
+	 */
+	List<List<BeanDefinition>> getLevels() {
+		Map<BeanDefinition, Integer> unresolvedDependencies = new HashMap<>();
+		Map<BeanDefinition, List<BeanDefinition>> dependents = new HashMap<>();
+		for (Map.Entry<BeanDefinition, Set<BeanDefinition>> bean : dependencies.entrySet()) {
+			int count = 0;
+			for (BeanDefinition dependency : bean.getValue()) {
+				if (dependencies.containsKey(dependency)) {
+					dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(bean.getKey());
+					count++;
+				}
+			}
+			unresolvedDependencies.put(bean.getKey(), count);
+		}
+
+		List<List<BeanDefinition>> levels = new ArrayList<>();
+		List<BeanDefinition> level = new ArrayList<>();
+		for (BeanDefinition bean : dependencies.keySet()) {
+			if (unresolvedDependencies.get(bean) == 0) {
+				level.add(bean);
+			}
+		}
+		int orderedBeans = 0;
+		while (!level.isEmpty()) {
+			levels.add(level);
+			orderedBeans += level.size();
+			List<BeanDefinition> nextLevel = new ArrayList<>();
+			for (BeanDefinition bean : level) {
+				for (BeanDefinition dependent : dependents.getOrDefault(bean, Collections.<BeanDefinition>emptyList())) {
+					if (unresolvedDependencies.merge(dependent, -1, Integer::sum) == 0) {
+						nextLevel.add(dependent);
+					}
+				}
+			}
+			level = nextLevel;
+		}
+
+		if (orderedBeans < dependencies.size()) {
+			List<BeanDefinition> cyclicBeans = new ArrayList<>();
+			for (BeanDefinition bean : dependencies.keySet()) {
+				if (unresolvedDependencies.get(bean) > 0) {
+					cyclicBeans.add(bean);
+				}
+			}
+			levels.add(cyclicBeans);
+		}
+		return levels;
+	}
+}
@@ -0,0 +1,169 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.annotations.Destroy;
+import com.trent.queo.lwdic.container.InjectionPlan.LifecycleMethod;
+import com.trent.queo.lwdic.container.ShutdownReport.BeanShutdown;
+import com.trent.queo.lwdic.container.ShutdownReport.Outcome;
+import com.trent.queo.lwdic.container.exceptions.BeanDestructionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the {@link Destroy} methods of beans and closes {@link AutoCloseable} beans.
+ * <p>
+ * The destroy hooks of a bean run as soon as the destroy hooks of all beans depending on it are done, so independent
+ * beans are destroyed concurrently, in the reverse order of their initialization by the {@link InitMethodRunner}.
+ */
+final class DestroyMethodRunner {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DestroyMethodRunner.class);
+
+	private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+	private DestroyMethodRunner() {
+	}
+
+	private static boolean hasDestroyHooks(Object bean) {
+		return bean != null && (bean instanceof AutoCloseable || InjectionPlan.forClass(bean.getClass()).getDestroyMethods().length > 0);
+	}
+
+	/**
+	 * Calls the destroy methods of a single bean on the current thread and closes the bean if it is
+	 * {@link AutoCloseable}, unless its {@code close()} method is a destroy method itself.
+	 *
+	 * @throws BeanDestructionException if a destroy hook fails.
+	 */
+	static void invokeDestroyHooks(BeanDefinition beanDefinition, Object bean) {
+		boolean closed = false;
+		for (LifecycleMethod destroyMethod : InjectionPlan.forClass(bean.getClass()).getDestroyMethods()) {
+			try {
+				destroyMethod.invoke(bean);
+			} catch (Throwable e) {
+				throw new BeanDestructionException(beanDefinition.getBeanClassName(), e);
+			}
+			closed |= destroyMethod.getMethod().getName().equals("close");
+		}
+		if (bean instanceof AutoCloseable && !closed) {
+			try {
+				((AutoCloseable) bean).close();
+			} catch (Throwable e) {
+				throw new BeanDestructionException(beanDefinition.getBeanClassName(), e);
+			}
+		}
+	}
+
+	/**
+	 * Destroys all beans of a dependency graph, dependents first. A bean whose destroy hooks fail or time out does not
+	 * keep the beans it depends on from being destroyed. Beans of a dependency cycle are destroyed in any order.
+	 *
+	 * @param timeoutNanos the time the destroy hooks of a single bean may take, or 0 to wait for them indefinitely.
+	 * @return the report of the shutdown, once all destroy hooks returned or timed out.
+	 */
+	static ShutdownReport run(DependencyGraph dependencyGraph, long timeoutNanos) {
+		long startNanos = System.nanoTime();
+		List<List<BeanDefinition>> levels = dependencyGraph.getLevels();
+		Map<BeanDefinition, List<BeanDefinition>> dependents = new HashMap<>();
+		for (List<BeanDefinition> level : levels) {
+			for (BeanDefinition beanDefinition : level) {
+				for (BeanDefinition dependency : dependencyGraph.getDependencies(beanDefinition)) {
+					dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(beanDefinition);
+				}
+			}
+		}
+
+		ExecutorService executor = null;
+		ScheduledExecutorService timeouts = null;
+		Map<BeanDefinition, CompletableFuture<Void>> futures = new HashMap<>();
+		Queue<BeanShutdown> beanShutdowns = new ConcurrentLinkedQueue<>();
+		for (int i = levels.size() - 1; i >= 0; i--) {
+			// Futures are only published per level, so that beans of a cycle do not wait for each other.
+			Map<BeanDefinition, CompletableFuture<Void>> levelFutures = new HashMap<>();
+			for (BeanDefinition beanDefinition : levels.get(i)) {
+				List<CompletableFuture<Void>> dependentFutures = new ArrayList<>();
+				for (BeanDefinition dependent : dependents.getOrDefault(beanDefinition, Collections.<BeanDefinition>emptyList())) {
+					CompletableFuture<Void> dependentFuture = futures.get(dependent);
+					if (dependentFuture != null && dependentFuture != DONE) {
+						dependentFutures.add(dependentFuture);
+					}
+				}
+				CompletableFuture<Void> dependentsDone = dependentFutures.isEmpty() ? DONE
+						: CompletableFuture.allOf(dependentFutures.toArray(new CompletableFuture[0]));
+
+				Object bean = beanDefinition.getInstanceIfCreated();
+				if (!hasDestroyHooks(bean)) {
+					levelFutures.put(beanDefinition, dependentsDone);
+					continue;
+				}
+				if (executor == null) {
+					executor = InitMethodRunner.createExecutor("lwdic-destroy-");
+					timeouts = timeoutNanos > 0 ? createTimeoutScheduler() : null;
+				}
+				CompletableFuture<Void> done = new CompletableFuture<>();
+				ScheduledExecutorService usedTimeouts = timeouts;
+				dependentsDone.thenRunAsync(() -> destroy(beanDefinition, bean, done, usedTimeouts, timeoutNanos, beanShutdowns), executor);
+				levelFutures.put(beanDefinition, done);
+			}
+			futures.putAll(levelFutures);
+		}
+
+		CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+		if (executor != null) {
+			// Timed out destroy hooks keep running on their daemon threads.
+			executor.shutdown();
+		}
+		if (timeouts != null) {
+			timeouts.shutdownNow();
+		}
+		return new ShutdownReport(new ArrayList<>(beanShutdowns), System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Destroys a bean and completes the given future when the bean is destroyed or its timeout elapsed, whatever comes
+	 * first. Only the first of both is reported.
+	 */
+	private static void destroy(BeanDefinition beanDefinition, Object bean, CompletableFuture<Void> done,
+								ScheduledExecutorService timeouts, long timeoutNanos, Queue<BeanShutdown> beanShutdowns) {
+		String beanClassName = beanDefinition.getBeanClassName();
+		long startNanos = System.nanoTime();
+		// The shutdown is reported before the future completes, so that the report is complete once all futures are.
+		AtomicBoolean reported = new AtomicBoolean();
+		ScheduledFuture<?> timeout = null;
+		if (timeouts != null) {
+			timeout = timeouts.schedule(() -> {
+				if (reported.compareAndSet(false, true)) {
+					LOGGER.warn("The destruction of bean {} timed out.", beanClassName);
+					beanShutdowns.add(new BeanShutdown(beanClassName, System.nanoTime() - startNanos, Outcome.TIMED_OUT, null));
+					done.complete(null);
+				}
+			}, timeoutNanos, TimeUnit.NANOSECONDS);
+		}
+		RuntimeException failure = null;
+		try {
+			invokeDestroyHooks(beanDefinition, bean);
+		} catch (RuntimeException e) {
+			failure = e;
+		}
+		if (timeout != null) {
+			timeout.cancel(false);
+		}
+		long durationNanos = System.nanoTime() - startNanos;
+		if (reported.compareAndSet(false, true)) {
+			beanShutdowns.add(new BeanShutdown(beanClassName, durationNanos, failure == null ? Outcome.DESTROYED : Outcome.FAILED, failure));
+			done.complete(null);
+		} else {
+			LOGGER.warn("Bean {} was destroyed after {}ms, past its timeout.", beanClassName, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+		}
+	}
+
+	private static ScheduledExecutorService createTimeoutScheduler() {
+		return Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "lwdic-destroy-timeout");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
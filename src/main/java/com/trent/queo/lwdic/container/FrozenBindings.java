@@ -0,0 +1,155 @@
+package com.trent.queo.lwdic.container;
+
+import java.util.*;
+
+/**
+ * The immutable bindings of a frozen {@link BeanRegistry}: an open addressing hash table over two flat arrays, names and
+ * bound bean definitions. Names bound to a single bean keep their singleton set, names bound to several beans get an
+ * array backed set.
+ * <p>
+ * Compared to the {@link java.util.concurrent.ConcurrentHashMap} of a live registry, the table needs no node per
+ * binding and no hash map per multi-bean binding, and a lookup reads at most a few adjacent array slots.
+ */
+final class FrozenBindings extends AbstractMap<String, Set<BeanDefinition>> {
+
+	private final String[] names;
+	private final Object[] beanDefinitions;
+	private final int mask;
+	private final int size;
+
+	FrozenBindings(Map<String, Set<BeanDefinition>> bindings) {
+		// A load factor of at most 0.5 keeps the probe sequences short.
+		int capacity = Integer.highestOneBit(Math.max(2, bindings.size()) * 2 - 1) << 1;
+		this.names = new String[capacity];
+		this.beanDefinitions = new Object[capacity];
+		this.mask = capacity - 1;
+		int size = 0;
+		for (Map.Entry<String, Set<BeanDefinition>> binding : bindings.entrySet()) {
+			Set<BeanDefinition> boundDefinitions = binding.getValue();
+			int slot = findSlot(binding.getKey());
+			names[slot] = binding.getKey();
+			beanDefinitions[slot] = boundDefinitions.size() == 1 ? boundDefinitions : new ArraySet(boundDefinitions);
+			size++;
+		}
+		this.size = size;
+	}
+
+	private int findSlot(Object name) {
+		int slot = spread(name.hashCode()) & mask;
+		while (names[slot] != null && !names[slot].equals(name)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int spread(int hashCode) {
+		return hashCode ^ (hashCode >>> 16);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Set<BeanDefinition> get(Object name) {
+		if (!(name instanceof String)) {
+			return null;
+		}
+		return (Set<BeanDefinition>) beanDefinitions[findSlot(name)];
+	}
+
+	@Override
+	public boolean containsKey(Object name) {
+		return get(name) != null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the length of the hash table.
+	 */
+	int getCapacity() {
+		return names.length;
+	}
+
+	/**
+	 * @return the binding of a slot of the hash table or {@code null} if the slot is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	Set<BeanDefinition> getSlot(int slot) {
+		return (Set<BeanDefinition>) beanDefinitions[slot];
+	}
+
+	@Override
+	public Set<Entry<String, Set<BeanDefinition>>> entrySet() {
+		return new AbstractSet<Entry<String, Set<BeanDefinition>>>() {
+			@Override
+			public Iterator<Entry<String, Set<BeanDefinition>>> iterator() {
+				return new Iterator<Entry<String, Set<BeanDefinition>>>() {
+
+					private int slot = nextSlot(0);
+
+					private int nextSlot(int from) {
+						while (from < names.length && names[from] == null) {
+							from++;
+						}
+						return from;
+					}
+
+					@Override
+					public boolean hasNext() {
+						return slot < names.length;
+					}
+
+					@Override
+					public Entry<String, Set<BeanDefinition>> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						Entry<String, Set<BeanDefinition>> entry = new SimpleImmutableEntry<>(names[slot], getSlot(slot));
+						slot = nextSlot(slot + 1);
+						return entry;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * An immutable set of bean definitions backed by an array. The sets of a registry are small, so a linear search is
+	 * as fast as hashing.
+	 */
+	static final class ArraySet extends AbstractSet<BeanDefinition> {
+
+		private final BeanDefinition[] elements;
+
+		ArraySet(Collection<BeanDefinition> elements) {
+			this.elements = elements.toArray(new BeanDefinition[0]);
+		}
+
+		@Override
+		public boolean contains(Object element) {
+			for (BeanDefinition beanDefinition : elements) {
+				if (beanDefinition.equals(element)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Iterator<BeanDefinition> iterator() {
+			return Collections.unmodifiableList(Arrays.asList(elements)).iterator();
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
+	}
+}
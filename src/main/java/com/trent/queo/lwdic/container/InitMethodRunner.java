@@ -0,0 +1,145 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.annotations.Init;
+import com.trent.queo.lwdic.container.InjectionPlan.LifecycleMethod;
+import com.trent.queo.lwdic.container.exceptions.BeanInitializationException;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the {@link Init} methods of beans.
+ * <p>
+ * During the start of a container, the init methods of a bean run as soon as the init methods of all its dependencies
+ * are done, so independent beans are initialized concurrently. Init methods typically block on I/O, so they run on
+ * virtual threads if the JVM supports them (Java 21 and later), and on a cached pool of daemon threads otherwise.
+ */
+final class InitMethodRunner {
+
+	private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+	private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+	private InitMethodRunner() {
+	}
+
+	/**
+	 * @return whether any of the given beans has an init method.
+	 */
+	static boolean hasInitMethods(Collection<BeanDefinition> beanDefinitions) {
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			if (hasInitMethods(beanDefinition.getInstanceIfCreated())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasInitMethods(Object bean) {
+		return bean != null && InjectionPlan.forClass(bean.getClass()).getInitMethods().length > 0;
+	}
+
+	/**
+	 * Calls the init methods of a single bean on the current thread.
+	 *
+	 * @throws BeanInitializationException if an init method fails.
+	 */
+	static void invokeInitMethods(BeanDefinition beanDefinition, Object bean) {
+		for (LifecycleMethod initMethod : InjectionPlan.forClass(bean.getClass()).getInitMethods()) {
+			try {
+				initMethod.invoke(bean);
+			} catch (Throwable e) {
+				throw new BeanInitializationException(beanDefinition.getBeanClassName(), e);
+			}
+		}
+	}
+
+	/**
+	 * Runs the init methods of all beans of a dependency graph. The init methods of a bean are skipped if the
+	 * initialization of one of its dependencies failed. Beans of a dependency cycle are initialized in any order.
+	 *
+	 * @return a future that completes when all init methods are done. If init methods failed, it completes with a
+	 * {@link BeanInitializationException} that holds all failures.
+	 */
+	static CompletableFuture<Void> run(DependencyGraph dependencyGraph) {
+		ExecutorService executor = null;
+		Map<BeanDefinition, CompletableFuture<Void>> futures = new HashMap<>();
+		Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		for (List<BeanDefinition> level : dependencyGraph.getLevels()) {
+			// Futures are only published per level, so that beans of a cycle do not wait for each other.
+			Map<BeanDefinition, CompletableFuture<Void>> levelFutures = new HashMap<>();
+			for (BeanDefinition beanDefinition : level) {
+				List<CompletableFuture<Void>> dependencyFutures = new ArrayList<>();
+				for (BeanDefinition dependency : dependencyGraph.getDependencies(beanDefinition)) {
+					CompletableFuture<Void> dependencyFuture = futures.get(dependency);
+					if (dependencyFuture != null && dependencyFuture != DONE) {
+						dependencyFutures.add(dependencyFuture);
+					}
+				}
+				CompletableFuture<Void> dependenciesDone = dependencyFutures.isEmpty() ? DONE
+						: CompletableFuture.allOf(dependencyFutures.toArray(new CompletableFuture[0]));
+
+				Object bean = beanDefinition.getInstanceIfCreated();
+				if (!hasInitMethods(bean)) {
+					levelFutures.put(beanDefinition, dependenciesDone);
+					continue;
+				}
+				if (executor == null) {
+					executor = createExecutor("lwdic-init-");
+				}
+				levelFutures.put(beanDefinition, dependenciesDone.thenRunAsync(() -> {
+					try {
+						invokeInitMethods(beanDefinition, bean);
+					} catch (RuntimeException e) {
+						failures.add(e);
+						throw e;
+					}
+				}, executor));
+			}
+			futures.putAll(levelFutures);
+		}
+
+		ExecutorService usedExecutor = executor;
+		return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).handle((result, e) -> {
+			if (usedExecutor != null) {
+				usedExecutor.shutdown();
+			}
+			if (!failures.isEmpty()) {
+				throw new BeanInitializationException(failures);
+			}
+			if (e != null) {
+				throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * @return an executor for blocking lifecycle methods, which has to be shut down after use.
+	 */
+	static ExecutorService createExecutor(String threadNamePrefix) {
+		if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+			try {
+				return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// Falls back to platform threads.
+			}
+		}
+		AtomicInteger threadNumber = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static Method findVirtualThreadExecutorFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
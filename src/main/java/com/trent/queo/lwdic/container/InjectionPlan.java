@@ -0,0 +1,214 @@
+package com.trent.queo.lwdic.container;
+
+import com.trent.queo.lwdic.annotations.Destroy;
+import com.trent.queo.lwdic.annotations.Init;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The injection points, {@link Init} and {@link Destroy} methods of a bean class. A plan is computed once per class and shared by all
+ * containers, so that the reflective lookup of fields, methods and annotations is not repeated on every
+ * {@link LWDIContainer#start()}.
+ */
+final class InjectionPlan {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(InjectionPlan.class);
+
+	private static final ClassValue<InjectionPlan> PLANS = new ClassValue<InjectionPlan>() {
+		@Override
+		protected InjectionPlan computeValue(Class<?> beanClass) {
+			return new InjectionPlan(beanClass);
+		}
+	};
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final MethodType LIFECYCLE_METHOD_TYPE = MethodType.methodType(void.class, Object.class);
+
+	private final InjectionPoint[] injectionPoints;
+
+	private final LifecycleMethod[] initMethods;
+
+	private final LifecycleMethod[] destroyMethods;
+
+	private InjectionPlan(Class<?> beanClass) {
+		List<InjectionPoint> points = new ArrayList<>();
+		for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				InjectionPoint point = createInjectionPoint(field);
+				if (point != null) {
+					points.add(point);
+				}
+			}
+		}
+		this.injectionPoints = points.toArray(new InjectionPoint[0]);
+		this.initMethods = findLifecycleMethods(beanClass, Init.class).toArray(new LifecycleMethod[0]);
+		// Destroy methods run in the opposite order, the methods of subclasses first.
+		List<LifecycleMethod> destroyMethods = findLifecycleMethods(beanClass, Destroy.class);
+		Collections.reverse(destroyMethods);
+		this.destroyMethods = destroyMethods.toArray(new LifecycleMethod[0]);
+	}
+
+	/**
+	 * @return the methods of a class and its superclasses with the given annotation, superclass methods first.
+	 * Overridden methods are only returned once, in their overriding version.
+	 */
+	private static List<LifecycleMethod> findLifecycleMethods(Class<?> beanClass, Class<? extends Annotation> annotation) {
+		Deque<LifecycleMethod> methods = new ArrayDeque<>();
+		Set<String> methodNames = new HashSet<>();
+		for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+			List<LifecycleMethod> declaredMethods = new ArrayList<>();
+			for (Method method : type.getDeclaredMethods()) {
+				if (!method.isAnnotationPresent(annotation)
+						|| !Modifier.isPrivate(method.getModifiers()) && !methodNames.add(method.getName())) {
+					continue;
+				}
+				LifecycleMethod lifecycleMethod = createLifecycleMethod(method, annotation);
+				if (lifecycleMethod != null) {
+					declaredMethods.add(lifecycleMethod);
+				}
+			}
+			for (int i = declaredMethods.size() - 1; i >= 0; i--) {
+				methods.addFirst(declaredMethods.get(i));
+			}
+		}
+		return new ArrayList<>(methods);
+	}
+
+	/**
+	 * @param beanClass the class of a bean.
+	 * @return the cached plan for the given class.
+	 */
+	static InjectionPlan forClass(Class<?> beanClass) {
+		return PLANS.get(beanClass);
+	}
+
+	InjectionPoint[] getInjectionPoints() {
+		return injectionPoints;
+	}
+
+	/**
+	 * @return the {@link Init} methods of the class, superclass methods first.
+	 */
+	LifecycleMethod[] getInitMethods() {
+		return initMethods;
+	}
+
+	/**
+	 * @return the {@link Destroy} methods of the class, subclass methods first.
+	 */
+	LifecycleMethod[] getDestroyMethods() {
+		return destroyMethods;
+	}
+
+	private static LifecycleMethod createLifecycleMethod(Method method, Class<? extends Annotation> annotation) {
+		String kind = annotation == Init.class ? "Init" : "Destroy";
+		if (method.getParameterCount() > 0 || Modifier.isStatic(method.getModifiers())) {
+			LOGGER.error("{} method {} of bean {} must be a method without parameters.", kind, method.getName(),
+					method.getDeclaringClass().getName());
+			return null;
+		}
+		try {
+			method.setAccessible(true);
+			return new LifecycleMethod(method, MethodHandles.lookup().unreflect(method).asType(LIFECYCLE_METHOD_TYPE));
+		} catch (IllegalAccessException | RuntimeException e) {
+			LOGGER.error("{} method {} of bean {} is not accessible.", kind, method.getName(), method.getDeclaringClass().getName());
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private static InjectionPoint createInjectionPoint(Field field) {
+		if (Modifier.isStatic(field.getModifiers())) {
+			return null;
+		}
+		Named named = field.getAnnotation(Named.class);
+		if (named == null && !field.isAnnotationPresent(Inject.class)) {
+			return null;
+		}
+		try {
+			field.setAccessible(true);
+			MethodHandle setter = MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+			return new InjectionPoint(field, Dependency.create(named != null ? named.name() : null, field.getType(), field.getGenericType()), setter);
+		} catch (IllegalAccessException | RuntimeException e) {
+			LOGGER.error("Field {} of bean {} is not accessible for injection.", field.getName(), field.getDeclaringClass().getName());
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * A no-arg method annotated with {@link Init} or {@link Destroy}.
+	 */
+	static final class LifecycleMethod {
+
+		private final Method method;
+		private final MethodHandle handle;
+
+		private LifecycleMethod(Method method, MethodHandle handle) {
+			this.method = method;
+			this.handle = handle;
+		}
+
+		Method getMethod() {
+			return method;
+		}
+
+		/**
+		 * @throws Throwable the exception thrown by the method.
+		 */
+		void invoke(Object bean) throws Throwable {
+			handle.invokeExact(bean);
+		}
+	}
+
+	/**
+	 * A field annotated with {@link Inject} or {@link Named}.
+	 */
+	static final class InjectionPoint {
+
+		private final Field field;
+		private final Dependency dependency;
+		private final MethodHandle setter;
+
+		private InjectionPoint(Field field, Dependency dependency, MethodHandle setter) {
+			this.field = field;
+			this.dependency = dependency;
+			this.setter = setter;
+		}
+
+		Dependency getDependency() {
+			return dependency;
+		}
+
+		Field getField() {
+			return field;
+		}
+
+		void inject(Object targetBean, Object bean) {
+			try {
+				setter.invokeExact(targetBean, bean);
+			} catch (Throwable e) {
+				LOGGER.error("An error occurred while injecting bean {} to bean {}", bean, targetBean);
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -1,247 +1,1575 @@
 package com.trent.queo.lwdic.container;
 
 import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Destroy;
+import com.trent.queo.lwdic.annotations.Init;
 import com.trent.queo.lwdic.annotations.Inject;
 import com.trent.queo.lwdic.annotations.Named;
+import com.trent.queo.lwdic.annotations.Primary;
+import com.trent.queo.lwdic.annotations.Scope;
+import com.trent.queo.lwdic.annotations.Timed;
+import com.trent.queo.lwdic.container.BeanDefinition.BeanLifecycle;
+import com.trent.queo.lwdic.container.ContainerEvents.BeanCreationEvent;
+import com.trent.queo.lwdic.container.ContainerEvents.InjectionEvent;
+import com.trent.queo.lwdic.container.ContainerEvents.ScanEvent;
+import com.trent.queo.lwdic.container.InjectionPlan.InjectionPoint;
 import com.trent.queo.lwdic.container.exceptions.BeanAlreadyDefinedException;
 import com.trent.queo.lwdic.container.exceptions.BeanConflictException;
+import com.trent.queo.lwdic.container.exceptions.BeanDestructionException;
+import com.trent.queo.lwdic.container.exceptions.BeanInitializationException;
+import com.trent.queo.lwdic.container.exceptions.ContainerFrozenException;
 import com.trent.queo.lwdic.container.exceptions.NoSuitableBeanFoundException;
+import com.trent.queo.lwdic.index.BeanIndex;
+import com.trent.queo.lwdic.index.BeanIndexEntry;
+import com.trent.queo.lwdic.index.ScanCache;
+import com.trent.queo.lwdic.timing.MethodTimings;
 import io.github.classgraph.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * A light weight dependency injection container written for the queo coding challenge.
  * @author Sinthujan Thanabalasingam
  */
 @SuppressWarnings("WeakerAccess")
-public class LWDIContainer {
+public class LWDIContainer implements BeanContainer, AutoCloseable {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(LWDIContainer.class);
 
-	private Map<String, Set<Object>> beans;
+	private static final int SCAN_WORKER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	// The default of Bean#poolSize().
+	private static final int DEFAULT_POOL_SIZE = 16;
+
+	private static final long DEFAULT_DESTROY_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+	private final LWDIContainer parent;
+
+	private final BeanRegistry registry;
+
+	private final ConcurrentMap<Class<?>, ResolvedBean> resolvedBeansByType = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Class<?>, ResolvedBeans> resolvedBeansOfType = new ConcurrentHashMap<>();
+
+	// Keyed by name only, the requested type is checked against the resolved bean.
+	private final ConcurrentMap<String, ResolvedBean> resolvedBeansByName = new ConcurrentHashMap<>();
+
+	private final Queue<BeanDefinition> lazyBeans = new ConcurrentLinkedQueue<>();
+
+	// Eager beans with constructor dependencies, created by start().
+	private final Queue<BeanDefinition> constructorInjectedBeans = new ConcurrentLinkedQueue<>();
+
+	// The beans found by scans by their class names, needed to replace them on refresh().
+	private final ConcurrentMap<String, ScannedBean> scannedBeans = new ConcurrentHashMap<>();
+
+	// The reverse dependency index: the beans that were injected with a binding, by the name of the binding.
+	private final ConcurrentMap<String, Set<BeanDefinition>> dependentsByName = new ConcurrentHashMap<>();
+
+	private final BeanLifecycle lazyBeanLifecycle = new BeanLifecycle() {
+		@Override
+		public Object instantiate(BeanDefinition beanDefinition) {
+			LOGGER.debug("Creating bean {}.", beanDefinition.getBeanClassName());
+			Object bean = createInstanceForClass(beanDefinition.getBeanClassName());
+			if (bean != null) {
+				for (Dependency dependency : BeanFactory.forClass(bean.getClass()).getParameters()) {
+					addDependent(dependency, beanDefinition);
+				}
+			}
+			return bean;
+		}
+
+		@Override
+		public void initialize(BeanDefinition beanDefinition, Object bean) {
+			// Beans created before the start of the container are injected by start().
+			if (started && bean != null) {
+				injectBean(beanDefinition, bean);
+				InitMethodRunner.invokeInitMethods(beanDefinition, bean);
+			}
+		}
+	};
+
+	// Creates the instances of prototype, pooled and cached beans, which are injected and initialized right away.
+	private final BeanLifecycle scopedBeanLifecycle = new BeanLifecycle() {
+		@Override
+		public Object instantiate(BeanDefinition beanDefinition) {
+			Object bean = createInstanceForClass(beanDefinition.getBeanClassName());
+			if (bean != null) {
+				injectBean(beanDefinition, bean);
+				InitMethodRunner.invokeInitMethods(beanDefinition, bean);
+			}
+			return bean;
+		}
+
+		@Override
+		public void initialize(BeanDefinition beanDefinition, Object bean) {
+		}
+	};
+
+	private boolean beanIndexEnabled = true;
+
+	private boolean scanRootsWithoutIndex;
+
+	private boolean lazyInitialization;
+
+	private ScanCache scanCache;
+
+	private Executor executor;
+
+	private ClassLoader classLoader = LWDIContainer.class.getClassLoader();
+
+	private volatile boolean started;
+
+	private boolean stopped;
+
+	private long destroyTimeoutNanos = DEFAULT_DESTROY_TIMEOUT_NANOS;
+
+	private volatile ContainerMetrics metrics;
+
+	private final BeanCache beanCache = new BeanCache();
 
 	public LWDIContainer() {
-		this.beans = new HashMap<>();
+		this(null);
+	}
+
+	private LWDIContainer(LWDIContainer parent) {
+		this.parent = parent;
+		this.registry = new BeanRegistry();
+	}
+
+	/**
+	 * Creates a child container that shares all beans of this container without copying them. Beans registered in the
+	 * child, by {@link #addBean(String, Object)} or by a scan, are only visible to the child and override beans of this
+	 * container with the same name. Lookups that find no bean in the child are resolved by this container.
+	 * <p>
+	 * The child starts out with the settings of this container, except for metrics. Creating a child is cheap, so that
+	 * a child can be created per tenant or request.
+	 *
+	 * @return a new child container.
+	 */
+	public LWDIContainer createChildContainer() {
+		LWDIContainer child = new LWDIContainer(this);
+		child.beanIndexEnabled = beanIndexEnabled;
+		child.scanRootsWithoutIndex = scanRootsWithoutIndex;
+		child.lazyInitialization = lazyInitialization;
+		child.scanCache = scanCache;
+		child.executor = executor;
+		child.classLoader = classLoader;
+		child.destroyTimeoutNanos = destroyTimeoutNanos;
+		child.beanCache.setBudget(beanCache.getBudget());
+		child.beanCache.setIdleTimeout(beanCache.getIdleTimeoutNanos());
+		return child;
+	}
+
+	/**
+	 * @return the parent of a child container or {@code null}.
+	 */
+	public LWDIContainer getParent() {
+		return parent;
+	}
+
+	/**
+	 * Enables or disables the use of the compile-time {@link BeanIndex}. If disabled, {@link #scanPackage(String)}
+	 * always scans the classpath.
+	 *
+	 * @param beanIndexEnabled whether the bean index should be used. Enabled by default.
+	 */
+	public void setBeanIndexEnabled(boolean beanIndexEnabled) {
+		this.beanIndexEnabled = beanIndexEnabled;
+	}
+
+	/**
+	 * Enables or disables scanning the jars and classes directories without a {@link BeanIndex} for packages covered by
+	 * the index. By default, the index is trusted for the packages it covers and the classpath is not scanned for them.
+	 * Enable this if beans of an indexed package are also located in jars compiled without the bean index processor,
+	 * at the cost of a classpath scan of all jars without an index.
+	 *
+	 * @param scanRootsWithoutIndex whether indexed packages are also scanned in classpath roots without an index.
+	 *                              Disabled by default.
+	 */
+	public void setScanRootsWithoutIndex(boolean scanRootsWithoutIndex) {
+		this.scanRootsWithoutIndex = scanRootsWithoutIndex;
+	}
+
+	/**
+	 * Sets the directory of a persistent {@link ScanCache}. Classpath scans of {@link #scanPackage(String)} are written
+	 * to the cache and reused as long as the classpath does not change, so that warm restarts skip the classpath scan.
+	 *
+	 * @param scanCacheDirectory the directory of the cache files, or {@code null} to disable the cache (default).
+	 */
+	public void setScanCacheDirectory(Path scanCacheDirectory) {
+		this.scanCache = scanCacheDirectory != null ? new ScanCache(scanCacheDirectory) : null;
+	}
+
+	/**
+	 * Enables or disables lazy initialization for all beans found by {@link #scanPackage(String)}. Lazy beans are
+	 * only registered by a scan and created the first time they are resolved or injected. Single beans can be made
+	 * lazy with {@link Bean#lazy()}.
+	 *
+	 * @param lazyInitialization whether all scanned beans are lazy. Disabled by default.
+	 */
+	public void setLazyInitialization(boolean lazyInitialization) {
+		this.lazyInitialization = lazyInitialization;
+	}
+
+	/**
+	 * Sets the executor used to start the container in parallel. Beans found by {@link #scanPackage(String)} are
+	 * instantiated in parallel and {@link #start()} injects the beans level by level of their dependency graph, all
+	 * beans of a level in parallel. The resulting container is the same as the one of a sequential startup.
+	 *
+	 * @param executor the executor for the startup, or {@code null} to start the container sequentially (default).
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the class loader that {@link #scanPackage(String)} uses to find and load bean classes.
+	 *
+	 * @param classLoader the class loader of the bean classes. Defaults to the class loader of the container.
+	 */
+	public void setClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Sets the time the destroy hooks of a single bean may take when the container is {@link #stop() stopped}. Beans
+	 * that exceed the timeout are reported as timed out and no longer keep their dependencies from being destroyed.
+	 *
+	 * @param timeout the timeout per bean, or 0 to wait for destroy hooks indefinitely. Defaults to 30 seconds.
+	 * @param unit    the unit of the timeout.
+	 */
+	public void setDestroyTimeout(long timeout, TimeUnit unit) {
+		this.destroyTimeoutNanos = unit.toNanos(timeout);
+	}
+
+	/**
+	 * Limits the number of instances of {@link Scope#CACHED cached} beans. Whenever a cached bean is created while the
+	 * budget is exhausted, the least recently used instances are evicted.
+	 *
+	 * @param budget the maximum number of cached instances, or 0 for no limit (default).
+	 */
+	public void setCachedBeanBudget(int budget) {
+		beanCache.setBudget(budget);
+	}
+
+	/**
+	 * Evicts the instances of {@link Scope#CACHED cached} beans that were not resolved for the given time. Idle
+	 * instances are checked by a daemon thread shared by all containers.
+	 *
+	 * @param timeout the idle timeout, or 0 to keep idle instances (default).
+	 * @param unit    the unit of the timeout.
+	 */
+	public void setCachedBeanIdleTimeout(long timeout, TimeUnit unit) {
+		beanCache.setIdleTimeout(unit.toNanos(timeout));
+	}
+
+	/**
+	 * Evicts the instances of all {@link Scope#CACHED cached} beans of this container, e.g. after a burst of work. The
+	 * beans are created again on their next resolution.
+	 */
+	public void evictCachedBeans() {
+		beanCache.evictAll();
+	}
+
+	/**
+	 * @return the cache of the {@link Scope#CACHED cached} beans of this container with its eviction and re-creation
+	 * statistics.
+	 */
+	public BeanCache getBeanCache() {
+		return beanCache;
+	}
+
+	/**
+	 * Enables the recording of {@link ContainerMetrics} and the emission of JFR events for all following operations of
+	 * the container. Without metrics, the container does not take any timings.
+	 *
+	 * @return the metrics of the container.
+	 */
+	public synchronized ContainerMetrics enableMetrics() {
+		if (metrics == null) {
+			metrics = new ContainerMetrics();
+		}
+		return metrics;
+	}
+
+	/**
+	 * @return the metrics of the container or {@code null} if metrics are not enabled.
+	 */
+	public ContainerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Enables the recording of the latency of all bean methods annotated with {@link Timed}. The timing is woven into
+	 * the bean classes at compile time, so it is enabled for all containers of the JVM. While disabled, a timed method
+	 * costs no more than a field read.
+	 *
+	 * @return the method timings recorded from now on.
+	 */
+	public MethodTimings enableMethodTimings() {
+		return MethodTimings.enable();
+	}
+
+	/**
+	 * Disables the recording of method latencies for all containers of the JVM.
+	 */
+	public void disableMethodTimings() {
+		MethodTimings.disable();
+	}
+
+	/**
+	 * @return the latency histograms of all {@link Timed} methods or {@code null} if method timing is not enabled.
+	 */
+	public MethodTimings getMethodTimings() {
+		return MethodTimings.current();
 	}
 
 	/**
 	 * Scans a given package and adds instances for all classes that are annotated with {@link Bean} to the container.
+	 * If the package is covered by a {@link BeanIndex} written at compile time, the index is used in place of a
+	 * classpath scan, see {@link #setScanRootsWithoutIndex(boolean)}. Otherwise the result of a previous scan is reused
+	 * if a {@link ScanCache} is set up.
 	 *
 	 * @param packageName the package to be scanned.
 	 */
 	public void scanPackage(String packageName) {
+		scanPackages(packageName);
+	}
+
+	/**
+	 * Scans the given packages like {@link #scanPackage(String)}. All packages that are neither covered by the
+	 * {@link BeanIndex} nor by the {@link ScanCache} are scanned in a single pass over the classpath, which is
+	 * considerably faster than scanning them one by one.
+	 *
+	 * @param packageNames the packages to be scanned.
+	 */
+	public void scanPackages(String... packageNames) {
+
+		LOGGER.info("Scanning packages {}...", Arrays.toString(packageNames));
+		ContainerMetrics metrics = this.metrics;
+		long startNanos = 0;
+		ScanEvent scanEvent = null;
+		if (metrics != null) {
+			startNanos = System.nanoTime();
+			scanEvent = metrics.beginScan(String.join(",", packageNames));
+		}
+
+		Map<String, List<BeanIndexEntry>> beanEntriesByPackage = new LinkedHashMap<>();
+		Map<String, byte[]> fingerprints = new HashMap<>();
+		List<String> unresolvedPackages = new ArrayList<>();
+		List<String> indexedPackages = new ArrayList<>();
+		BeanIndex beanIndex = beanIndexEnabled ? BeanIndex.load(classLoader) : null;
+		for (String packageName : packageNames) {
+			List<BeanIndexEntry> beanEntries = readBeanIndex(beanIndex, packageName);
+			if (beanEntries != null) {
+				if (scanRootsWithoutIndex && !indexedPackages.contains(packageName)) {
+					indexedPackages.add(packageName);
+				}
+			} else {
+				beanEntries = readScanCache(packageName, fingerprints);
+			}
+			if (beanEntries == null && !unresolvedPackages.contains(packageName)) {
+				unresolvedPackages.add(packageName);
+			}
+			beanEntriesByPackage.put(packageName, beanEntries);
+		}
+		// If enabled, the classpath roots without an index are scanned for further beans of the indexed packages.
+		List<String> scannedPackages = new ArrayList<>(unresolvedPackages);
+		scannedPackages.addAll(indexedPackages);
+		if (!scannedPackages.isEmpty()) {
+			List<BeanIndexEntry> scannedEntries = scanClasspath(scannedPackages, beanIndex);
+			for (String packageName : unresolvedPackages) {
+				List<BeanIndexEntry> beanEntries = new ArrayList<>();
+				for (BeanIndexEntry scannedEntry : scannedEntries) {
+					if (scannedEntry.isInPackage(packageName)) {
+						beanEntries.add(scannedEntry);
+					}
+				}
+				writeScanCache(packageName, fingerprints.get(packageName), beanEntries);
+				beanEntriesByPackage.put(packageName, beanEntries);
+			}
+			for (String packageName : indexedPackages) {
+				List<BeanIndexEntry> beanEntries = beanEntriesByPackage.get(packageName);
+				Set<String> indexedClassNames = new HashSet<>();
+				for (BeanIndexEntry beanEntry : beanEntries) {
+					indexedClassNames.add(beanEntry.getClassName());
+				}
+				for (BeanIndexEntry scannedEntry : scannedEntries) {
+					if (scannedEntry.isInPackage(packageName) && indexedClassNames.add(scannedEntry.getClassName())) {
+						beanEntries.add(scannedEntry);
+					}
+				}
+			}
+		}
+
+		List<BeanIndexEntry> beanEntries = new ArrayList<>();
+		beanEntriesByPackage.values().forEach(beanEntries::addAll);
+		Object[] instances = instantiateBeans(beanEntries);
+		Map<String, List<BeanDefinition>> supertypeBindings = new HashMap<>();
+		for (int i = 0; i < beanEntries.size(); i++) {
+			registerBean(beanEntries.get(i), instances[i], supertypeBindings);
+		}
+		addSupertypeBindings(supertypeBindings);
+
+		if (metrics != null) {
+			metrics.endScan(scanEvent, startNanos, beanEntries.size());
+		}
+	}
+
+	/**
+	 * Creates the instances of all eager beans, in parallel if an executor is set. Beans with constructor dependencies
+	 * are created by {@link #start()}, since their dependencies may not be registered yet.
+	 *
+	 * @return the instances in the order of the given entries, {@code null} for beans that are not created.
+	 */
+	private Object[] instantiateBeans(List<BeanIndexEntry> beanEntries) {
+		Object[] instances = new Object[beanEntries.size()];
+		List<Integer> eagerBeans = new ArrayList<>();
+		for (int i = 0; i < beanEntries.size(); i++) {
+			BeanIndexEntry beanEntry = beanEntries.get(i);
+			if (beanEntry.isInjectable() && !isLazy(beanEntry) && beanEntry.getScope() == Scope.SINGLETON) {
+				eagerBeans.add(i);
+			}
+		}
+		forEachBean(eagerBeans, i -> {
+			String beanClassName = beanEntries.get(i).getClassName();
+			if (!hasConstructorDependencies(beanClassName)) {
+				instances[i] = createInstanceForClass(beanClassName);
+			}
+		});
+		return instances;
+	}
 
-		LOGGER.info("Scanning package {}...", packageName);
+	private boolean hasConstructorDependencies(String className) {
+		try {
+			return BeanFactory.forClass(Class.forName(className, true, classLoader)).getParameters().length > 0;
+		} catch (ClassNotFoundException e) {
+			// Reported when the bean is created.
+			return false;
+		}
+	}
+
+	private boolean isLazy(BeanIndexEntry beanEntry) {
+		return lazyInitialization || beanEntry.isLazy();
+	}
+
+	private List<BeanIndexEntry> readBeanIndex(BeanIndex beanIndex, String packageName) {
+		if (beanIndex == null || !beanIndex.covers(packageName)) {
+			LOGGER.info("No bean index found for package {}, falling back to classpath scanning.", packageName);
+			return null;
+		}
+		return beanIndex.getEntries(packageName);
+	}
+
+	/**
+	 * @param fingerprints receives the classpath fingerprint of the package, which is needed to rewrite the cache.
+	 * @return the cached beans of the package or {@code null} if the cache is missing or outdated.
+	 */
+	private List<BeanIndexEntry> readScanCache(String packageName, Map<String, byte[]> fingerprints) {
+		ScanCache scanCache = this.scanCache;
+		if (scanCache == null) {
+			return null;
+		}
+		try {
+			// The fingerprint covers the whole classpath, so it is computed once per scan.
+			byte[] fingerprint = fingerprints.isEmpty() ? ScanCache.fingerprint(classLoader) : fingerprints.values().iterator().next();
+			fingerprints.put(packageName, fingerprint);
+			List<BeanIndexEntry> beanEntries = scanCache.read(packageName, fingerprint);
+			if (beanEntries == null) {
+				LOGGER.info("The scan cache for package {} is missing or outdated, rescanning.", packageName);
+			}
+			return beanEntries;
+		} catch (IOException e) {
+			LOGGER.error("An error occurred while reading the scan cache for package {}.", packageName);
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private void writeScanCache(String packageName, byte[] fingerprint, List<BeanIndexEntry> beanEntries) {
+		ScanCache scanCache = this.scanCache;
+		if (scanCache == null || fingerprint == null) {
+			return;
+		}
+		try {
+			scanCache.write(packageName, fingerprint, beanEntries);
+		} catch (IOException e) {
+			LOGGER.error("An error occurred while writing the scan cache for package {}.", packageName);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Scans all given packages in a single pass. Only the class and annotation info needed for the bean entries is
+	 * read, and the class files are read by the parallel worker threads of ClassGraph.
+	 *
+	 * @param beanIndex the bean index whose classpath roots are skipped, or {@code null} to scan all roots.
+	 */
+	private List<BeanIndexEntry> scanClasspath(List<String> packageNames, BeanIndex beanIndex) {
+		List<BeanIndexEntry> beanEntries = new ArrayList<>();
+		String beanAnnotation = Bean.class.getName();
+		ClassGraph classGraph = new ClassGraph()
+				.enableClassInfo()
+				.enableAnnotationInfo()
+				.ignoreClassVisibility()
+				.overrideClassLoaders(classLoader)
+				.whitelistPackages(packageNames.toArray(new String[0]));
+		if (beanIndex != null) {
+			classGraph.filterClasspathElements(classpathRoot -> !beanIndex.isIndexedRoot(classpathRoot));
+		}
+		try (ScanResult scanResult = classGraph.scan(SCAN_WORKER_THREADS)) {
+			for (ClassInfo beanClassInfo : scanResult.getClassesWithAnnotation(beanAnnotation)) {
+				beanEntries.add(createBeanIndexEntry(beanClassInfo));
+			}
+		}
+		return beanEntries;
+	}
+
+	/**
+	 * Scans the given classes only. Superclasses and interfaces outside of the given classes are read as external
+	 * classes, so that the bean entries are the same as the ones of a package scan.
+	 */
+	private List<BeanIndexEntry> scanClasses(Collection<String> classNames) {
+		List<BeanIndexEntry> beanEntries = new ArrayList<>();
 		String beanAnnotation = Bean.class.getName();
 		try (ScanResult scanResult = new ClassGraph()
-				.enableAllInfo()
-				.whitelistPackages(packageName)
+				.enableClassInfo()
+				.enableAnnotationInfo()
+				.enableExternalClasses()
+				.ignoreClassVisibility()
+				.overrideClassLoaders(classLoader)
+				.whitelistClasses(classNames.toArray(new String[0]))
 				.scan()) {
 			for (ClassInfo beanClassInfo : scanResult.getClassesWithAnnotation(beanAnnotation)) {
-
-				AnnotationParameterValueList beanAnnotationParameters = beanClassInfo.getAnnotationInfo(Bean.class.getName()).getParameterValues();
-				if (beanAnnotationParameters != null) {
-					Boolean injectable = (Boolean) beanAnnotationParameters.get(0).getValue();
-					if (!injectable) {
-						LOGGER.info("Skipping bean {} with flag injectable=false.", beanClassInfo.getName());
-						continue;
-					}
+				if (classNames.contains(beanClassInfo.getName())) {
+					beanEntries.add(createBeanIndexEntry(beanClassInfo));
 				}
+			}
+		}
+		return beanEntries;
+	}
 
-				String beanClassName = beanClassInfo.getName();
-				Object instanceOfBean = createInstanceForClass(beanClassName);
-
-				AnnotationInfo namedAnnotationInfo = beanClassInfo.getAnnotationInfo(Named.class.getName());
-				if (namedAnnotationInfo != null) {
-					processNamedBean(beanClassName, instanceOfBean, namedAnnotationInfo);
-				} else {
-					LOGGER.info("Registering bean of type {} with name {}.", beanClassName, beanClassName);
-					if (beanClassInfo.isInterface() || beanClassInfo.isAbstract()) {
-						addInstanceToBean(beanClassName, instanceOfBean);
-					} else {
-						addBean(beanClassName, instanceOfBean);
-					}
-				}
-				processBeanInterfaces(beanClassInfo, instanceOfBean);
-				processBeanSuperclass(beanClassInfo, instanceOfBean);
+	private BeanIndexEntry createBeanIndexEntry(ClassInfo beanClassInfo) {
+		boolean injectable = true;
+		boolean lazy = false;
+		Scope scope = Scope.SINGLETON;
+		int poolSize = DEFAULT_POOL_SIZE;
+		AnnotationParameterValueList beanAnnotationParameters = beanClassInfo.getAnnotationInfo(Bean.class.getName()).getParameterValues();
+		if (beanAnnotationParameters != null) {
+			injectable = getBooleanParameter(beanAnnotationParameters, "injectable", true);
+			lazy = getBooleanParameter(beanAnnotationParameters, "lazy", false);
+			AnnotationParameterValue scopeParameter = beanAnnotationParameters.get("scope");
+			if (scopeParameter != null) {
+				scope = Scope.valueOf(((AnnotationEnumValue) scopeParameter.getValue()).getValueName());
+			}
+			AnnotationParameterValue poolSizeParameter = beanAnnotationParameters.get("poolSize");
+			if (poolSizeParameter != null) {
+				poolSize = (Integer) poolSizeParameter.getValue();
+			}
+		}
+
+		String beanName = null;
+		AnnotationInfo namedAnnotationInfo = beanClassInfo.getAnnotationInfo(Named.class.getName());
+		if (namedAnnotationInfo != null) {
+			List<AnnotationParameterValue> namedAnnotationParameterValues = namedAnnotationInfo.getParameterValues();
+			if (namedAnnotationParameterValues.size() == 1) {
+				beanName = (String) namedAnnotationParameterValues.get(0).getValue();
+			}
+		}
+
+		List<String> superclassNames = new ArrayList<>();
+		for (ClassInfo superclassInfo : beanClassInfo.getSuperclasses()) {
+			superclassNames.add(superclassInfo.getName());
+		}
+		List<String> interfaceNames = new ArrayList<>();
+		for (ClassInfo interfaceClassInfo : beanClassInfo.getInterfaces()) {
+			interfaceNames.add(interfaceClassInfo.getName());
+		}
+		return new BeanIndexEntry(beanClassInfo.getName(), beanName, injectable, lazy,
+				beanClassInfo.hasAnnotation(Primary.class.getName()), beanClassInfo.isInterface() || beanClassInfo.isAbstract(),
+				scope, poolSize, superclassNames, interfaceNames);
+	}
+
+	private static boolean getBooleanParameter(AnnotationParameterValueList parameters, String name, boolean defaultValue) {
+		AnnotationParameterValue parameter = parameters.get(name);
+		return parameter != null ? (Boolean) parameter.getValue() : defaultValue;
+	}
+
+	/**
+	 * @return the definition of the registered bean or {@code null} if the bean is not injectable.
+	 */
+	private BeanDefinition registerBean(BeanIndexEntry beanEntry, Object instance,
+										Map<String, List<BeanDefinition>> supertypeBindings) {
+		String beanClassName = beanEntry.getClassName();
+		if (!beanEntry.isInjectable()) {
+			LOGGER.debug("Skipping bean {} with flag injectable=false.", beanClassName);
+			return null;
+		}
+
+		BeanDefinition instanceOfBean;
+		if (beanEntry.getScope() == Scope.PROTOTYPE) {
+			instanceOfBean = BeanDefinition.prototype(beanClassName, scopedBeanLifecycle, beanEntry.isPrimary());
+		} else if (beanEntry.getScope() == Scope.POOLED) {
+			instanceOfBean = BeanDefinition.pooled(beanClassName, scopedBeanLifecycle, beanEntry.isPrimary(), beanEntry.getPoolSize());
+		} else if (beanEntry.getScope() == Scope.CACHED) {
+			instanceOfBean = BeanDefinition.cached(beanClassName, scopedBeanLifecycle, beanEntry.isPrimary(), beanCache);
+		} else if (isLazy(beanEntry)) {
+			instanceOfBean = BeanDefinition.lazy(beanClassName, lazyBeanLifecycle, beanEntry.isPrimary());
+			lazyBeans.add(instanceOfBean);
+		} else if (instance == null && hasConstructorDependencies(beanClassName)) {
+			instanceOfBean = BeanDefinition.lazy(beanClassName, lazyBeanLifecycle, beanEntry.isPrimary());
+			constructorInjectedBeans.add(instanceOfBean);
+		} else {
+			instanceOfBean = BeanDefinition.ofInstance(beanClassName, instance, beanEntry.isPrimary());
+		}
+
+		if (beanEntry.getName() != null) {
+			LOGGER.debug("Registering bean of type {} with name {}.", beanClassName, beanEntry.getName());
+			registry.add(beanEntry.getName(), instanceOfBean);
+		} else {
+			LOGGER.debug("Registering bean of type {} with name {}.", beanClassName, beanClassName);
+			if (beanEntry.isAbstractType()) {
+				addInstanceToBean(beanClassName, instanceOfBean);
+			} else {
+				registry.add(beanClassName, instanceOfBean);
+			}
+		}
+		processBeanSupertypes(beanEntry, instanceOfBean, supertypeBindings);
+		scannedBeans.put(beanClassName, new ScannedBean(instanceOfBean, getBindingNames(beanEntry)));
+		return instanceOfBean;
+	}
+
+	private static List<String> getBindingNames(BeanIndexEntry beanEntry) {
+		List<String> bindingNames = new ArrayList<>();
+		bindingNames.add(beanEntry.getName() != null ? beanEntry.getName() : beanEntry.getClassName());
+		bindingNames.addAll(beanEntry.getSupertypeNames());
+		return bindingNames;
+	}
+
+	/**
+	 * Collects the bindings of a bean to all its interfaces and superclasses, so that it can be looked up by any of its
+	 * supertypes. The bindings of all beans of a scan are added by {@link #addSupertypeBindings(Map)}, since many beans
+	 * share the same supertypes and every update of a binding copies the bound beans.
+	 */
+	private void processBeanSupertypes(BeanIndexEntry beanEntry, BeanDefinition instanceOfBean,
+									   Map<String, List<BeanDefinition>> supertypeBindings) {
+		for (String supertypeName : beanEntry.getSupertypeNames()) {
+			LOGGER.debug("Registering bean of type {} with name {}.", supertypeName, supertypeName);
+			supertypeBindings.computeIfAbsent(supertypeName, key -> new ArrayList<>()).add(instanceOfBean);
+		}
+	}
+
+	private void addSupertypeBindings(Map<String, List<BeanDefinition>> supertypeBindings) {
+		for (Map.Entry<String, List<BeanDefinition>> supertypeBinding : supertypeBindings.entrySet()) {
+			registry.addInstances(supertypeBinding.getKey(), supertypeBinding.getValue());
+		}
+	}
+
+	/**
+	 * Performs dependency injection to all {@link Bean}s that have fields annotated with {@link Inject}.
+	 *
+	 * @return the beans that were injected.
+	 */
+	private List<BeanDefinition> injectBeans() {
+
+		Set<BeanDefinition> beanDefinitions = new HashSet<>();
+		registry.asMap().values().forEach(beanDefinitions::addAll);
+
+		// Lazy beans that are created from now on are injected on creation.
+		List<BeanDefinition> createdBeans = new ArrayList<>();
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			if (beanDefinition.getInstanceIfCreated() != null) {
+				createdBeans.add(beanDefinition);
+			}
+		}
+		started = true;
+
+		ContainerMetrics metrics = this.metrics;
+		long startNanos = 0;
+		InjectionEvent injectionEvent = null;
+		if (metrics != null) {
+			startNanos = System.nanoTime();
+			injectionEvent = metrics.beginInjection();
+		}
+
+		if (executor == null) {
+			for (BeanDefinition bean : createdBeans) {
+				injectBean(bean, bean.getInstanceIfCreated());
+			}
+		} else {
+			for (List<BeanDefinition> level : createDependencyGraph(createdBeans).getLevels()) {
+				forEachBean(level, bean -> injectBean(bean, bean.getInstanceIfCreated()));
+			}
+		}
+
+		if (metrics != null) {
+			metrics.endInjection(injectionEvent, startNanos, createdBeans.size());
+		}
+		return createdBeans;
+	}
+
+	/**
+	 * Runs the {@link Init} methods of the given beans, ordered by their dependency graph.
+	 */
+	private CompletableFuture<Void> runInitMethods(List<BeanDefinition> beanDefinitions) {
+		if (!InitMethodRunner.hasInitMethods(beanDefinitions)) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return InitMethodRunner.run(createDependencyGraph(beanDefinitions));
+	}
+
+	/**
+	 * Creates all eager beans with constructor dependencies. Dependencies that were not created yet are created on
+	 * demand, so with an executor the beans are created level by level of their constructor dependency graph and only
+	 * beans without dependencies between each other are created in parallel.
+	 */
+	private void createConstructorInjectedBeans() {
+		List<BeanDefinition> beanDefinitions = new ArrayList<>();
+		for (BeanDefinition beanDefinition; (beanDefinition = constructorInjectedBeans.poll()) != null; ) {
+			beanDefinitions.add(beanDefinition);
+		}
+
+		if (executor == null) {
+			for (BeanDefinition beanDefinition : beanDefinitions) {
+				beanDefinition.getInstance();
+			}
+			return;
+		}
+		DependencyGraph dependencyGraph = new DependencyGraph();
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			dependencyGraph.addBean(beanDefinition);
+		}
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			try {
+				Class<?> beanClass = Class.forName(beanDefinition.getBeanClassName(), false, classLoader);
+				addDependencies(dependencyGraph, beanDefinition, BeanFactory.forClass(beanClass).getParameters());
+			} catch (ClassNotFoundException e) {
+				// Reported when the bean is created.
+			}
+		}
+		for (List<BeanDefinition> level : dependencyGraph.getLevels()) {
+			if (dependencyGraph.hasDependenciesWithin(level)) {
+				level.forEach(BeanDefinition::getInstance);
+			} else {
+				forEachBean(level, BeanDefinition::createInstance);
 			}
 		}
 	}
 
-	private void processBeanSuperclass(ClassInfo beanClassInfo, Object instanceOfBean) {
-		ClassInfo superclassInfo = beanClassInfo.getSuperclass();
-		if (superclassInfo != null) {
-			String superClassName = superclassInfo.getName();
-			LOGGER.info("Registering bean of type {} with name {}.", superClassName, superClassName);
-			addInstanceToBean(superClassName, instanceOfBean);
+	private DependencyGraph createDependencyGraph(List<BeanDefinition> beanDefinitions) {
+		DependencyGraph dependencyGraph = new DependencyGraph();
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			dependencyGraph.addBean(beanDefinition);
 		}
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			Class<?> beanClass = beanDefinition.getInstanceIfCreated().getClass();
+			for (InjectionPoint injectionPoint : InjectionPlan.forClass(beanClass).getInjectionPoints()) {
+				addDependencies(dependencyGraph, beanDefinition, injectionPoint.getDependency());
+			}
+			addDependencies(dependencyGraph, beanDefinition, BeanFactory.forClass(beanClass).getParameters());
+		}
+		return dependencyGraph;
 	}
 
-	private void processBeanInterfaces(ClassInfo beanClassInfo, Object instanceOfBean) {
-		for (ClassInfo interfaceClassInfo : beanClassInfo.getInterfaces()) {
-			String interfaceName = interfaceClassInfo.getName();
-			LOGGER.info("Registering bean of type {} with name {}.", interfaceName, interfaceName);
-			addInstanceToBean(interfaceName, instanceOfBean);
+	private void addDependencies(DependencyGraph dependencyGraph, BeanDefinition beanDefinition, Dependency... dependencies) {
+		for (Dependency dependency : dependencies) {
+			// Provider dependencies are resolved on use and pools exist from the start, so the beans do not have to be ordered.
+			if (dependency.isProvider() || dependency.isPool()) {
+				continue;
+			}
+			Set<BeanDefinition> candidates = registry.get(dependency.getDependencyName());
+			// Missing and conflicting dependencies are reported by the injection itself. Beans of other scopes are created for
+			// the injection and not initialized by the start.
+			if (candidates != null && candidates.size() == 1 && candidates.iterator().next().isSingleton()) {
+				dependencyGraph.addDependency(beanDefinition, candidates.iterator().next());
+			}
 		}
 	}
 
-	private void processNamedBean(String beanClassName, Object instanceOfBean, AnnotationInfo namedAnnotationInfo) {
-		List<AnnotationParameterValue> namedAnnotationParameterValues = namedAnnotationInfo.getParameterValues();
-		if (namedAnnotationParameterValues.size() == 1) {
-			String beanName = (String) namedAnnotationParameterValues.get(0).getValue();
-			LOGGER.info("Registering bean of type {} with name {}.", beanClassName, beanName);
-			addBean(beanName, instanceOfBean);
+	/**
+	 * Runs a task for all given beans, in parallel if an executor is set. Returns when all tasks are done and rethrows
+	 * the exception of a failed task.
+	 */
+	private <T> void forEachBean(Collection<T> beans, Consumer<T> task) {
+		if (executor == null || beans.size() < 2) {
+			beans.forEach(task);
+			return;
+		}
+		List<CompletableFuture<Void>> futures = new ArrayList<>(beans.size());
+		for (T bean : beans) {
+			futures.add(CompletableFuture.runAsync(() -> task.accept(bean), executor));
 		}
+		join(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])));
 	}
 
 	/**
-	 * Performs dependency injection to all {@link Bean}s that have fields annotated with {@link Inject}.
+	 * Waits for a future and rethrows the exception it failed with.
 	 */
-	private void injectBeans() {
+	private static void join(CompletableFuture<?> future) {
+		try {
+			future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
 
-		Set<Object> beanObjects = new HashSet<>();
-		beans.values().forEach(beanObjects::addAll);
+	private void injectBean(BeanDefinition beanDefinition, Object targetBean) {
+		for (InjectionPoint injectionPoint : InjectionPlan.forClass(targetBean.getClass()).getInjectionPoints()) {
+			addDependent(injectionPoint.getDependency(), beanDefinition);
+			injectionPoint.inject(targetBean, resolveDependency(injectionPoint.getDependency()));
+		}
+	}
 
-		for (Object bean : beanObjects) {
-			Field[] fields = bean.getClass().getFields();
-			for (Field field : fields) {
-				processAnnotations(bean, field);
-			}
+	private void addDependent(Dependency dependency, BeanDefinition dependent) {
+		dependentsByName.computeIfAbsent(dependency.getDependencyName(), name -> ConcurrentHashMap.newKeySet())
+				.add(dependent);
+	}
+
+	private void removeDependent(BeanDefinition dependent) {
+		Object bean = dependent.getInstanceIfCreated();
+		if (bean == null) {
+			return;
+		}
+		for (InjectionPoint injectionPoint : InjectionPlan.forClass(bean.getClass()).getInjectionPoints()) {
+			getDependents(injectionPoint.getDependency().getDependencyName()).remove(dependent);
+		}
+		for (Dependency dependency : BeanFactory.forClass(bean.getClass()).getParameters()) {
+			getDependents(dependency.getDependencyName()).remove(dependent);
 		}
 	}
 
-	private void processAnnotations(Object bean, Field field) {
-		Annotation[] annotations = field.getAnnotations();
-		for (Annotation annotation : annotations) {
-			if (annotation instanceof Inject && annotations.length == 1) {
-				injectBean(bean, field);
-			}
-			if (annotation instanceof Named) {
-				injectNamedBean(bean, ((Named) annotation).name(), field);
+	private Set<BeanDefinition> getDependents(String bindingName) {
+		return dependentsByName.getOrDefault(bindingName, Collections.<BeanDefinition>emptySet());
+	}
+
+	private static boolean hasConstructorDependency(BeanDefinition beanDefinition, String bindingName) {
+		Object bean = beanDefinition.getInstanceIfCreated();
+		if (bean == null) {
+			return false;
+		}
+		for (Dependency dependency : BeanFactory.forClass(bean.getClass()).getParameters()) {
+			if (dependency.getDependencyName().equals(bindingName)) {
+				return true;
 			}
 		}
+		return false;
 	}
 
-	private void injectNamedBean(Object targetBean, String name, Field field) {
-		Object bean = getBeanByNameAndType(name, field.getType());
-		field.setAccessible(true);
-		try {
-			field.set(targetBean, bean);
-		} catch (IllegalAccessException e) {
-			LOGGER.error("An error occurred while injecting bean {} to bean {}", name, targetBean);
-			e.printStackTrace();
+	private Object resolveDependency(Dependency dependency) {
+		if (dependency.isPool()) {
+			return dependency.getName() != null
+					? getBeanPool(dependency.getName(), dependency.getType()) : getBeanPool(dependency.getType());
 		}
+		return dependency.isProvider() ? new BeanSupplier(dependency) : resolveBean(dependency);
 	}
 
-	private void injectBean(Object targetBean, Field field) {
-		Object bean = getBeanByType(field.getType());
-		field.setAccessible(true);
-		try {
-			field.set(targetBean, bean);
-		} catch (IllegalAccessException e) {
-			LOGGER.error("An error occurred while injecting bean {} to bean {}", bean, targetBean);
-			e.printStackTrace();
+	private Object resolveBean(Dependency dependency) {
+		if (dependency.getName() != null) {
+			return getBeanByNameAndType(dependency.getName(), dependency.getType());
 		}
+		return getBeanByType(dependency.getType());
 	}
 
 	private Object createInstanceForClass(String className) {
-		Class<?> clazz;
+		ContainerMetrics metrics = this.metrics;
+		if (metrics == null) {
+			return instantiate(className);
+		}
+		long startNanos = System.nanoTime();
+		BeanCreationEvent beanCreationEvent = metrics.beginBeanCreation(className);
+		Object bean = instantiate(className);
+		metrics.endBeanCreation(beanCreationEvent, startNanos);
+		return bean;
+	}
+
+	private Object instantiate(String className) {
 		try {
-			clazz = Class.forName(className);
-			Constructor<?> constructor = clazz.getConstructor();
-			return constructor.newInstance();
-		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			BeanFactory beanFactory = BeanFactory.forClass(Class.forName(className, true, classLoader));
+			return beanFactory.newInstance(resolveArguments(beanFactory));
+		} catch (ReflectiveOperationException e) {
 			LOGGER.error("An error occurred while creating an instance for bean {}.", className);
 			e.printStackTrace();
 			return null;
-		} catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
-			LOGGER.error("An error occurred while creating an instance for bean {}.", className);
-			e.printStackTrace();
 		}
-		return null;
+	}
+
+	private Object[] resolveArguments(BeanFactory beanFactory) {
+		Dependency[] parameters = beanFactory.getParameters();
+		Object[] arguments = new Object[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			arguments[i] = resolveDependency(parameters[i]);
+		}
+		return arguments;
 	}
 
 	/**
-	 * Starts the container and injects all beans.
+	 * Starts the container, creates all beans with {@link Inject} constructors, injects all beans and runs their
+	 * {@link Init} methods. Independent init methods run concurrently; this method returns when all of them are done.
+	 *
+	 * @throws BeanInitializationException with all failures as suppressed exceptions if init methods failed.
 	 */
 	public void start() {
-		injectBeans();
+		createConstructorInjectedBeans();
+		join(runInitMethods(injectBeans()));
+	}
+
+	/**
+	 * Starts the container like {@link #start()}, without blocking the calling thread.
+	 *
+	 * @return a future that completes when the container is started, or fails with the exception that
+	 * {@link #start()} would throw.
+	 */
+	public CompletableFuture<Void> startAsync() {
+		return CompletableFuture.supplyAsync(() -> {
+			createConstructorInjectedBeans();
+			return injectBeans();
+		}).thenCompose(this::runInitMethods);
+	}
+
+	/**
+	 * Stops the container: calls the {@link Destroy} methods of all beans created by this container and closes the
+	 * beans that are {@link AutoCloseable}, unless their {@code close()} method is a destroy method itself. A bean is
+	 * destroyed before the beans it depends on, and independent beans are destroyed concurrently. Every bean gets
+	 * the {@link #setDestroyTimeout(long, TimeUnit) destroy timeout}; a bean that fails or times out does not keep its
+	 * dependencies from being destroyed.
+	 * <p>
+	 * Beans registered with {@link #addBean(String, Object)} belong to the caller and are not destroyed, neither are the
+	 * instances of prototype, pooled and cached beans. Child containers have to be stopped by themselves, before their
+	 * parent. The container must not be used after it was stopped; stopping it again does nothing.
+	 *
+	 * @return the time every bean with destroy hooks took to shut down and the failures of the destroy hooks.
+	 */
+	public synchronized ShutdownReport stop() {
+		if (stopped) {
+			return new ShutdownReport(Collections.<ShutdownReport.BeanShutdown>emptyList(), 0);
+		}
+		stopped = true;
+		LOGGER.info("Stopping container...");
+		beanCache.close();
+
+		Set<BeanDefinition> beanDefinitions = new LinkedHashSet<>();
+		for (ScannedBean scannedBean : scannedBeans.values()) {
+			if (scannedBean.definition.getInstanceIfCreated() != null) {
+				beanDefinitions.add(scannedBean.definition);
+			}
+		}
+		ShutdownReport report = DestroyMethodRunner.run(createDependencyGraph(new ArrayList<>(beanDefinitions)), destroyTimeoutNanos);
+		LOGGER.info("{}", report);
+		return report;
+	}
+
+	/**
+	 * Stops the container like {@link #stop()}.
+	 *
+	 * @throws BeanDestructionException with all failures as suppressed exceptions if destroy hooks failed.
+	 */
+	@Override
+	public void close() {
+		List<Throwable> failures = stop().getFailures();
+		if (!failures.isEmpty()) {
+			throw new BeanDestructionException(failures);
+		}
+	}
+
+	/**
+	 * Compacts the registry of this container into an immutable hash table over flat arrays, which needs less memory
+	 * and answers lookups faster than the concurrent registry used while beans are registered. Lookups and lazy beans
+	 * keep working; registering beans with {@link #addBean(String, Object)}, {@link #scanPackage(String)} or
+	 * {@link #refresh(String...)} fails with a {@link ContainerFrozenException} afterwards. Child containers can still
+	 * register their own beans.
+	 * <p>
+	 * Usually called after {@link #start()}. Must not be called while beans are registered concurrently.
+	 */
+	public void freeze() {
+		registry.freeze();
+	}
+
+	/**
+	 * @return whether the container was {@link #freeze() frozen}.
+	 */
+	public boolean isFrozen() {
+		return registry.isFrozen();
+	}
+
+	/**
+	 * @return the number of bindings and the estimated memory footprint of the registry of this container, excluding
+	 * the parent containers.
+	 */
+	public RegistryFootprint getRegistryFootprint() {
+		return registry.getFootprint();
+	}
+
+	/**
+	 * Destroys the replaced beans of a refresh like {@link #stop()} does, so that they release their resources before
+	 * the new beans are created. Failures are logged, they do not fail the refresh.
+	 */
+	private void destroyReplacedBeans(DependencyGraph replacedBeans) {
+		ShutdownReport report = DestroyMethodRunner.run(replacedBeans, destroyTimeoutNanos);
+		if (!report.isClean()) {
+			LOGGER.error("Destroying the replaced beans failed: {}", report);
+		} else {
+			LOGGER.debug("Destroyed the replaced beans: {}", report);
+		}
+	}
+
+	/**
+	 * Replaces the beans of the given classes after the classes changed, without rebuilding the container. Only the
+	 * changed classes are rescanned. Their old bindings are replaced by the new beans and only the beans that were
+	 * injected with one of the replaced bindings are injected again, so the cost of a refresh depends on the size of the
+	 * change rather than the size of the container. Beans that received a replaced bean through their constructor are
+	 * replaced as well. Classes that are no longer annotated with {@link Bean} are removed from the container.
+	 * <p>
+	 * The replaced beans are destroyed like by {@link #stop()}, dependents first and with the
+	 * {@link #setDestroyTimeout(long, TimeUnit) destroy timeout}, before the new beans are created.
+	 * <p>
+	 * Changed classes are usually loaded by a new class loader, which has to be set with
+	 * {@link #setClassLoader(ClassLoader)} before the refresh. Child containers are not refreshed.
+	 *
+	 * @param changedClassNames the binary names of the changed bean classes.
+	 * @throws ContainerFrozenException if the container is frozen. The container is left unchanged.
+	 */
+	public synchronized void refresh(String... changedClassNames) {
+		if (registry.isFrozen()) {
+			throw new ContainerFrozenException(Arrays.toString(changedClassNames));
+		}
+		LOGGER.info("Refreshing beans {}...", Arrays.toString(changedClassNames));
+
+		// Beans holding a replaced bean as a constructor argument can not be injected again, so they are replaced too.
+		Set<String> replacedClassNames = new LinkedHashSet<>(Arrays.asList(changedClassNames));
+		Set<String> replacedBindings = new HashSet<>();
+		Deque<String> pendingClassNames = new ArrayDeque<>(replacedClassNames);
+		while (!pendingClassNames.isEmpty()) {
+			ScannedBean scannedBean = scannedBeans.get(pendingClassNames.poll());
+			if (scannedBean == null) {
+				continue;
+			}
+			for (String bindingName : scannedBean.bindingNames) {
+				replacedBindings.add(bindingName);
+				for (BeanDefinition dependent : getDependents(bindingName)) {
+					if (hasConstructorDependency(dependent, bindingName) && replacedClassNames.add(dependent.getBeanClassName())) {
+						pendingClassNames.add(dependent.getBeanClassName());
+					}
+				}
+			}
+		}
+
+		// The dependencies between the replaced beans are only known while they are bound.
+		List<BeanDefinition> createdBeans = new ArrayList<>();
+		for (String className : replacedClassNames) {
+			ScannedBean scannedBean = scannedBeans.get(className);
+			if (scannedBean != null && scannedBean.definition.getInstanceIfCreated() != null) {
+				createdBeans.add(scannedBean.definition);
+			}
+		}
+		DependencyGraph destroyedBeans = createDependencyGraph(createdBeans);
+
+		Set<BeanDefinition> removedBeans = new HashSet<>();
+		for (String className : replacedClassNames) {
+			ScannedBean scannedBean = scannedBeans.remove(className);
+			if (scannedBean != null) {
+				for (String bindingName : scannedBean.bindingNames) {
+					registry.remove(bindingName, scannedBean.definition);
+				}
+				removeDependent(scannedBean.definition);
+				if (scannedBean.definition.getCachedBean() != null) {
+					beanCache.remove(scannedBean.definition.getCachedBean());
+				}
+				removedBeans.add(scannedBean.definition);
+			}
+		}
+
+		if (!createdBeans.isEmpty()) {
+			destroyReplacedBeans(destroyedBeans);
+		}
+
+		List<BeanIndexEntry> beanEntries = scanClasses(replacedClassNames);
+		Object[] instances = instantiateBeans(beanEntries);
+		List<BeanDefinition> addedBeans = new ArrayList<>();
+		Map<String, List<BeanDefinition>> supertypeBindings = new HashMap<>();
+		for (int i = 0; i < beanEntries.size(); i++) {
+			BeanDefinition beanDefinition = registerBean(beanEntries.get(i), instances[i], supertypeBindings);
+			if (beanDefinition != null) {
+				addedBeans.add(beanDefinition);
+				replacedBindings.addAll(getBindingNames(beanEntries.get(i)));
+			}
+		}
+		addSupertypeBindings(supertypeBindings);
+		if (!started) {
+			return;
+		}
+
+		// Beans created by their lifecycle are injected on creation.
+		createConstructorInjectedBeans();
+		List<BeanDefinition> eagerBeans = new ArrayList<>();
+		for (BeanDefinition addedBean : addedBeans) {
+			if (!addedBean.isLazy()) {
+				eagerBeans.add(addedBean);
+			}
+		}
+		Set<BeanDefinition> affectedBeans = new LinkedHashSet<>(eagerBeans);
+		for (String bindingName : replacedBindings) {
+			for (BeanDefinition dependent : getDependents(bindingName)) {
+				if (!removedBeans.contains(dependent)) {
+					affectedBeans.add(dependent);
+				}
+			}
+		}
+		LOGGER.debug("Injecting {} beans affected by the refresh.", affectedBeans.size());
+		for (BeanDefinition affectedBean : affectedBeans) {
+			Object bean = affectedBean.getInstanceIfCreated();
+			if (bean != null) {
+				injectBean(affectedBean, bean);
+			}
+		}
+		join(runInitMethods(eagerBeans));
 	}
 
 	/**
-	 * Registers a bean under the given name.
+	 * Registers a bean under the given name. This method may be called concurrently with lookups.
 	 *
 	 * @param beanName The name of the bean
 	 * @param bean     The bean to be registered.
 	 */
 	public void addBean(String beanName, Object bean) {
-		if (beans.containsKey(beanName)) {
-			throw new BeanAlreadyDefinedException(beanName);
-		}
-		Set<Object> beanObjects = new HashSet<>();
-		beanObjects.add(bean);
-		beans.put(beanName, beanObjects);
+		registry.add(beanName, BeanDefinition.ofInstance(bean != null ? bean.getClass().getName() : null, bean));
 	}
 
-	private void addInstanceToBean(String beanName, Object bean) {
-		Set<Object> beanObjects = beans.get(beanName);
-		if (beanObjects == null) {
-			beanObjects = new HashSet<>();
+	/**
+	 * Registers several beans under their names, either all of them or none. Registering a large number of beans this
+	 * way is cheaper than calling {@link #addBean(String, Object)} for each of them, since the registry is copied and
+	 * resolved beans are invalidated only once for the whole batch. Lookups see either none or all beans of the batch.
+	 *
+	 * @param beans The beans to be registered by their names.
+	 * @throws BeanAlreadyDefinedException listing all names of the batch that are already defined. No bean of the
+	 *                                     batch is registered then.
+	 */
+	public void addBeans(Map<String, ?> beans) {
+		Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>();
+		for (Map.Entry<String, ?> bean : beans.entrySet()) {
+			Object instance = bean.getValue();
+			beanDefinitions.put(bean.getKey(), BeanDefinition.ofInstance(instance != null ? instance.getClass().getName() : null, instance));
 		}
-		beanObjects.add(bean);
-		beans.put(beanName, beanObjects);
+		registry.addAll(beanDefinitions);
+	}
+
+	private void addInstanceToBean(String beanName, BeanDefinition beanDefinition) {
+		registry.addInstance(beanName, beanDefinition);
 	}
 
+	/**
+	 * Lazy beans that were not created yet are created by this method. Prototype beans are represented by a new
+	 * instance, pooled beans by their {@link BeanPool} and evicted cached beans by a new instance.
+	 *
+	 * @return an unmodifiable snapshot of all beans by the names they are registered under, including the beans of the
+	 * parent containers that are not overridden.
+	 */
 	public Map<String, Set<Object>> getBeans() {
-		return this.beans;
+		Map<String, Set<Object>> beans = parent != null ? new HashMap<>(parent.getBeans()) : new HashMap<>();
+		for (Map.Entry<String, Set<BeanDefinition>> binding : registry.asMap().entrySet()) {
+			Set<Object> beanObjects = new HashSet<>();
+			for (BeanDefinition beanDefinition : binding.getValue()) {
+				beanObjects.add(beanDefinition.getInstance());
+			}
+			beans.put(binding.getKey(), Collections.unmodifiableSet(beanObjects));
+		}
+		return Collections.unmodifiableMap(beans);
+	}
+
+	/**
+	 * @return the number of lazy beans registered in the container.
+	 */
+	public int getLazyBeanCount() {
+		return lazyBeans.size();
 	}
 
 	/**
+	 * @return the class names of all lazy beans that were never created.
+	 */
+	public List<String> getUncreatedLazyBeans() {
+		List<String> uncreatedBeans = new ArrayList<>();
+		for (BeanDefinition lazyBean : lazyBeans) {
+			if (!lazyBean.isCreated()) {
+				uncreatedBeans.add(lazyBean.getBeanClassName());
+			}
+		}
+		return uncreatedBeans;
+	}
+
+	/**
+	 * Resolved beans are cached by their type until the next registration, so that repeated lookups do not allocate.
+	 *
 	 * @param beanType the type of the {@link Bean}
 	 * @return the {@link Bean} registered by a given name.
 	 */
 	public <T> T getBeanByType(Class<T> beanType) {
+		ContainerMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordLookup();
+		}
+
+		long registryVersion = registry.getVersion();
+		ResolvedBean resolvedBean = resolvedBeansByType.get(beanType);
+		if (resolvedBean != null && resolvedBean.registryVersion == registryVersion) {
+			return beanType.cast(resolvedBean.bean);
+		}
+
 		String beanClassName = beanType.getName();
-		if (!beans.containsKey(beanClassName)) {
-			throw new NoSuitableBeanFoundException("No suitable bean was found for " + beanClassName + ".");
+		Set<BeanDefinition> beanDefinitions = registry.get(beanClassName);
+		if (beanDefinitions == null) {
+			// Beans of the parent are cached by the parent, which knows when they are outdated.
+			if (parent != null) {
+				return parent.getBeanByType(beanType);
+			}
+			throw noSuitableBeanFound("No suitable bean was found for " + beanClassName + ".");
 		}
-		Object result = retrieveBeanObject(beanClassName);
+		BeanDefinition beanDefinition = retrieveBeanDefinition(beanClassName, beanDefinitions);
+		Object result = beanDefinition.getInstance();
 		if (!beanType.isInstance(result)) {
-			throw new NoSuitableBeanFoundException("No suitable bean was found for " + beanClassName + ".");
-		} else {
-			return beanType.cast(result);
+			throw noSuitableBeanFound("No suitable bean was found for " + beanClassName + ".");
+		}
+		if (beanDefinition.isSingleton()) {
+			resolvedBeansByType.put(beanType, new ResolvedBean(registryVersion, result));
+		}
+		return beanType.cast(result);
+	}
+
+	/**
+	 * Like {@link #getBeanByType(Class)}, but a missing or ambiguous bean is not an error. Successful lookups are cached
+	 * like those of {@link #getBeanByType(Class)}, so that probing for optional beans neither throws nor allocates.
+	 *
+	 * @param beanType the type of the {@link Bean}
+	 * @return the bean registered under the name of the given type, or an empty optional if there is no such bean or
+	 * more than one without a {@link Primary} bean among them.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Optional<T> findBeanByType(Class<T> beanType) {
+		ContainerMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordLookup();
+		}
+
+		long registryVersion = registry.getVersion();
+		ResolvedBean resolvedBean = resolvedBeansByType.get(beanType);
+		if (resolvedBean == null || resolvedBean.registryVersion != registryVersion) {
+			Set<BeanDefinition> beanDefinitions = registry.get(beanType.getName());
+			if (beanDefinitions == null) {
+				return parent != null ? parent.findBeanByType(beanType) : noBeanFound();
+			}
+			BeanDefinition beanDefinition = selectBean(beanDefinitions);
+			Object result = beanDefinition != null ? beanDefinition.getInstance() : null;
+			if (!beanType.isInstance(result)) {
+				return noBeanFound();
+			}
+			resolvedBean = new ResolvedBean(registryVersion, result);
+			if (beanDefinition.isSingleton()) {
+				resolvedBeansByType.put(beanType, resolvedBean);
+			}
+		}
+		return (Optional<T>) resolvedBean.optionalBean;
+	}
+
+	/**
+	 * Like {@link #getBeanByNameAndType(String, Class)}, but a missing or ambiguous bean is not an error. Successful
+	 * lookups of singletons are cached by name until the next registration, so that they do not allocate.
+	 *
+	 * @return the bean registered under the given name, or an empty optional if there is no such bean of the given type
+	 * or more than one without a {@link Primary} bean among them.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Optional<T> findBeanByNameAndType(String beanName, Class<T> beanClass) {
+		ContainerMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordLookup();
 		}
+
+		long registryVersion = registry.getVersion();
+		ResolvedBean resolvedBean = resolvedBeansByName.get(beanName);
+		if (resolvedBean == null || resolvedBean.registryVersion != registryVersion) {
+			Set<BeanDefinition> beanDefinitions = registry.get(beanName);
+			if (beanDefinitions == null) {
+				return parent != null ? parent.findBeanByNameAndType(beanName, beanClass) : noBeanFound();
+			}
+			BeanDefinition beanDefinition = selectBean(beanDefinitions);
+			Object result = beanDefinition != null ? beanDefinition.getInstance() : null;
+			if (result == null) {
+				return noBeanFound();
+			}
+			resolvedBean = new ResolvedBean(registryVersion, result);
+			if (beanDefinition.isSingleton()) {
+				resolvedBeansByName.put(beanName, resolvedBean);
+			}
+		}
+		// The cast is safe, the optional holds an instance of the requested type.
+		return beanClass.isInstance(resolvedBean.bean) ? (Optional<T>) resolvedBean.optionalBean : noBeanFound();
+	}
+
+	/**
+	 * Lazy beans registered under the name of the type are created by this method. The result is cached until the next
+	 * registration.
+	 *
+	 * @param beanType the type of the beans.
+	 * @return an unmodifiable list of all beans registered under the name of the given type, e.g. all implementations
+	 * of an interface. Like all other lookups, the beans of the parent are only returned if there are none in this
+	 * container.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> getBeansOfType(Class<T> beanType) {
+		long registryVersion = registry.getVersion();
+		ResolvedBeans resolvedBeans = resolvedBeansOfType.get(beanType);
+		if (resolvedBeans != null && resolvedBeans.registryVersion == registryVersion) {
+			return (List<T>) resolvedBeans.beans;
+		}
+
+		Set<BeanDefinition> beanDefinitions = registry.get(beanType.getName());
+		if (beanDefinitions == null) {
+			return parent != null ? parent.getBeansOfType(beanType) : Collections.<T>emptyList();
+		}
+		Object[] beans = new Object[beanDefinitions.size()];
+		int beanCount = 0;
+		boolean singletons = true;
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			Object bean = beanDefinition.getInstance();
+			if (beanType.isInstance(bean)) {
+				beans[beanCount++] = bean;
+			}
+			singletons &= beanDefinition.isSingleton();
+		}
+		List<Object> beanList = Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(beans, beanCount)));
+		if (singletons) {
+			resolvedBeansOfType.put(beanType, new ResolvedBeans(registryVersion, beanList));
+		}
+		return (List<T>) beanList;
 	}
 
 	public <T> T getBeanByNameAndType(String beanName, Class<T> beanClass) {
-		if (!beans.containsKey(beanName)) {
-			throw new NoSuitableBeanFoundException("No bean with the name " + beanName + " was found");
+		ContainerMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordLookup();
 		}
 
-		Object result = retrieveBeanObject(beanName);
-		if (!beanClass.isInstance(result)) {
-			throw new NoSuitableBeanFoundException("No bean named " + beanName + " of type " + beanClass.getName() + " was found.");
+		long registryVersion = registry.getVersion();
+		ResolvedBean resolvedBean = resolvedBeansByName.get(beanName);
+		if (resolvedBean == null || resolvedBean.registryVersion != registryVersion) {
+			Set<BeanDefinition> beanDefinitions = registry.get(beanName);
+			if (beanDefinitions == null) {
+				if (parent != null) {
+					return parent.getBeanByNameAndType(beanName, beanClass);
+				}
+				throw noSuitableBeanFound("No bean with the name " + beanName + " was found");
+			}
+
+			BeanDefinition beanDefinition = retrieveBeanDefinition(beanName, beanDefinitions);
+			Object result = beanDefinition.getInstance();
+			if (result == null) {
+				throw noSuitableBeanFound("No bean named " + beanName + " of type " + beanClass.getName() + " was found.");
+			}
+			resolvedBean = new ResolvedBean(registryVersion, result);
+			if (beanDefinition.isSingleton()) {
+				resolvedBeansByName.put(beanName, resolvedBean);
+			}
+		}
+		if (!beanClass.isInstance(resolvedBean.bean)) {
+			throw noSuitableBeanFound("No bean named " + beanName + " of type " + beanClass.getName() + " was found.");
+		}
+		return beanClass.cast(resolvedBean.bean);
+	}
+
+	private BeanDefinition retrieveBeanDefinition(String beanName, Set<BeanDefinition> beanDefinitions) {
+		if (beanDefinitions.size() == 0) {
+			throw noSuitableBeanFound("No suitable bean was found for " + beanName + ".");
+		}
+		BeanDefinition beanDefinition = selectBean(beanDefinitions);
+		if (beanDefinition == null) {
+			throw new BeanConflictException(beanName);
+		}
+		if (beanDefinition.getScope() == Scope.POOLED) {
+			throw noSuitableBeanFound("The bean " + beanName + " is pooled and has to be borrowed from its BeanPool.");
 		}
-		return beanClass.cast(result);
+		return beanDefinition;
+	}
 
+	/**
+	 * @param beanType the type of a {@link Scope#POOLED pooled} bean.
+	 * @return the pool of the bean registered under the name of the given type.
+	 * @throws NoSuitableBeanFoundException if there is no pooled bean of the given type.
+	 */
+	public <T> BeanPool<T> getBeanPool(Class<T> beanType) {
+		return getBeanPool(beanType.getName(), beanType);
 	}
 
-	private Object retrieveBeanObject(String beanName) {
-		Set<Object> beanObjects = beans.get(beanName);
-		if (beanObjects.size() == 0) {
-			throw new NoSuitableBeanFoundException("No suitable bean was found for " + beanName + ".");
+	/**
+	 * @param beanName the name a {@link Scope#POOLED pooled} bean is registered under.
+	 * @param beanType the type of the bean.
+	 * @return the pool of the bean registered under the given name.
+	 * @throws NoSuitableBeanFoundException if there is no pooled bean with the given name and type.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> BeanPool<T> getBeanPool(String beanName, Class<T> beanType) {
+		Set<BeanDefinition> beanDefinitions = registry.get(beanName);
+		if (beanDefinitions == null) {
+			if (parent != null) {
+				return parent.getBeanPool(beanName, beanType);
+			}
+			throw noSuitableBeanFound("No pooled bean named " + beanName + " was found.");
 		}
-		if (beanObjects.size() > 1) {
+		BeanDefinition beanDefinition = selectBean(beanDefinitions);
+		if (beanDefinition == null) {
 			throw new BeanConflictException(beanName);
 		}
-		return beanObjects.toArray()[0];
+		if (beanDefinition.getScope() != Scope.POOLED || !isOfType(beanDefinition, beanType)) {
+			throw noSuitableBeanFound("No pooled bean named " + beanName + " of type " + beanType.getName() + " was found.");
+		}
+		return (BeanPool<T>) beanDefinition.getInstance();
+	}
+
+	private boolean isOfType(BeanDefinition beanDefinition, Class<?> beanType) {
+		try {
+			return beanType.isAssignableFrom(Class.forName(beanDefinition.getBeanClassName(), false, classLoader));
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return the only bean of the given definitions, the only {@link Primary} one if there are several, or
+	 * {@code null} if the beans are ambiguous.
+	 */
+	private static BeanDefinition selectBean(Set<BeanDefinition> beanDefinitions) {
+		if (beanDefinitions.size() == 1) {
+			return beanDefinitions.iterator().next();
+		}
+		BeanDefinition primaryBean = null;
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			if (beanDefinition.isPrimary()) {
+				if (primaryBean != null) {
+					return null;
+				}
+				primaryBean = beanDefinition;
+			}
+		}
+		return primaryBean;
+	}
+
+	private <T> Optional<T> noBeanFound() {
+		ContainerMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordLookupMiss();
+		}
+		return Optional.empty();
+	}
+
+	private NoSuitableBeanFoundException noSuitableBeanFound(String message) {
+		ContainerMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordLookupMiss();
+		}
+		return new NoSuitableBeanFoundException(message);
+	}
+
+	/**
+	 * @return whether the bean a dependency resolves to is a singleton. Missing and ambiguous beans count as singletons,
+	 * their resolution fails anyway.
+	 */
+	private boolean isSingleton(Dependency dependency) {
+		for (LWDIContainer container = this; container != null; container = container.parent) {
+			Set<BeanDefinition> beanDefinitions = container.registry.get(dependency.getDependencyName());
+			if (beanDefinitions != null) {
+				BeanDefinition beanDefinition = selectBean(beanDefinitions);
+				return beanDefinition == null || beanDefinition.isSingleton();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The {@link Supplier} injected for a provider {@link Dependency}. A singleton bean is resolved on the first call of
+	 * {@link #get()} and memoized, prototype beans are resolved on every call.
+	 */
+	private final class BeanSupplier implements Supplier<Object> {
+
+		private final Dependency dependency;
+
+		private volatile boolean resolved;
+		private Object bean;
+
+		private BeanSupplier(Dependency dependency) {
+			this.dependency = dependency;
+		}
+
+		@Override
+		public Object get() {
+			if (!resolved) {
+				if (!isSingleton(dependency)) {
+					return resolveBean(dependency);
+				}
+				synchronized (this) {
+					if (!resolved) {
+						bean = resolveBean(dependency);
+						resolved = true;
+					}
+				}
+			}
+			return bean;
+		}
+
+		@Override
+		public String toString() {
+			return "BeanSupplier[" + dependency.getDependencyName() + "]";
+		}
+	}
+
+	/**
+	 * A bean registered by a scan, together with all names it is bound to.
+	 */
+	private static final class ScannedBean {
+
+		private final BeanDefinition definition;
+		private final List<String> bindingNames;
+
+		private ScannedBean(BeanDefinition definition, List<String> bindingNames) {
+			this.definition = definition;
+			this.bindingNames = bindingNames;
+		}
+	}
+
+	/**
+	 * A bean resolved by type or name, valid as long as the registry is at the version it was resolved from.
+	 */
+	private static final class ResolvedBean {
+
+		private final long registryVersion;
+		private final Object bean;
+		private final Optional<Object> optionalBean;
+
+		private ResolvedBean(long registryVersion, Object bean) {
+			this.registryVersion = registryVersion;
+			this.bean = bean;
+			this.optionalBean = Optional.of(bean);
+		}
+	}
+
+	/**
+	 * The beans of a type, valid as long as the registry is at the version they were resolved from.
+	 */
+	private static final class ResolvedBeans {
+
+		private final long registryVersion;
+		private final List<Object> beans;
+
+		private ResolvedBeans(long registryVersion, List<Object> beans) {
+			this.registryVersion = registryVersion;
+			this.beans = beans;
+		}
 	}
 
 }
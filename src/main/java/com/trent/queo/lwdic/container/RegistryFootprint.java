@@ -0,0 +1,124 @@
+package com.trent.queo.lwdic.container;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The size of the bean registry of a {@link LWDIContainer}, returned by {@link LWDIContainer#getRegistryFootprint()}.
+ * <p>
+ * The memory footprint is estimated for a 64-bit JVM with compressed references. It covers the hash tables and the sets
+ * of the registry, but not the bean names and the beans, which are the same before and after
+ * {@link LWDIContainer#freeze() freezing}.
+ */
+public final class RegistryFootprint {
+
+	private static final int OBJECT_HEADER = 12;
+	private static final int ARRAY_HEADER = 16;
+	private static final int REFERENCE = 4;
+
+	// ConcurrentHashMap with its int and long fields and view references.
+	private static final int CONCURRENT_HASH_MAP = 64;
+	// ConcurrentHashMap.Node and HashMap.Node: hash, key, value and next.
+	private static final int HASH_NODE = align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+	// Collections.singleton and Collections.unmodifiableSet wrap one reference.
+	private static final int WRAPPER = align(OBJECT_HEADER + REFERENCE);
+	// HashSet and its HashMap.
+	private static final int HASH_SET = WRAPPER + align(OBJECT_HEADER + 4 * REFERENCE + 4 * 4);
+	// FrozenBindings with its two arrays, mask and size.
+	private static final int FROZEN_BINDINGS = align(OBJECT_HEADER + 4 * REFERENCE + 2 * 4);
+
+	private final boolean frozen;
+	private final int bindingCount;
+	private final long beanDefinitionReferences;
+	private final long estimatedBytes;
+
+	RegistryFootprint(boolean frozen, int bindingCount, long beanDefinitionReferences, long estimatedBytes) {
+		this.frozen = frozen;
+		this.bindingCount = bindingCount;
+		this.beanDefinitionReferences = beanDefinitionReferences;
+		this.estimatedBytes = estimatedBytes;
+	}
+
+	static long estimateLiveBytes(Map<String, Set<BeanDefinition>> bindings) {
+		int tableSize = tableSizeFor((int) (bindings.size() / 0.75f) + 1);
+		long bytes = CONCURRENT_HASH_MAP + referenceArray(tableSize) + (long) bindings.size() * HASH_NODE;
+		for (Set<BeanDefinition> beanDefinitions : bindings.values()) {
+			int size = beanDefinitions.size();
+			if (size == 1) {
+				bytes += WRAPPER;
+			} else {
+				// The unmodifiable wrapper of a HashSet copied from the previous binding.
+				int setTableSize = tableSizeFor(Math.max((int) (size / 0.75f) + 1, 16));
+				bytes += WRAPPER + HASH_SET + referenceArray(setTableSize) + (long) size * HASH_NODE;
+			}
+		}
+		return bytes;
+	}
+
+	static long estimateFrozenBytes(FrozenBindings bindings) {
+		long bytes = FROZEN_BINDINGS + 2 * referenceArray(bindings.getCapacity());
+		for (int slot = 0; slot < bindings.getCapacity(); slot++) {
+			Set<BeanDefinition> beanDefinitions = bindings.getSlot(slot);
+			if (beanDefinitions == null) {
+				continue;
+			}
+			bytes += WRAPPER;
+			if (beanDefinitions.size() > 1) {
+				bytes += referenceArray(beanDefinitions.size());
+			}
+		}
+		return bytes;
+	}
+
+	// The power of two table length hash maps use for the given capacity.
+	private static int tableSizeFor(int capacity) {
+		return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+	private static long referenceArray(int length) {
+		return align(ARRAY_HEADER + (long) length * REFERENCE);
+	}
+
+	private static int align(int bytes) {
+		return (bytes + 7) & ~7;
+	}
+
+	private static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+
+	/**
+	 * @return whether the registry was frozen.
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * @return the number of names beans are registered under.
+	 */
+	public int getBindingCount() {
+		return bindingCount;
+	}
+
+	/**
+	 * @return the number of bean definitions bound to all names. A bean is counted once for every name it is registered
+	 * under.
+	 */
+	public long getBeanDefinitionReferences() {
+		return beanDefinitionReferences;
+	}
+
+	/**
+	 * @return the estimated memory footprint of the registry in bytes.
+	 */
+	public long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return (frozen ? "frozen" : "live") + " registry: " + bindingCount + " bindings, " + beanDefinitionReferences
+				+ " bean references, ~" + estimatedBytes + " bytes";
+	}
+}
@@ -0,0 +1,152 @@
+package com.trent.queo.lwdic.container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of {@link LWDIContainer#stop()}: how long the destroy hooks of every bean took and whether they succeeded.
+ * Beans without destroy hooks are not listed.
+ */
+public final class ShutdownReport {
+
+	/**
+	 * The outcome of the destroy hooks of a bean.
+	 */
+	public enum Outcome {
+		/**
+		 * All destroy hooks returned normally.
+		 */
+		DESTROYED,
+		/**
+		 * A destroy hook threw an exception.
+		 */
+		FAILED,
+		/**
+		 * The destroy hooks did not return within the timeout. They keep running in the background, but the beans the
+		 * bean depends on are destroyed without waiting for them.
+		 */
+		TIMED_OUT
+	}
+
+	/**
+	 * The shutdown of a single bean.
+	 */
+	public static final class BeanShutdown {
+
+		private final String beanClassName;
+		private final long durationNanos;
+		private final Outcome outcome;
+		private final Throwable failure;
+
+		BeanShutdown(String beanClassName, long durationNanos, Outcome outcome, Throwable failure) {
+			this.beanClassName = beanClassName;
+			this.durationNanos = durationNanos;
+			this.outcome = outcome;
+			this.failure = failure;
+		}
+
+		public String getBeanClassName() {
+			return beanClassName;
+		}
+
+		/**
+		 * @return the time the destroy hooks of the bean took, or the timeout if they timed out.
+		 */
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		public Outcome getOutcome() {
+			return outcome;
+		}
+
+		/**
+		 * @return the exception of a failed destroy hook or {@code null}.
+		 */
+		public Throwable getFailure() {
+			return failure;
+		}
+
+		@Override
+		public String toString() {
+			return beanClassName + ": " + outcome + " in " + TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms";
+		}
+	}
+
+	private final List<BeanShutdown> beanShutdowns;
+	private final long totalNanos;
+
+	ShutdownReport(List<BeanShutdown> beanShutdowns, long totalNanos) {
+		this.beanShutdowns = Collections.unmodifiableList(new ArrayList<>(beanShutdowns));
+		this.totalNanos = totalNanos;
+	}
+
+	/**
+	 * @return the shutdowns of all beans with destroy hooks, in the order they finished.
+	 */
+	public List<BeanShutdown> getBeanShutdowns() {
+		return beanShutdowns;
+	}
+
+	/**
+	 * @return the shutdown of the bean with the given class or {@code null} if the bean had no destroy hooks.
+	 */
+	public BeanShutdown getBeanShutdown(String beanClassName) {
+		for (BeanShutdown beanShutdown : beanShutdowns) {
+			if (beanShutdown.getBeanClassName().equals(beanClassName)) {
+				return beanShutdown;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the exceptions of all failed destroy hooks.
+	 */
+	public List<Throwable> getFailures() {
+		List<Throwable> failures = new ArrayList<>();
+		for (BeanShutdown beanShutdown : beanShutdowns) {
+			if (beanShutdown.getOutcome() == Outcome.FAILED) {
+				failures.add(beanShutdown.getFailure());
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * @return whether the destroy hooks of all beans returned normally within their timeout.
+	 */
+	public boolean isClean() {
+		for (BeanShutdown beanShutdown : beanShutdowns) {
+			if (beanShutdown.getOutcome() != Outcome.DESTROYED) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the time the whole shutdown took.
+	 */
+	public long getTotalTimeNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * @return a summary with one line per bean, the slowest beans first.
+	 */
+	@Override
+	public String toString() {
+		List<BeanShutdown> slowestFirst = new ArrayList<>(beanShutdowns);
+		slowestFirst.sort(Comparator.comparingLong(BeanShutdown::getDurationNanos).reversed());
+		StringBuilder report = new StringBuilder("Stopped ").append(beanShutdowns.size()).append(" beans in ")
+				.append(TimeUnit.NANOSECONDS.toMillis(totalNanos)).append("ms");
+		for (BeanShutdown beanShutdown : slowestFirst) {
+			report.append(System.lineSeparator()).append("  ").append(beanShutdown);
+		}
+		return report.toString();
+	}
+}
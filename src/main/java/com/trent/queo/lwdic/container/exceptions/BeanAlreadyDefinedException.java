@@ -1,5 +1,7 @@
 package com.trent.queo.lwdic.container.exceptions;
 
+import java.util.Collection;
+
 /**
  * Thrown by {@link com.trent.queo.lwdic.container.LWDIContainer} when attempting to use the same bean name twice.
  */
@@ -8,4 +10,8 @@ public class BeanAlreadyDefinedException extends RuntimeException {
 	public BeanAlreadyDefinedException(String beanName) {
 		super("Cannot create bean '" + beanName + "' \n.A bean with the name '" + beanName + "' is already defined.");
 	}
+
+	public BeanAlreadyDefinedException(Collection<String> beanNames) {
+		super("Cannot create beans '" + String.join("', '", beanNames) + "' \n.Beans with these names are already defined.");
+	}
 }
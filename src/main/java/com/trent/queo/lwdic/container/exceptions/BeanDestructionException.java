@@ -0,0 +1,19 @@
+package com.trent.queo.lwdic.container.exceptions;
+
+import java.util.Collection;
+
+/**
+ * Thrown, when a {@link com.trent.queo.lwdic.annotations.Destroy} method or the {@link AutoCloseable#close()} method of
+ * a bean fails. If several beans fail during {@link com.trent.queo.lwdic.container.LWDIContainer#close()}, the failures
+ * are reported together as suppressed exceptions.
+ */
+public class BeanDestructionException extends RuntimeException {
+	public BeanDestructionException(String beanName, Throwable cause) {
+		super("The destruction of bean " + beanName + " failed.", cause);
+	}
+
+	public BeanDestructionException(Collection<? extends Throwable> failures) {
+		super("The destruction of " + failures.size() + " bean(s) failed.");
+		failures.forEach(this::addSuppressed);
+	}
+}
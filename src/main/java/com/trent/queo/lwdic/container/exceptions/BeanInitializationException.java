@@ -0,0 +1,19 @@
+package com.trent.queo.lwdic.container.exceptions;
+
+import java.util.Collection;
+
+/**
+ * Thrown, when an {@link com.trent.queo.lwdic.annotations.Init} method of a bean fails. If the init methods of several
+ * beans fail during {@link com.trent.queo.lwdic.container.LWDIContainer#start()}, the failures are reported together
+ * as suppressed exceptions.
+ */
+public class BeanInitializationException extends RuntimeException {
+	public BeanInitializationException(String beanName, Throwable cause) {
+		super("The initialization of bean " + beanName + " failed.", cause);
+	}
+
+	public BeanInitializationException(Collection<? extends Throwable> failures) {
+		super("The initialization of " + failures.size() + " bean(s) failed.");
+		failures.forEach(this::addSuppressed);
+	}
+}
@@ -0,0 +1,12 @@
+package com.trent.queo.lwdic.container.exceptions;
+
+/**
+ * Thrown, when beans of the {@link com.trent.queo.lwdic.container.LWDIContainer} depend on each other through their
+ * constructors, so that none of them can be created first, or when prototype beans depend on each other, so that
+ * every instance would need a new instance of itself.
+ */
+public class CircularDependencyException extends RuntimeException {
+	public CircularDependencyException(String beanName) {
+		super("Bean " + beanName + " is part of a circular dependency that can not be resolved.");
+	}
+}
@@ -0,0 +1,12 @@
+package com.trent.queo.lwdic.container.exceptions;
+
+/**
+ * Thrown by {@link com.trent.queo.lwdic.container.LWDIContainer} when attempting to register or replace beans after the
+ * container was frozen.
+ */
+public class ContainerFrozenException extends RuntimeException {
+
+	public ContainerFrozenException(String beanName) {
+		super("Cannot register bean '" + beanName + "'. The container is frozen.");
+	}
+}
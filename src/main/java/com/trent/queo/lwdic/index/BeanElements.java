@@ -0,0 +1,84 @@
+package com.trent.queo.lwdic.index;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Named;
+import com.trent.queo.lwdic.annotations.Primary;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Describes {@link Bean} classes seen by an annotation processor the same way the classpath scan describes them.
+ */
+public final class BeanElements {
+
+	private BeanElements() {
+	}
+
+	/**
+	 * @param elements    the element utilities of the processing environment.
+	 * @param beanElement a class annotated with {@link Bean}.
+	 * @return the index entry of the bean.
+	 */
+	public static BeanIndexEntry createEntry(Elements elements, TypeElement beanElement) {
+		Named named = beanElement.getAnnotation(Named.class);
+		boolean abstractType = beanElement.getKind() == ElementKind.INTERFACE
+				|| beanElement.getModifiers().contains(Modifier.ABSTRACT);
+
+		List<String> superclassNames = new ArrayList<>();
+		for (TypeElement superclass = asTypeElement(beanElement.getSuperclass()); superclass != null && !isObject(superclass);
+			 superclass = asTypeElement(superclass.getSuperclass())) {
+			superclassNames.add(binaryName(elements, superclass));
+		}
+
+		// Like the classpath scan, a bean is registered for the interfaces of its superclasses and their super interfaces.
+		Set<String> interfaceNames = new LinkedHashSet<>();
+		for (TypeElement type = beanElement; type != null; type = asTypeElement(type.getSuperclass())) {
+			collectInterfaces(elements, type, interfaceNames);
+		}
+
+		Bean bean = beanElement.getAnnotation(Bean.class);
+		return new BeanIndexEntry(binaryName(elements, beanElement), named != null ? named.name() : null, bean.injectable(),
+				bean.lazy(), beanElement.getAnnotation(Primary.class) != null, abstractType, bean.scope(), bean.poolSize(),
+				superclassNames, new ArrayList<>(interfaceNames));
+	}
+
+	private static void collectInterfaces(Elements elements, TypeElement type, Set<String> interfaceNames) {
+		for (TypeMirror interfaceType : type.getInterfaces()) {
+			TypeElement interfaceElement = asTypeElement(interfaceType);
+			if (interfaceElement != null && interfaceNames.add(binaryName(elements, interfaceElement))) {
+				collectInterfaces(elements, interfaceElement, interfaceNames);
+			}
+		}
+	}
+
+	/**
+	 * @return the element of a class or interface type, or {@code null} for all other types.
+	 */
+	public static TypeElement asTypeElement(TypeMirror type) {
+		if (type.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		return (TypeElement) ((DeclaredType) type).asElement();
+	}
+
+	/**
+	 * @return the name of the type as returned by {@link Class#getName()}.
+	 */
+	public static String binaryName(Elements elements, TypeElement type) {
+		return elements.getBinaryName(type).toString();
+	}
+
+	private static boolean isObject(TypeElement type) {
+		return type.getQualifiedName().contentEquals(Object.class.getName());
+	}
+}
@@ -0,0 +1,221 @@
+package com.trent.queo.lwdic.index;
+
+import com.trent.queo.lwdic.annotations.Scope;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * The bean index written by the {@link BeanIndexProcessor} at compile time. It allows the
+ * {@link com.trent.queo.lwdic.container.LWDIContainer} to register beans without scanning the classpath.
+ * <p>
+ * Every jar or classes directory may contain one index at {@link #INDEX_LOCATION}. The index is a tab separated text
+ * file with two kinds of lines:
+ * <pre>
+ * package	&lt;package name&gt;
+ * bean	&lt;class name&gt;	&lt;name&gt;	&lt;injectable&gt;	&lt;lazy&gt;	&lt;abstract&gt;	&lt;superclass,superclass,...&gt;	&lt;interface,interface,...&gt;	&lt;primary&gt;	&lt;scope&gt;	&lt;pool size&gt;
+ * </pre>
+ * The {@code package} lines list every package that was compiled together with the index, so that packages without
+ * any beans are still known to be covered. Empty columns stand for {@code null} values. The superclasses are listed
+ * from the direct superclass up. Indexes written by older versions list only the direct superclass and have no
+ * {@code primary}, {@code scope} and {@code pool size} columns.
+ * <p>
+ * An index only describes the jar or classes directory it was found in. Other classpath roots may contain classes of
+ * the same packages, so they still have to be scanned, see {@link #isIndexedRoot(String)}.
+ */
+public final class BeanIndex {
+
+	public static final String INDEX_LOCATION = "META-INF/lwdic/bean.index";
+
+	private static final String PACKAGE_RECORD = "package";
+	private static final String BEAN_RECORD = "bean";
+	private static final String SEPARATOR = "\t";
+	private static final String LIST_SEPARATOR = ",";
+
+	private final Set<String> packageNames;
+	private final List<BeanIndexEntry> entries;
+	private final Set<Path> indexedRoots;
+
+	BeanIndex(Set<String> packageNames, List<BeanIndexEntry> entries, Set<Path> indexedRoots) {
+		this.packageNames = packageNames;
+		this.entries = entries;
+		this.indexedRoots = indexedRoots;
+	}
+
+	/**
+	 * Reads and merges all indexes visible to the given class loader.
+	 *
+	 * @param classLoader the class loader used to locate the index resources.
+	 * @return the merged index or {@code null} if no index is present.
+	 */
+	public static BeanIndex load(ClassLoader classLoader) {
+		Set<String> packageNames = new HashSet<>();
+		List<BeanIndexEntry> entries = new ArrayList<>();
+		// Most beans share their supertypes, whose names are only kept once.
+		Map<String, String> typeNames = new HashMap<>();
+		Set<Path> indexedRoots = new HashSet<>();
+		boolean found = false;
+		try {
+			Enumeration<URL> resources = classLoader.getResources(INDEX_LOCATION);
+			while (resources.hasMoreElements()) {
+				URL resource = resources.nextElement();
+				found = true;
+				read(resource, packageNames, entries, typeNames);
+				Path root = getClasspathRoot(resource);
+				if (root != null) {
+					indexedRoots.add(root);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to read the bean index.", e);
+		}
+		return found ? new BeanIndex(packageNames, entries, indexedRoots) : null;
+	}
+
+	/**
+	 * @return the jar file or classes directory containing the given index resource, or {@code null} if the resource
+	 * is not located in the file system.
+	 */
+	private static Path getClasspathRoot(URL resource) {
+		try {
+			if ("jar".equals(resource.getProtocol())) {
+				String file = resource.getFile();
+				int separator = file.indexOf("!/");
+				return separator < 0 ? null : normalize(Paths.get(new URI(file.substring(0, separator))));
+			}
+			if ("file".equals(resource.getProtocol())) {
+				Path root = Paths.get(resource.toURI());
+				for (int i = 0; i < INDEX_LOCATION.split("/").length && root != null; i++) {
+					root = root.getParent();
+				}
+				return root != null ? normalize(root) : null;
+			}
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			// The beans of the root are scanned like the beans of roots without an index.
+		}
+		return null;
+	}
+
+	private static Path normalize(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	private static void read(URL resource, Set<String> packageNames, List<BeanIndexEntry> entries,
+							 Map<String, String> typeNames) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] columns = line.split(SEPARATOR, -1);
+				if (PACKAGE_RECORD.equals(columns[0]) && columns.length == 2) {
+					packageNames.add(columns[1]);
+				} else if (BEAN_RECORD.equals(columns[0]) && (columns.length == 8 || columns.length == 9 || columns.length == 11)) {
+					boolean scoped = columns.length == 11;
+					entries.add(new BeanIndexEntry(columns[1], emptyToNull(columns[2]), Boolean.parseBoolean(columns[3]),
+							Boolean.parseBoolean(columns[4]), columns.length > 8 && Boolean.parseBoolean(columns[8]),
+							Boolean.parseBoolean(columns[5]), scoped ? Scope.valueOf(columns[9]) : Scope.SINGLETON,
+							scoped ? Integer.parseInt(columns[10]) : 0, splitList(columns[6], typeNames), splitList(columns[7], typeNames)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes an index in the format expected by {@link #load(ClassLoader)}.
+	 *
+	 * @param writer       the target of the index.
+	 * @param packageNames the packages covered by the index.
+	 * @param entries      the beans of the index.
+	 */
+	public static void write(Writer writer, Collection<String> packageNames, Collection<BeanIndexEntry> entries) throws IOException {
+		for (String packageName : packageNames) {
+			writer.write(PACKAGE_RECORD + SEPARATOR + packageName + "\n");
+		}
+		for (BeanIndexEntry entry : entries) {
+			writer.write(BEAN_RECORD + SEPARATOR + entry.getClassName()
+					+ SEPARATOR + nullToEmpty(entry.getName())
+					+ SEPARATOR + entry.isInjectable()
+					+ SEPARATOR + entry.isLazy()
+					+ SEPARATOR + entry.isAbstractType()
+					+ SEPARATOR + String.join(LIST_SEPARATOR, entry.getSuperclassNames())
+					+ SEPARATOR + String.join(LIST_SEPARATOR, entry.getInterfaceNames())
+					+ SEPARATOR + entry.isPrimary()
+					+ SEPARATOR + entry.getScope()
+					+ SEPARATOR + entry.getPoolSize() + "\n");
+		}
+	}
+
+	/**
+	 * A package is covered by the index if at least one class of the package or one of its sub packages was compiled
+	 * together with one of the merged indexes. The beans of the package in classpath roots without an index still have
+	 * to be scanned.
+	 *
+	 * @param packageName the name of a package.
+	 * @return whether the index holds beans or packages of the given package.
+	 */
+	public boolean covers(String packageName) {
+		for (String indexedPackage : packageNames) {
+			if (indexedPackage.equals(packageName) || indexedPackage.startsWith(packageName + ".")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * An indexed root is fully described by its index, so its classes do not have to be scanned.
+	 *
+	 * @param classpathRoot the path of a jar file or classes directory on the classpath.
+	 * @return whether the given jar file or classes directory contains one of the merged indexes.
+	 */
+	public boolean isIndexedRoot(String classpathRoot) {
+		try {
+			return indexedRoots.contains(normalize(Paths.get(classpathRoot)));
+		} catch (InvalidPathException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param packageName the name of a package.
+	 * @return all beans of the indexed roots located in the given package or one of its sub packages.
+	 */
+	public List<BeanIndexEntry> getEntries(String packageName) {
+		List<BeanIndexEntry> result = new ArrayList<>();
+		for (BeanIndexEntry entry : entries) {
+			if (entry.isInPackage(packageName)) {
+				result.add(entry);
+			}
+		}
+		return result;
+	}
+
+	private static List<String> splitList(String column, Map<String, String> typeNames) {
+		if (column.isEmpty()) {
+			return Collections.emptyList();
+		}
+		String[] names = column.split(LIST_SEPARATOR);
+		for (int i = 0; i < names.length; i++) {
+			names[i] = typeNames.computeIfAbsent(names[i], name -> name);
+		}
+		return Arrays.asList(names);
+	}
+
+	private static String emptyToNull(String column) {
+		return column.isEmpty() ? null : column;
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+}
@@ -0,0 +1,137 @@
+package com.trent.queo.lwdic.index;
+
+import com.trent.queo.lwdic.annotations.Scope;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes a single class annotated with {@link com.trent.queo.lwdic.annotations.Bean}, independent of whether it was
+ * discovered by the compile-time {@link BeanIndex} or by a classpath scan.
+ */
+public final class BeanIndexEntry {
+
+	private final String className;
+	private final String name;
+	private final boolean injectable;
+	private final boolean lazy;
+	private final boolean primary;
+	private final boolean abstractType;
+	private final Scope scope;
+	private final int poolSize;
+	private final List<String> superclassNames;
+	private final List<String> interfaceNames;
+	private final List<String> supertypeNames;
+
+	/**
+	 * @param className      the binary name of the bean class.
+	 * @param name           the name given by {@link com.trent.queo.lwdic.annotations.Named}, or {@code null}.
+	 * @param injectable     the value of {@link com.trent.queo.lwdic.annotations.Bean#injectable()}.
+	 * @param lazy           the value of {@link com.trent.queo.lwdic.annotations.Bean#lazy()}.
+	 * @param primary        whether the bean class is annotated with {@link com.trent.queo.lwdic.annotations.Primary}.
+	 * @param abstractType   whether the bean class is an interface or an abstract class.
+	 * @param superclassNames the binary names of all superclasses but {@link Object}, the direct superclass first.
+	 * @param interfaceNames  the binary names of all interfaces implemented by the bean class.
+	 */
+	public BeanIndexEntry(String className, String name, boolean injectable, boolean lazy, boolean primary,
+						  boolean abstractType, List<String> superclassNames, List<String> interfaceNames) {
+		this(className, name, injectable, lazy, primary, abstractType, Scope.SINGLETON, 0, superclassNames, interfaceNames);
+	}
+
+	/**
+	 * @param scope    the value of {@link com.trent.queo.lwdic.annotations.Bean#scope()}.
+	 * @param poolSize the value of {@link com.trent.queo.lwdic.annotations.Bean#poolSize()}, only used by pooled beans.
+	 * @see #BeanIndexEntry(String, String, boolean, boolean, boolean, boolean, List, List)
+	 */
+	public BeanIndexEntry(String className, String name, boolean injectable, boolean lazy, boolean primary,
+						  boolean abstractType, Scope scope, int poolSize, List<String> superclassNames,
+						  List<String> interfaceNames) {
+		this.className = className;
+		this.name = name;
+		this.injectable = injectable;
+		this.lazy = lazy;
+		this.primary = primary;
+		this.abstractType = abstractType;
+		this.scope = scope;
+		this.poolSize = poolSize;
+		this.superclassNames = Collections.unmodifiableList(superclassNames);
+		this.interfaceNames = Collections.unmodifiableList(interfaceNames);
+
+		String[] supertypeNames = new String[interfaceNames.size() + superclassNames.size()];
+		int i = 0;
+		for (String interfaceName : interfaceNames) {
+			supertypeNames[i++] = interfaceName;
+		}
+		for (String superclassName : superclassNames) {
+			supertypeNames[i++] = superclassName;
+		}
+		this.supertypeNames = Collections.unmodifiableList(Arrays.asList(supertypeNames));
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isInjectable() {
+		return injectable;
+	}
+
+	public boolean isLazy() {
+		return lazy;
+	}
+
+	public boolean isPrimary() {
+		return primary;
+	}
+
+	public boolean isAbstractType() {
+		return abstractType;
+	}
+
+	public Scope getScope() {
+		return scope;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * @return the binary name of the direct superclass, or {@code null} for {@link Object}.
+	 */
+	public String getSuperclassName() {
+		return superclassNames.isEmpty() ? null : superclassNames.get(0);
+	}
+
+	/**
+	 * @return the binary names of all superclasses but {@link Object}, the direct superclass first.
+	 */
+	public List<String> getSuperclassNames() {
+		return superclassNames;
+	}
+
+	public List<String> getInterfaceNames() {
+		return interfaceNames;
+	}
+
+	/**
+	 * @return the binary names of all interfaces and superclasses of the bean class, which the bean is registered
+	 * under in addition to its own name.
+	 */
+	public List<String> getSupertypeNames() {
+		return supertypeNames;
+	}
+
+	/**
+	 * @param packageName the name of a package.
+	 * @return whether the bean class is located in the given package or one of its sub packages.
+	 */
+	public boolean isInPackage(String packageName) {
+		return className.startsWith(packageName + ".");
+	}
+}
@@ -0,0 +1,64 @@
+package com.trent.queo.lwdic.index;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Annotation processor that writes the {@link BeanIndex} for all classes annotated with {@link Bean} of a compilation.
+ * The processor is registered as a service and runs whenever this library is on the compiler's classpath.
+ */
+@SupportedAnnotationTypes("*")
+public class BeanIndexProcessor extends AbstractProcessor {
+
+	private final Set<String> packageNames = new TreeSet<>();
+	private final Map<String, BeanIndexEntry> entries = new TreeMap<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element rootElement : roundEnv.getRootElements()) {
+			PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(rootElement);
+			packageNames.add(packageElement.getQualifiedName().toString());
+		}
+		for (Element element : roundEnv.getElementsAnnotatedWith(Bean.class)) {
+			if (element instanceof TypeElement) {
+				BeanIndexEntry entry = BeanElements.createEntry(processingEnv.getElementUtils(), (TypeElement) element);
+				entries.put(entry.getClassName(), entry);
+			}
+		}
+		if (roundEnv.processingOver() && !entries.isEmpty()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void writeIndex() {
+		try {
+			FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", BeanIndex.INDEX_LOCATION);
+			try (Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+				BeanIndex.write(writer, packageNames, entries.values());
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write the bean index: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package com.trent.queo.lwdic.index;
+
+import com.trent.queo.lwdic.annotations.Scope;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A persistent cache of classpath scan results, so that warm restarts of a deployment do not have to scan the
+ * classpath again.
+ * <p>
+ * The beans of every scanned package are stored in a binary file in the cache directory, together with a fingerprint
+ * of the classpath the scan was based on. The fingerprint covers the path, size and modification time of every jar on
+ * the classpath and of every class file in classpath directories. Class files outside of the scanned package are
+ * covered too, since the cached beans list their supertypes, which may be declared in any package. A cache file whose
+ * fingerprint does not match the current classpath is ignored and should be rewritten after a new scan.
+ * <p>
+ * A cache file consists of a header, a table of all distinct strings and the beans, whose strings are stored as
+ * indexes into the string table:
+ * <pre>
+ * int magic, int version, int fingerprint length, byte[] fingerprint, int package name
+ * int string count, (int length, byte[] utf-8)...
+ * int bean count, (int class name, int name, byte flags, int pool size, int superclass count, int superclass...,
+ *                  int interface count, int interface...)...
+ * </pre>
+ * A missing string is stored as {@code -1}.
+ */
+public final class ScanCache {
+
+	private static final int MAGIC = 0x4c574443;
+	private static final int VERSION = 4;
+	private static final String FILE_SUFFIX = ".scan";
+
+	private static final int INJECTABLE = 1;
+	private static final int LAZY = 2;
+	private static final int ABSTRACT_TYPE = 4;
+	private static final int PRIMARY = 8;
+	private static final int PROTOTYPE = 16;
+	private static final int POOLED = 32;
+	private static final int CACHED = 64;
+
+	private final Path directory;
+
+	/**
+	 * @param directory the directory of the cache files, created on the first write.
+	 */
+	public ScanCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Computes the fingerprint of the classpath that scans depend on. The fingerprint is the same for all packages.
+	 *
+	 * @param classLoader the class loader used by the scan.
+	 * @return the fingerprint to be passed to {@link #read(String, byte[])} and {@link #write(String, byte[], List)}.
+	 */
+	public static byte[] fingerprint(ClassLoader classLoader) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported by the JVM.", e);
+		}
+		for (Path classpathEntry : getClasspathEntries(classLoader)) {
+			update(digest, classpathEntry);
+			if (Files.isDirectory(classpathEntry)) {
+				List<Path> classFiles = new ArrayList<>();
+				try (Stream<Path> paths = Files.walk(classpathEntry)) {
+					paths.filter(path -> path.toString().endsWith(".class")).forEach(classFiles::add);
+				}
+				Collections.sort(classFiles);
+				for (Path classFile : classFiles) {
+					update(digest, classFile);
+				}
+			}
+		}
+		return digest.digest();
+	}
+
+	private static Set<Path> getClasspathEntries(ClassLoader classLoader) {
+		Set<Path> classpathEntries = new LinkedHashSet<>();
+		for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+			if (loader instanceof URLClassLoader) {
+				for (URL url : ((URLClassLoader) loader).getURLs()) {
+					try {
+						classpathEntries.add(Paths.get(url.toURI()));
+					} catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+						// Entries that are not files are not covered by the fingerprint.
+					}
+				}
+			}
+		}
+		for (String classpathEntry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+			if (!classpathEntry.isEmpty()) {
+				classpathEntries.add(Paths.get(classpathEntry).toAbsolutePath());
+			}
+		}
+		return classpathEntries;
+	}
+
+	private static void update(MessageDigest digest, Path file) throws IOException {
+		digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+		ByteBuffer attributes = ByteBuffer.allocate(2 * Long.BYTES);
+		if (Files.exists(file)) {
+			BasicFileAttributes fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+			attributes.putLong(fileAttributes.size()).putLong(fileAttributes.lastModifiedTime().toMillis());
+		}
+		digest.update(attributes.array());
+	}
+
+	/**
+	 * @param packageName the scanned package.
+	 * @param fingerprint the fingerprint of the current classpath.
+	 * @return the cached beans of the package or {@code null} if there is no cache file for the given fingerprint.
+	 */
+	public List<BeanIndexEntry> read(String packageName, byte[] fingerprint) throws IOException {
+		Path file = getFile(packageName);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return null;
+			}
+			byte[] cachedFingerprint = new byte[buffer.getInt()];
+			buffer.get(cachedFingerprint);
+			if (!Arrays.equals(fingerprint, cachedFingerprint)) {
+				return null;
+			}
+
+			int packageNameIndex = buffer.getInt();
+			String[] strings = new String[buffer.getInt()];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			if (!packageName.equals(strings[packageNameIndex])) {
+				return null;
+			}
+
+			int beanCount = buffer.getInt();
+			List<BeanIndexEntry> entries = new ArrayList<>();
+			for (int bean = 0; bean < beanCount; bean++) {
+				String className = strings[buffer.getInt()];
+				String name = getString(strings, buffer.getInt());
+				byte flags = buffer.get();
+				int poolSize = buffer.getInt();
+				String[] superclassNames = new String[buffer.getInt()];
+				for (int i = 0; i < superclassNames.length; i++) {
+					superclassNames[i] = strings[buffer.getInt()];
+				}
+				String[] interfaceNames = new String[buffer.getInt()];
+				for (int i = 0; i < interfaceNames.length; i++) {
+					interfaceNames[i] = strings[buffer.getInt()];
+				}
+				Scope scope = (flags & PROTOTYPE) != 0 ? Scope.PROTOTYPE : (flags & POOLED) != 0 ? Scope.POOLED
+						: (flags & CACHED) != 0 ? Scope.CACHED : Scope.SINGLETON;
+				entries.add(new BeanIndexEntry(className, name, (flags & INJECTABLE) != 0, (flags & LAZY) != 0,
+						(flags & PRIMARY) != 0, (flags & ABSTRACT_TYPE) != 0, scope, poolSize,
+						Arrays.asList(superclassNames), Arrays.asList(interfaceNames)));
+			}
+			return entries;
+		} catch (RuntimeException e) {
+			throw new IOException("The scan cache " + file + " is corrupt.", e);
+		}
+	}
+
+	/**
+	 * Writes the beans of a package, replacing the previous cache file of the package.
+	 *
+	 * @param packageName the scanned package.
+	 * @param fingerprint the fingerprint of the classpath the beans were scanned from.
+	 * @param entries     the beans of the package.
+	 */
+	public void write(String packageName, byte[] fingerprint, List<BeanIndexEntry> entries) throws IOException {
+		Map<String, Integer> stringIndexes = new LinkedHashMap<>();
+		int packageNameIndex = intern(stringIndexes, packageName);
+		int size = 5 * Integer.BYTES + fingerprint.length + Integer.BYTES;
+		for (BeanIndexEntry entry : entries) {
+			intern(stringIndexes, entry.getClassName());
+			intern(stringIndexes, entry.getName());
+			for (String supertypeName : entry.getSupertypeNames()) {
+				intern(stringIndexes, supertypeName);
+			}
+			size += 5 * Integer.BYTES + 1 + entry.getSupertypeNames().size() * Integer.BYTES;
+		}
+		List<byte[]> strings = new ArrayList<>(stringIndexes.size());
+		for (String string : stringIndexes.keySet()) {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			strings.add(bytes);
+			size += Integer.BYTES + bytes.length;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(fingerprint.length).put(fingerprint).putInt(packageNameIndex);
+		buffer.putInt(strings.size());
+		for (byte[] string : strings) {
+			buffer.putInt(string.length).put(string);
+		}
+		buffer.putInt(entries.size());
+		for (BeanIndexEntry entry : entries) {
+			int flags = (entry.isInjectable() ? INJECTABLE : 0) | (entry.isLazy() ? LAZY : 0)
+					| (entry.isAbstractType() ? ABSTRACT_TYPE : 0)
+					| (entry.isPrimary() ? PRIMARY : 0)
+					| (entry.getScope() == Scope.PROTOTYPE ? PROTOTYPE : 0)
+					| (entry.getScope() == Scope.POOLED ? POOLED : 0)
+					| (entry.getScope() == Scope.CACHED ? CACHED : 0);
+			buffer.putInt(stringIndexes.get(entry.getClassName()))
+					.putInt(getIndex(stringIndexes, entry.getName()))
+					.put((byte) flags)
+					.putInt(entry.getPoolSize())
+					.putInt(entry.getSuperclassNames().size());
+			for (String superclassName : entry.getSuperclassNames()) {
+				buffer.putInt(stringIndexes.get(superclassName));
+			}
+			buffer.putInt(entry.getInterfaceNames().size());
+			for (String interfaceName : entry.getInterfaceNames()) {
+				buffer.putInt(stringIndexes.get(interfaceName));
+			}
+		}
+		buffer.flip();
+
+		// Written to a temporary file first, so that concurrent readers never see a partial cache file.
+		Files.createDirectories(directory);
+		Path file = getFile(packageName);
+		Path temporaryFile = Files.createTempFile(directory, packageName, FILE_SUFFIX);
+		try {
+			try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			try {
+				Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	private Path getFile(String packageName) {
+		return directory.resolve(packageName + FILE_SUFFIX);
+	}
+
+	private static int intern(Map<String, Integer> stringIndexes, String string) {
+		return string != null ? stringIndexes.computeIfAbsent(string, key -> stringIndexes.size()) : -1;
+	}
+
+	private static int getIndex(Map<String, Integer> stringIndexes, String string) {
+		return string != null ? stringIndexes.get(string) : -1;
+	}
+
+	private static String getString(String[] strings, int index) {
+		return index >= 0 ? strings[index] : null;
+	}
+}
@@ -0,0 +1,155 @@
+package com.trent.queo.lwdic.timing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds with a bounded relative error, in the manner of HdrHistogram.
+ * <p>
+ * Every power of two is divided into {@value #SUB_BUCKETS} linear buckets, so a recorded value is counted in a bucket
+ * at most 1/{@value #SUB_BUCKETS} wider than the value. Values of more than about two hours are counted in the last
+ * bucket.
+ * <p>
+ * Recording threads are spread over several stripes of counters, so concurrent callers of a method rarely update the
+ * same counter. Reads sum up all stripes and are not atomic with respect to concurrent recordings.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 42;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	// Every stripe holds the bucket counts followed by the total and the maximum of its values.
+	private static final int TOTAL = BUCKETS;
+	private static final int MAX = BUCKETS + 1;
+
+	private static final int STRIPES = Integer.highestOneBit(Math.min(8, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+
+	private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+	/**
+	 * Creates an empty histogram.
+	 */
+	public LatencyHistogram() {
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			stripes[stripe] = new AtomicLongArray(BUCKETS + 2);
+		}
+	}
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos the latency in nanoseconds. Negative values are recorded as 0.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+		stripe.incrementAndGet(bucketOf(value));
+		stripe.addAndGet(TOTAL, value);
+		long max = stripe.get(MAX);
+		while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+			max = stripe.get(MAX);
+		}
+	}
+
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	// The largest value counted in a bucket.
+	static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowestValue = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowestValue + (1L << shift) - 1;
+	}
+
+	/**
+	 * @return the number of recorded latencies.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (AtomicLongArray stripe : stripes) {
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				count += stripe.get(bucket);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the sum of all recorded latencies.
+	 */
+	public long getTotalTime() {
+		long total = 0;
+		for (AtomicLongArray stripe : stripes) {
+			total += stripe.get(TOTAL);
+		}
+		return total;
+	}
+
+	/**
+	 * @return the mean of all recorded latencies or 0 if no latency was recorded.
+	 */
+	public long getMeanTime() {
+		long count = getCount();
+		return count > 0 ? getTotalTime() / count : 0;
+	}
+
+	/**
+	 * @return the highest recorded latency.
+	 */
+	public long getMaxTime() {
+		long max = 0;
+		for (AtomicLongArray stripe : stripes) {
+			max = Math.max(max, stripe.get(MAX));
+		}
+		return max;
+	}
+
+	/**
+	 * @param percentile a percentile between 0 and 100, e.g. 99.9.
+	 * @return a latency that is not lower than the given percentage of all recorded latencies and at most
+	 * 1/{@value #SUB_BUCKETS} higher than the exact percentile, or 0 if no latency was recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long count = 0;
+		for (AtomicLongArray stripe : stripes) {
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				long bucketCount = stripe.get(bucket);
+				counts[bucket] += bucketCount;
+				count += bucketCount;
+			}
+		}
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(bucket), getMaxTime());
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		return "{count=" + getCount()
+				+ ", mean=" + TimeUnit.NANOSECONDS.toMicros(getMeanTime()) + "us"
+				+ ", p50=" + TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(50)) + "us"
+				+ ", p99=" + TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(99)) + "us"
+				+ ", max=" + TimeUnit.NANOSECONDS.toMicros(getMaxTime()) + "us}";
+	}
+}
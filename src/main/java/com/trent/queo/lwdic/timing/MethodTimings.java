@@ -0,0 +1,97 @@
+package com.trent.queo.lwdic.timing;
+
+import com.trent.queo.lwdic.annotations.Timed;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The latency histograms of all {@link Timed} methods called since method timing was enabled, by method name.
+ * <p>
+ * The timing is woven into the bean classes, so it is enabled for the whole JVM and shared by all containers.
+ */
+public final class MethodTimings {
+
+	private static volatile MethodTimings current;
+
+	// The histograms by the static part of the join point of a method, which is created once per woven method.
+	private final ConcurrentMap<JoinPoint.StaticPart, LatencyHistogram> histogramsByJoinPoint = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+	private MethodTimings() {
+	}
+
+	/**
+	 * Enables method timing, if it is not enabled yet.
+	 *
+	 * @return the method timings recorded from now on.
+	 */
+	public static synchronized MethodTimings enable() {
+		if (current == null) {
+			current = new MethodTimings();
+		}
+		return current;
+	}
+
+	/**
+	 * Disables method timing. The histograms recorded so far stay available from the instance returned by
+	 * {@link #enable()}.
+	 */
+	public static synchronized void disable() {
+		current = null;
+	}
+
+	/**
+	 * @return the method timings being recorded or {@code null} if method timing is disabled.
+	 */
+	public static MethodTimings current() {
+		return current;
+	}
+
+	/**
+	 * @param methodName the name of a {@link Timed} method, see {@link Timed#value()}.
+	 * @return the histogram of the method or {@code null} if the method was not called yet.
+	 */
+	public LatencyHistogram getHistogram(String methodName) {
+		return histograms.get(methodName);
+	}
+
+	/**
+	 * @return the histograms of all methods called so far, by method name.
+	 */
+	public Map<String, LatencyHistogram> getHistograms() {
+		return Collections.unmodifiableMap(histograms);
+	}
+
+	LatencyHistogram getHistogram(JoinPoint.StaticPart joinPoint, Timed timed) {
+		LatencyHistogram histogram = histogramsByJoinPoint.get(joinPoint);
+		if (histogram == null) {
+			histogram = histogramsByJoinPoint.computeIfAbsent(joinPoint,
+					key -> histograms.computeIfAbsent(getMethodName(key.getSignature(), timed), name -> new LatencyHistogram()));
+		}
+		return histogram;
+	}
+
+	private static String getMethodName(Signature signature, Timed timed) {
+		if (!timed.value().isEmpty()) {
+			return timed.value();
+		}
+		return signature.getDeclaringTypeName() + "." + signature.getName();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("MethodTimings{");
+		String separator = "";
+		for (Map.Entry<String, LatencyHistogram> histogram : histograms.entrySet()) {
+			builder.append(separator).append(histogram.getKey()).append('=').append(histogram.getValue());
+			separator = ", ";
+		}
+		return builder.append('}').toString();
+	}
+}
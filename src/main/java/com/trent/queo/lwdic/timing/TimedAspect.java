@@ -0,0 +1,38 @@
+package com.trent.queo.lwdic.timing;
+
+import com.trent.queo.lwdic.annotations.Timed;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * Records the latency of all methods annotated with {@link Timed} in the enabled {@link MethodTimings}.
+ * <p>
+ * While method timing is disabled, the {@code if()} test of the pointcut skips the advice, so a woven method only pays
+ * for reading a volatile field and calls its body without creating a join point.
+ */
+@Aspect
+public class TimedAspect {
+
+	@Pointcut("execution(@com.trent.queo.lwdic.annotations.Timed * *(..)) && if()")
+	public static boolean timedMethod() {
+		return MethodTimings.current() != null;
+	}
+
+	@Around("timedMethod() && @annotation(timed)")
+	public Object time(ProceedingJoinPoint joinPoint, Timed timed) throws Throwable {
+		MethodTimings methodTimings = MethodTimings.current();
+		// Timing may have been disabled since the pointcut was tested.
+		if (methodTimings == null) {
+			return joinPoint.proceed();
+		}
+		LatencyHistogram histogram = methodTimings.getHistogram(joinPoint.getStaticPart(), timed);
+		long startNanos = System.nanoTime();
+		try {
+			return joinPoint.proceed();
+		} finally {
+			histogram.record(System.nanoTime() - startNanos);
+		}
+	}
+}
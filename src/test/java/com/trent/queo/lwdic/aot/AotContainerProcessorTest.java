@@ -0,0 +1,157 @@
+package com.trent.queo.lwdic.aot;
+
+import com.trent.queo.lwdic.container.BeanContainer;
+import com.trent.queo.lwdic.container.exceptions.NoSuitableBeanFoundException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class AotContainerProcessorTest {
+
+	private static final String SOURCE = "package com.acme.app;\n"
+			+ "import com.trent.queo.lwdic.annotations.*;\n"
+			+ "import java.util.function.Supplier;\n"
+			+ "@AotContainer(packages = \"com.acme.app\")\n"
+			+ "public class Beans {\n"
+			+ "  public interface Repository {}\n"
+			+ "  @Bean public static class MemoryRepository implements Repository {}\n"
+			+ "  public interface Listener {}\n"
+			+ "  @Bean @Primary public static class DefaultListener implements Listener {}\n"
+			+ "  @Bean public static class AuditListener implements Listener {}\n"
+			+ "  @Bean @Named(name = \"greeter\") public static class Greeter {\n"
+			+ "    public final Repository repository;\n"
+			+ "    @Inject public Greeter(Repository repository) { this.repository = repository; }\n"
+			+ "  }\n"
+			+ "  @Bean public static class Client {\n"
+			+ "    @Inject @Named(name = \"greeter\") public Greeter greeter;\n"
+			+ "    @Inject public Supplier<Callback> callback;\n"
+			+ "    @Inject public Listener listener;\n"
+			+ "    public int initCount;\n"
+			+ "    @Init void init() { if (greeter != null) initCount++; }\n"
+			+ "  }\n"
+			+ "  @Bean public static class Callback {\n"
+			+ "    @Inject public Client client;\n"
+			+ "  }\n"
+			+ "  @Bean(injectable = false) public static class Disabled {}\n"
+			+ "}\n";
+
+	private static final String MISSING_BEAN_SOURCE = "package com.acme.missing;\n"
+			+ "import com.trent.queo.lwdic.annotations.*;\n"
+			+ "@AotContainer(packages = \"com.acme.missing\")\n"
+			+ "public class Beans {\n"
+			+ "  public interface Missing {}\n"
+			+ "  @Bean public static class Client { @Inject public Missing missing; }\n"
+			+ "}\n";
+
+	private static final String CONFLICTING_BEANS_SOURCE = "package com.acme.conflict;\n"
+			+ "import com.trent.queo.lwdic.annotations.*;\n"
+			+ "@AotContainer(packages = \"com.acme.conflict\")\n"
+			+ "public class Beans {\n"
+			+ "  public interface Service {}\n"
+			+ "  @Bean public static class FirstService implements Service {}\n"
+			+ "  @Bean public static class SecondService implements Service {}\n"
+			+ "  @Bean public static class Client { @Inject public Client(Service service) {} }\n"
+			+ "}\n";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testGeneratedContainerWiresBeans() throws Exception {
+		Path workDir = temporaryFolder.getRoot().toPath();
+		DiagnosticCollector<JavaFileObject> diagnostics = compile(workDir, SOURCE);
+		assertTrue("The test sources could not be compiled: " + diagnostics.getDiagnostics(),
+				diagnostics.getDiagnostics().stream().noneMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR));
+		assertTrue(Files.exists(workDir.resolve("com/acme/app/BeansContainer.class")));
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{workDir.toUri().toURL()}, getClass().getClassLoader())) {
+			BeanContainer container = (BeanContainer) classLoader.loadClass("com.acme.app.BeansContainer").getConstructor().newInstance();
+
+			Object repository = container.getBeanByType(classLoader.loadClass("com.acme.app.Beans$Repository"));
+			assertEquals("com.acme.app.Beans$MemoryRepository", repository.getClass().getName());
+
+			Object greeter = container.getBeanByNameAndType("greeter", Object.class);
+			assertSame(repository, greeter.getClass().getField("repository").get(greeter));
+
+			Class<?> clientClass = classLoader.loadClass("com.acme.app.Beans$Client");
+			Object client = container.getBeanByType(clientClass);
+			assertSame(greeter, clientClass.getField("greeter").get(client));
+			assertEquals(1, clientClass.getField("initCount").getInt(client));
+
+			Class<?> callbackClass = classLoader.loadClass("com.acme.app.Beans$Callback");
+			Object callback = container.getBeanByType(callbackClass);
+			assertSame(callback, ((Supplier<?>) clientClass.getField("callback").get(client)).get());
+			assertSame(client, callbackClass.getField("client").get(callback));
+
+			Class<?> listenerClass = classLoader.loadClass("com.acme.app.Beans$Listener");
+			Object listener = container.getBeanByType(listenerClass);
+			assertEquals("com.acme.app.Beans$DefaultListener", listener.getClass().getName());
+			assertSame(listener, clientClass.getField("listener").get(client));
+			assertEquals(2, container.getBeansOfType(listenerClass).size());
+			assertSame(listener, container.findBeanByType(listenerClass).get());
+			assertFalse(container.findBeanByType(String.class).isPresent());
+
+			assertFalse(container.getBeans().containsKey("com.acme.app.Beans$Disabled"));
+			try {
+				container.getBeanByType(classLoader.loadClass("com.acme.app.Beans$Disabled"));
+				fail("Beans with injectable=false must not be part of the container.");
+			} catch (NoSuitableBeanFoundException expected) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testMissingBeanIsCompileError() throws IOException {
+		DiagnosticCollector<JavaFileObject> diagnostics = compile(temporaryFolder.getRoot().toPath(), MISSING_BEAN_SOURCE);
+		assertError(diagnostics, "No suitable bean was found for com.acme.missing.Beans$Missing.");
+	}
+
+	@Test
+	public void testConflictingBeansAreCompileError() throws IOException {
+		DiagnosticCollector<JavaFileObject> diagnostics = compile(temporaryFolder.getRoot().toPath(), CONFLICTING_BEANS_SOURCE);
+		assertError(diagnostics, "More than one bean was found for com.acme.conflict.Beans$Service");
+	}
+
+	private static DiagnosticCollector<JavaFileObject> compile(Path workDir, String source) throws IOException {
+		Path sourceFile = workDir.resolve("Beans.java");
+		Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+			compiler.getTask(null, fileManager, diagnostics,
+					Arrays.asList("-classpath", System.getProperty("java.class.path"),
+							"-processor", AotContainerProcessor.class.getName(), "-d", workDir.toString()),
+					null, fileManager.getJavaFileObjectsFromFiles(Collections.singletonList(sourceFile.toFile()))).call();
+		}
+		return diagnostics;
+	}
+
+	private static void assertError(DiagnosticCollector<JavaFileObject> diagnostics, String message) {
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getMessage(null).contains(message)) {
+				return;
+			}
+		}
+		fail("Expected the compile error '" + message + "', but got " + diagnostics.getDiagnostics());
+	}
+}
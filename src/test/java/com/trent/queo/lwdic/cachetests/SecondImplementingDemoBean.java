@@ -0,0 +1,8 @@
+package com.trent.queo.lwdic.cachetests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.examples.IDemoBean;
+
+@Bean
+public class SecondImplementingDemoBean implements IDemoBean {
+}
@@ -0,0 +1,69 @@
+package com.trent.queo.lwdic.cds;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import com.trent.queo.lwdic.shutdowntests.OrderService;
+import io.github.classgraph.ClassGraph;
+import org.aspectj.lang.JoinPoint;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class CdsTrainerTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testArchiveCoversTheClassesOfTheTrainingRun() throws IOException, URISyntaxException {
+		assumeTrue("Training a CDS archive starts two JVMs, run with -Dlwdic.cds.test=true to include it.",
+				Boolean.getBoolean("lwdic.cds.test"));
+		assumeFalse("Archiving application classes requires Java 10 or later.",
+				System.getProperty("java.specification.version").startsWith("1."));
+
+		// Test runners may hide the classpath in a manifest, so it is put together from the needed classes.
+		Set<String> classpath = new LinkedHashSet<>();
+		for (Class<?> type : new Class<?>[]{OrderService.class, LWDIContainer.class, ClassGraph.class, LoggerFactory.class, JoinPoint.class}) {
+			classpath.add(Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+		}
+		Path outputDirectory = temporaryFolder.getRoot().toPath();
+		CdsArchive archive = new CdsTrainer(outputDirectory).train(String.join(File.pathSeparator, classpath),
+				"com.trent.queo.lwdic.shutdowntests");
+
+		assertTrue(Files.size(archive.getArchiveFile()) > 0);
+		List<String> classList = Files.readAllLines(archive.getClassListFile());
+		assertTrue(containsClass(classList, OrderService.class));
+		assertTrue(containsClass(classList, LWDIContainer.class));
+		assertTrue(archive.getClassCount() > 0);
+
+		assertEquals("-XX:SharedArchiveFile=" + archive.getArchiveFile(), archive.getJvmOptions().get(0));
+		for (String classpathEntry : archive.getClasspath().split(File.pathSeparator)) {
+			assertFalse("Directories have to be replaced by jar files.", Files.isDirectory(Paths.get(classpathEntry)));
+		}
+	}
+
+	// Newer JDKs append the id and the super class to the name of every class in the list.
+	private static boolean containsClass(List<String> classList, Class<?> type) {
+		String className = type.getName().replace('.', '/');
+		for (String line : classList) {
+			if (line.split(" ")[0].equals(className)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
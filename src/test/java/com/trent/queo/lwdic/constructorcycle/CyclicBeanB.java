@@ -0,0 +1,12 @@
+package com.trent.queo.lwdic.constructorcycle;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class CyclicBeanB {
+
+	@Inject
+	public CyclicBeanB(CyclicBeanA cyclicBeanA) {
+	}
+}
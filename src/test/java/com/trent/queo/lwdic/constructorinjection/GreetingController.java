@@ -0,0 +1,22 @@
+package com.trent.queo.lwdic.constructorinjection;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class GreetingController {
+
+	private final GreetingService service;
+
+	@Inject
+	public GreetingRepository repository;
+
+	@Inject
+	GreetingController(GreetingService service) {
+		this.service = service;
+	}
+
+	public GreetingService getService() {
+		return service;
+	}
+}
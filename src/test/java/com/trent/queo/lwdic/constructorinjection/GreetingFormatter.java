@@ -0,0 +1,9 @@
+package com.trent.queo.lwdic.constructorinjection;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Named;
+
+@Bean
+@Named(name = "formatter")
+public class GreetingFormatter {
+}
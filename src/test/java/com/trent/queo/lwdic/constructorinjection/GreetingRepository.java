@@ -0,0 +1,7 @@
+package com.trent.queo.lwdic.constructorinjection;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+@Bean
+public class GreetingRepository {
+}
@@ -0,0 +1,26 @@
+package com.trent.queo.lwdic.constructorinjection;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Named;
+
+@Bean
+public class GreetingService {
+
+	private final GreetingRepository repository;
+	private final GreetingFormatter formatter;
+
+	@Inject
+	public GreetingService(GreetingRepository repository, @Named(name = "formatter") GreetingFormatter formatter) {
+		this.repository = repository;
+		this.formatter = formatter;
+	}
+
+	public GreetingRepository getRepository() {
+		return repository;
+	}
+
+	public GreetingFormatter getFormatter() {
+		return formatter;
+	}
+}
@@ -0,0 +1,19 @@
+package com.trent.queo.lwdic.constructorinjection;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean(lazy = true)
+public class LazyGreetingClient {
+
+	private final GreetingController controller;
+
+	@Inject
+	public LazyGreetingClient(GreetingController controller) {
+		this.controller = controller;
+	}
+
+	public GreetingController getController() {
+		return controller;
+	}
+}
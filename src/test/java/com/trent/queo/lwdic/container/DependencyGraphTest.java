@@ -0,0 +1,48 @@
+package com.trent.queo.lwdic.container;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DependencyGraphTest {
+
+	@Test
+	public void testLevelsFollowDependencies() {
+		BeanDefinition a = BeanDefinition.ofInstance("a", new Object());
+		BeanDefinition b = BeanDefinition.ofInstance("b", new Object());
+		BeanDefinition c = BeanDefinition.ofInstance("c", new Object());
+		BeanDefinition d = BeanDefinition.ofInstance("d", new Object());
+
+		DependencyGraph dependencyGraph = new DependencyGraph();
+		dependencyGraph.addBean(a);
+		dependencyGraph.addBean(b);
+		dependencyGraph.addBean(c);
+		dependencyGraph.addBean(d);
+		dependencyGraph.addDependency(c, a);
+		dependencyGraph.addDependency(c, b);
+		dependencyGraph.addDependency(d, c);
+
+		List<List<BeanDefinition>> levels = dependencyGraph.getLevels();
+		assertEquals(Arrays.asList(Arrays.asList(a, b), Arrays.asList(c), Arrays.asList(d)), levels);
+	}
+
+	@Test
+	public void testCyclicBeansArePlacedInLastLevel() {
+		BeanDefinition a = BeanDefinition.ofInstance("a", new Object());
+		BeanDefinition b = BeanDefinition.ofInstance("b", new Object());
+		BeanDefinition c = BeanDefinition.ofInstance("c", new Object());
+
+		DependencyGraph dependencyGraph = new DependencyGraph();
+		dependencyGraph.addBean(a);
+		dependencyGraph.addBean(b);
+		dependencyGraph.addBean(c);
+		dependencyGraph.addDependency(b, c);
+		dependencyGraph.addDependency(c, b);
+
+		List<List<BeanDefinition>> levels = dependencyGraph.getLevels();
+		assertEquals(Arrays.asList(Arrays.asList(a), Arrays.asList(b, c)), levels);
+	}
+}
@@ -1,20 +1,82 @@
 package com.trent.queo.lwdic.container;
 
+import com.trent.queo.lwdic.container.BeanCache.EvictionCause;
 import com.trent.queo.lwdic.container.exceptions.BeanAlreadyDefinedException;
+import com.trent.queo.lwdic.constructorinjection.GreetingController;
+import com.trent.queo.lwdic.constructorinjection.GreetingFormatter;
+import com.trent.queo.lwdic.constructorinjection.GreetingRepository;
+import com.trent.queo.lwdic.constructorinjection.GreetingService;
+import com.trent.queo.lwdic.constructorinjection.LazyGreetingClient;
+import com.trent.queo.lwdic.container.ShutdownReport.Outcome;
 import com.trent.queo.lwdic.container.exceptions.BeanConflictException;
+import com.trent.queo.lwdic.container.exceptions.BeanDestructionException;
+import com.trent.queo.lwdic.container.exceptions.BeanInitializationException;
+import com.trent.queo.lwdic.container.exceptions.CircularDependencyException;
+import com.trent.queo.lwdic.container.exceptions.ContainerFrozenException;
+import com.trent.queo.lwdic.container.exceptions.NoSuitableBeanFoundException;
+import com.trent.queo.lwdic.evictiontests.CurrencyConverter;
+import com.trent.queo.lwdic.evictiontests.ExchangeRateTable;
+import com.trent.queo.lwdic.evictiontests.HolidayCalendar;
 import com.trent.queo.lwdic.examples.*;
+import com.trent.queo.lwdic.fieldinjection.PrivateFieldInjectionTarget;
+import com.trent.queo.lwdic.hierarchytests.*;
+import com.trent.queo.lwdic.initfailures.DependentBean;
+import com.trent.queo.lwdic.inittests.CachePreloader;
+import com.trent.queo.lwdic.inittests.MetricsReporter;
+import com.trent.queo.lwdic.fieldinjection.ServiceBean;
+import com.trent.queo.lwdic.lazylocktests.ReportGenerator;
+import com.trent.queo.lwdic.lazylocktests.ReportTemplates;
+import com.trent.queo.lwdic.lazytests.EagerBean;
+import com.trent.queo.lwdic.lazytests.UnusedLazyBean;
+import com.trent.queo.lwdic.primarytests.*;
+import com.trent.queo.lwdic.prototypecycles.QueryBuilder;
+import com.trent.queo.lwdic.prototypecycles.QueryContext;
+import com.trent.queo.lwdic.prototypecycles.RecursivePrototype;
+import com.trent.queo.lwdic.providertests.CyclicProviderA;
+import com.trent.queo.lwdic.providertests.CyclicProviderB;
+import com.trent.queo.lwdic.providertests.HeavyService;
+import com.trent.queo.lwdic.providertests.RareCaller;
+import com.trent.queo.lwdic.refreshtests.*;
+import com.trent.queo.lwdic.scopetests.ScratchBuffer;
+import com.trent.queo.lwdic.shutdownfailures.BrokenFileStore;
+import com.trent.queo.lwdic.shutdownfailures.HangingWorker;
+import com.trent.queo.lwdic.shutdowntests.*;
+import com.trent.queo.lwdic.scopetests.TemplateParser;
+import com.trent.queo.lwdic.scopetests.TemplateRenderer;
+import com.trent.queo.lwdic.timing.MethodTimings;
+import com.trent.queo.lwdic.timingtests.PriceCalculator;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class LWDIContainerTest {
 
 	private static final String TEST_PACKAGE = "com.trent.queo.lwdic.examples";
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	@Test
 	public void testContainerPackageScan() {
 		LWDIContainer container = new LWDIContainer();
@@ -51,6 +113,22 @@ public class LWDIContainerTest {
 
 	}
 
+	@Test
+	public void testBeanIndexMatchesClasspathScan() {
+		LWDIContainer indexedContainer = new LWDIContainer();
+		indexedContainer.scanPackage(TEST_PACKAGE);
+
+		LWDIContainer scannedContainer = new LWDIContainer();
+		scannedContainer.setBeanIndexEnabled(false);
+		scannedContainer.scanPackage(TEST_PACKAGE);
+
+		assertEquals("The bean index has to register the same beans as the classpath scan.",
+				scannedContainer.getBeans().keySet(), indexedContainer.getBeans().keySet());
+		for (String beanName : scannedContainer.getBeans().keySet()) {
+			assertEquals(scannedContainer.getBeans().get(beanName).size(), indexedContainer.getBeans().get(beanName).size());
+		}
+	}
+
 	@Test
 	public void testProgrammaticCreationOfBeans() {
 		LWDIContainer container = new LWDIContainer();
@@ -75,6 +153,86 @@ public class LWDIContainerTest {
 		container.addBean("a", beanB);
 	}
 
+	@Test
+	public void testProgrammaticCreationOfBeansInBatches() {
+		LWDIContainer container = new LWDIContainer();
+		container.addBean("a", 0);
+		container.addBean("c", 2);
+
+		Map<String, Object> beans = new LinkedHashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			beans.put("batch" + i, i);
+		}
+		container.addBeans(beans);
+		assertEquals(1002, container.getBeans().size());
+		assertEquals(Integer.valueOf(999), container.getBeanByNameAndType("batch999", Integer.class));
+
+		// A conflicting batch lists every conflicting name and registers none of its beans.
+		Map<String, Object> conflictingBeans = new LinkedHashMap<>();
+		conflictingBeans.put("a", 1);
+		conflictingBeans.put("b", 1);
+		conflictingBeans.put("c", 3);
+		conflictingBeans.put("batch5", 5);
+		try {
+			container.addBeans(conflictingBeans);
+			fail("The batch must be rejected.");
+		} catch (BeanAlreadyDefinedException e) {
+			assertTrue(e.getMessage().contains("'a', 'c', 'batch5'"));
+			assertFalse(e.getMessage().contains("'b'"));
+		}
+		assertFalse(container.findBeanByNameAndType("b", Integer.class).isPresent());
+		assertEquals(Integer.valueOf(0), container.getBeanByNameAndType("a", Integer.class));
+		assertEquals(1002, container.getBeans().size());
+
+		container.freeze();
+		try {
+			container.addBeans(Collections.singletonMap("d", 4));
+			fail("A frozen container must reject the batch.");
+		} catch (ContainerFrozenException e) {
+			assertFalse(container.findBeanByNameAndType("d", Integer.class).isPresent());
+		}
+	}
+
+	@Test
+	public void testBatchesAreVisibleAtOnceAndKeepConcurrentRegistrations() throws Exception {
+		LWDIContainer container = new LWDIContainer();
+		int batchCount = 20;
+		int batchSize = 500;
+		int singleBeans = 2000;
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			AtomicBoolean batchesDone = new AtomicBoolean();
+			Future<?> reader = executor.submit(() -> {
+				while (!batchesDone.get()) {
+					for (int batch = 0; batch < batchCount; batch++) {
+						// The first bean of a batch is read first, so a partially visible batch would miss the last one.
+						if (container.findBeanByNameAndType("batch" + batch + "-0", Integer.class).isPresent()) {
+							assertTrue(container.findBeanByNameAndType("batch" + batch + "-" + (batchSize - 1), Integer.class).isPresent());
+						}
+					}
+				}
+			});
+			Future<?> singleWriter = executor.submit(() -> {
+				for (int i = 0; i < singleBeans; i++) {
+					container.addBean("single" + i, i);
+				}
+			});
+			for (int batch = 0; batch < batchCount; batch++) {
+				Map<String, Object> beans = new LinkedHashMap<>();
+				for (int i = 0; i < batchSize; i++) {
+					beans.put("batch" + batch + "-" + i, i);
+				}
+				container.addBeans(beans);
+			}
+			batchesDone.set(true);
+			singleWriter.get();
+			reader.get();
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(batchCount * batchSize + singleBeans, container.getBeans().size());
+	}
+
 	@Test
 	public void testNamedInjection() {
 		Integer beanA = 0;
@@ -96,6 +254,196 @@ public class LWDIContainerTest {
 
 	}
 
+	@Test(expected = BeanConflictException.class)
+	public void testResolvedBeansAreInvalidatedByRegistration() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage(TEST_PACKAGE);
+		IDemoBean interfaceDemoBean = container.getBeanByType(IDemoBean.class);
+		assertSame(interfaceDemoBean, container.getBeanByType(IDemoBean.class));
+
+		// Registers a second implementation of IDemoBean, the cached resolution must not be used anymore.
+		container.scanPackage("com.trent.queo.lwdic.cachetests");
+		container.getBeanByType(IDemoBean.class);
+	}
+
+	@Test
+	public void testConcurrentLookupsAndRegistration() throws Exception {
+		LWDIContainer container = new LWDIContainer();
+		Integer readBean = 0;
+		container.addBean("read", readBean);
+
+		int writerCount = 2;
+		int beansPerWriter = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(6);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int reader = 0; reader < 4; reader++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 10000; i++) {
+						assertEquals(readBean, container.getBeanByNameAndType("read", Integer.class));
+					}
+				}));
+			}
+			for (int writer = 0; writer < writerCount; writer++) {
+				String prefix = "writer" + writer + "-";
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < beansPerWriter; i++) {
+						container.addBean(prefix + i, i);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1 + writerCount * beansPerWriter, container.getBeans().size());
+	}
+
+	@Test
+	public void testInjectionOfNonPublicAndInheritedFields() {
+		Integer value = 42;
+
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.fieldinjection");
+		container.addBean("value", value);
+		container.start();
+
+		ServiceBean service = container.getBeanByType(ServiceBean.class);
+		PrivateFieldInjectionTarget injectionTarget = container.getBeanByType(PrivateFieldInjectionTarget.class);
+		assertSame(service, injectionTarget.getService());
+		assertSame(service, injectionTarget.getInheritedService());
+		assertEquals(value, injectionTarget.getValue());
+	}
+
+	@Test
+	public void testInjectionPlansAreSharedBetweenContainers() {
+		InjectionPlan plan = InjectionPlan.forClass(PrivateFieldInjectionTarget.class);
+		assertSame(plan, InjectionPlan.forClass(PrivateFieldInjectionTarget.class));
+		assertEquals(3, plan.getInjectionPoints().length);
+	}
+
+	@Test
+	public void testLazyBeansAreCreatedOnFirstUse() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.lazytests");
+		assertEquals(2, container.getLazyBeanCount());
+		assertEquals(2, container.getUncreatedLazyBeans().size());
+
+		container.start();
+
+		EagerBean eagerBean = container.getBeanByType(EagerBean.class);
+		assertNotNull(eagerBean.usedLazyBean);
+		assertSame(eagerBean, eagerBean.usedLazyBean.eagerBean);
+		assertEquals(Collections.singletonList(UnusedLazyBean.class.getName()), container.getUncreatedLazyBeans());
+
+		assertNotNull(container.getBeanByType(UnusedLazyBean.class));
+		assertEquals(0, container.getUncreatedLazyBeans().size());
+	}
+
+	@Test
+	public void testLazyBeansAreCreatedWhileOtherLazyBeansAreCreated() throws Exception {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.lazylocktests");
+		container.start();
+
+		// Lazy beans are locked one by one, so another thread can create a lazy bean while this one is created.
+		ReportGenerator reportGenerator = CompletableFuture.supplyAsync(() -> container.getBeanByType(ReportGenerator.class))
+				.get(10, TimeUnit.SECONDS);
+		assertSame(container.getBeanByType(ReportTemplates.class), reportGenerator.loadedTemplates);
+	}
+
+	@Test
+	public void testLazyInitializationOfContainer() {
+		LWDIContainer container = new LWDIContainer();
+		container.setLazyInitialization(true);
+		container.scanPackage(TEST_PACKAGE);
+		container.addBean("a", 0);
+		container.addBean("b", 1);
+		container.start();
+		assertEquals(4, container.getLazyBeanCount());
+		assertEquals(4, container.getUncreatedLazyBeans().size());
+
+		DemoInjectionTargetBean injectionTargetBean = container.getBeanByType(DemoInjectionTargetBean.class);
+		assertEquals(Integer.valueOf(0), injectionTargetBean.valueA);
+		assertSame(container.getBeanByType(ConcreteDemoBean.class), injectionTargetBean.abstractDemoBean);
+		assertEquals(2, container.getUncreatedLazyBeans().size());
+	}
+
+	@Test
+	public void testParallelStartupMatchesSequentialStartup() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			LWDIContainer container = new LWDIContainer();
+			container.setExecutor(executor);
+			container.scanPackage(TEST_PACKAGE);
+			container.scanPackage("com.trent.queo.lwdic.lazytests");
+			container.addBean("a", 0);
+			container.addBean("b", 1);
+			container.start();
+
+			LWDIContainer sequentialContainer = new LWDIContainer();
+			sequentialContainer.scanPackage(TEST_PACKAGE);
+			sequentialContainer.scanPackage("com.trent.queo.lwdic.lazytests");
+			sequentialContainer.addBean("a", 0);
+			sequentialContainer.addBean("b", 1);
+			sequentialContainer.start();
+			assertEquals(sequentialContainer.getBeans().keySet(), container.getBeans().keySet());
+
+			DemoInjectionTargetBean injectionTargetBean = container.getBeanByType(DemoInjectionTargetBean.class);
+			assertEquals(Integer.valueOf(0), injectionTargetBean.valueA);
+			assertEquals(Integer.valueOf(1), injectionTargetBean.valueB);
+			assertSame(container.getBeanByType(ConcreteDemoBean.class), injectionTargetBean.abstractDemoBean);
+
+			EagerBean eagerBean = container.getBeanByType(EagerBean.class);
+			assertSame(eagerBean, eagerBean.usedLazyBean.eagerBean);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = BeanConflictException.class)
+	public void testFailureOnBeanConflictDuringParallelStartup() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			LWDIContainer container = new LWDIContainer();
+			container.setExecutor(executor);
+			container.scanPackage("com.trent.queo.lwdic.injectiontests");
+			container.start();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testMetrics() {
+		LWDIContainer container = new LWDIContainer();
+		assertNull("Metrics have to be disabled by default.", container.getMetrics());
+		ContainerMetrics metrics = container.enableMetrics();
+		container.scanPackage(TEST_PACKAGE);
+		container.addBean("a", 0);
+		container.addBean("b", 1);
+		container.start();
+
+		container.getBeanByType(IDemoBean.class);
+		try {
+			container.getBeanByType(LWDIContainerTest.class);
+			fail("The lookup of a type without bean has to fail.");
+		} catch (NoSuitableBeanFoundException e) {
+			// expected
+		}
+
+		assertEquals(4, metrics.getScannedBeanCount());
+		assertTrue(metrics.getScanTime() > 0);
+		assertEquals(4, metrics.getInstantiationTimes().size());
+		assertTrue(metrics.getInstantiationTimes().containsKey(DemoInjectionTargetBean.class.getName()));
+		assertTrue(metrics.getInjectionTime() > 0);
+		// The injection of DemoInjectionTargetBean performs three lookups.
+		assertEquals(5, metrics.getLookupCount());
+		assertEquals(1, metrics.getLookupMissCount());
+	}
+
 	@Test(expected = BeanConflictException.class)
 	public void testFailureOnBeanConflict() {
 		LWDIContainer container = new LWDIContainer();
@@ -112,4 +460,585 @@ public class LWDIContainerTest {
 		assertEquals(0, containerBeans.size());
 		container.start();
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testConstructorInjection() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.constructorinjection");
+		container.start();
+		assertConstructorInjection(container);
+	}
+
+	@Test
+	public void testParallelConstructorInjection() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			LWDIContainer container = new LWDIContainer();
+			container.setExecutor(executor);
+			container.scanPackage("com.trent.queo.lwdic.constructorinjection");
+			container.start();
+			assertConstructorInjection(container);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void assertConstructorInjection(LWDIContainer container) {
+		GreetingRepository repository = container.getBeanByType(GreetingRepository.class);
+		GreetingService service = container.getBeanByType(GreetingService.class);
+		assertSame(repository, service.getRepository());
+		assertSame(container.getBeanByNameAndType("formatter", GreetingFormatter.class), service.getFormatter());
+
+		GreetingController controller = container.getBeanByType(GreetingController.class);
+		assertSame(service, controller.getService());
+		assertSame("Field injection has to work for constructor injected beans.", repository, controller.repository);
+
+		assertEquals(1, container.getUncreatedLazyBeans().size());
+		assertSame(controller, container.getBeanByType(LazyGreetingClient.class).getController());
+	}
+
+	@Test(expected = CircularDependencyException.class)
+	public void testFailureOnCircularConstructorDependency() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.constructorcycle");
+		container.start();
+	}
+
+	@Test
+	public void testFailureOnCircularPrototypeDependency() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.prototypecycles");
+		container.start();
+
+		for (Class<?> prototypeClass : new Class<?>[]{RecursivePrototype.class, QueryBuilder.class, QueryContext.class}) {
+			try {
+				container.getBeanByType(prototypeClass);
+				fail("Prototype " + prototypeClass.getSimpleName() + " depends on itself.");
+			} catch (CircularDependencyException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testScanCacheMatchesClasspathScan() throws IOException {
+		Path scanCacheDirectory = temporaryFolder.getRoot().toPath();
+		LWDIContainer classpathContainer = new LWDIContainer();
+		classpathContainer.setBeanIndexEnabled(false);
+		classpathContainer.setScanCacheDirectory(scanCacheDirectory);
+		classpathContainer.scanPackage(TEST_PACKAGE);
+		assertTrue(Files.exists(scanCacheDirectory.resolve(TEST_PACKAGE + ".scan")));
+
+		LWDIContainer cachedContainer = new LWDIContainer();
+		cachedContainer.setBeanIndexEnabled(false);
+		cachedContainer.setScanCacheDirectory(scanCacheDirectory);
+		cachedContainer.scanPackage(TEST_PACKAGE);
+		assertEquals(classpathContainer.getBeans().keySet(), cachedContainer.getBeans().keySet());
+	}
+
+	@Test
+	public void testScanPackagesMatchesSeparateScans() {
+		String[] packageNames = {TEST_PACKAGE, "com.trent.queo.lwdic.lazytests", "com.trent.queo.lwdic.constructorinjection"};
+		LWDIContainer container = new LWDIContainer();
+		container.setBeanIndexEnabled(false);
+		container.scanPackages(packageNames);
+		container.addBean("a", 0);
+		container.addBean("b", 1);
+		container.start();
+
+		LWDIContainer separateContainer = new LWDIContainer();
+		separateContainer.setBeanIndexEnabled(false);
+		for (String packageName : packageNames) {
+			separateContainer.scanPackage(packageName);
+		}
+		separateContainer.addBean("a", 0);
+		separateContainer.addBean("b", 1);
+		separateContainer.start();
+		assertEquals(separateContainer.getBeans().keySet(), container.getBeans().keySet());
+		assertNotNull(container.getBeanByType(GreetingController.class).getService());
+	}
+
+	@Test
+	public void testChildContainerResolvesThroughParent() {
+		LWDIContainer parent = new LWDIContainer();
+		parent.scanPackage("com.trent.queo.lwdic.constructorinjection");
+		parent.addBean("a", 0);
+		parent.start();
+
+		LWDIContainer child = parent.createChildContainer();
+		assertSame(parent, child.getParent());
+		child.scanPackage("com.trent.queo.lwdic.lazytests");
+		child.addBean("a", 42);
+		child.start();
+
+		assertSame(parent.getBeanByType(GreetingService.class), child.getBeanByType(GreetingService.class));
+		assertEquals(Integer.valueOf(42), child.getBeanByNameAndType("a", Integer.class));
+		assertEquals(Integer.valueOf(0), parent.getBeanByNameAndType("a", Integer.class));
+
+		EagerBean eagerBean = child.getBeanByType(EagerBean.class);
+		assertSame(eagerBean, eagerBean.usedLazyBean.eagerBean);
+		try {
+			parent.getBeanByType(EagerBean.class);
+			fail("Beans of a child container must not be visible to the parent.");
+		} catch (NoSuitableBeanFoundException e) {
+			// expected
+		}
+
+		Map<String, Set<Object>> beans = child.getBeans();
+		assertTrue(beans.keySet().containsAll(parent.getBeans().keySet()));
+		assertEquals(Collections.singleton(42), beans.get("a"));
+	}
+
+	@Test
+	public void testRefreshReplacesChangedBeansAndTheirDependents() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.refreshtests");
+		container.start();
+		Clock clock = container.getBeanByType(Clock.class);
+		ClockConsumer clockConsumer = container.getBeanByType(ClockConsumer.class);
+		ClockHolder clockHolder = container.getBeanByType(ClockHolder.class);
+		ClockHolderConsumer clockHolderConsumer = container.getBeanByType(ClockHolderConsumer.class);
+		UnrelatedBean unrelatedBean = container.getBeanByType(UnrelatedBean.class);
+
+		container.refresh(SystemClock.class.getName());
+
+		Clock refreshedClock = container.getBeanByType(Clock.class);
+		assertNotSame(clock, refreshedClock);
+		assertSame(refreshedClock, container.getBeanByType(SystemClock.class));
+		assertSame("Beans injected with a replaced bean are kept.", clockConsumer, container.getBeanByType(ClockConsumer.class));
+		assertSame(refreshedClock, clockConsumer.clock);
+
+		ClockHolder refreshedClockHolder = container.getBeanByType(ClockHolder.class);
+		assertNotSame("Beans constructed with a replaced bean are replaced.", clockHolder, refreshedClockHolder);
+		assertSame(refreshedClock, refreshedClockHolder.getClock());
+		assertSame(clockHolderConsumer, container.getBeanByType(ClockHolderConsumer.class));
+		assertSame(refreshedClockHolder, clockHolderConsumer.clockHolder);
+
+		assertSame(unrelatedBean, container.getBeanByType(UnrelatedBean.class));
+		assertSame(clockHolderConsumer, unrelatedBean.clockHolderConsumer);
+	}
+
+	@Test
+	public void testInitMethodsRunAfterTheirDependencies() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.inittests");
+		container.start();
+
+		CachePreloader cachePreloader = container.getBeanByType(CachePreloader.class);
+		assertTrue(cachePreloader.poolWarmedUpBeforePreload);
+		assertEquals(1, cachePreloader.preloadCount);
+		assertTrue("Init methods of superclasses have to run first.", container.getBeanByType(MetricsReporter.class).baseInitializedFirst);
+	}
+
+	@Test
+	public void testStartAsync() throws InterruptedException, ExecutionException {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.inittests");
+		CompletableFuture<Void> started = container.startAsync();
+		started.get();
+		assertTrue(container.getBeanByType(CachePreloader.class).poolWarmedUpBeforePreload);
+	}
+
+	@Test
+	public void testInitFailuresAreReportedTogether() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.initfailures");
+		try {
+			container.start();
+			fail("The failing init methods have to fail the start.");
+		} catch (BeanInitializationException e) {
+			assertEquals(2, e.getSuppressed().length);
+		}
+		assertFalse("Beans depending on a failed bean must not be initialized.", container.getBeanByType(DependentBean.class).initialized);
+	}
+
+	@Test
+	public void testSupplierInjectionResolvesOnFirstUse() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.providertests");
+		container.start();
+
+		RareCaller rareCaller = container.getBeanByType(RareCaller.class);
+		assertNotNull(rareCaller.heavyService);
+		assertEquals(Collections.singletonList(HeavyService.class.getName()), container.getUncreatedLazyBeans());
+
+		HeavyService heavyService = rareCaller.heavyService.get();
+		assertSame(container.getBeanByType(HeavyService.class), heavyService);
+		assertSame(heavyService, rareCaller.heavyService.get());
+		assertEquals(0, container.getUncreatedLazyBeans().size());
+	}
+
+	@Test
+	public void testSupplierInjectionBreaksConstructorCycles() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.providertests");
+		container.start();
+
+		CyclicProviderA cyclicProviderA = container.getBeanByType(CyclicProviderA.class);
+		CyclicProviderB cyclicProviderB = container.getBeanByType(CyclicProviderB.class);
+		assertSame(cyclicProviderB, cyclicProviderA.getCyclicProviderB());
+		assertSame(cyclicProviderA, cyclicProviderB.getCyclicProviderA());
+	}
+
+	@Test
+	public void testPrimaryBeanResolvesAmbiguity() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.primarytests");
+		container.start();
+
+		PaymentProvider paymentProvider = container.getBeanByType(PaymentProvider.class);
+		assertTrue(paymentProvider instanceof CardPaymentProvider);
+		assertSame(paymentProvider, container.getBeanByType(Checkout.class).paymentProvider);
+
+		List<PaymentProvider> paymentProviders = container.getBeansOfType(PaymentProvider.class);
+		assertEquals(2, paymentProviders.size());
+		assertTrue(paymentProviders.contains(paymentProvider));
+		assertTrue(paymentProviders.contains(container.getBeanByType(InvoicePaymentProvider.class)));
+		assertSame("The beans of a type are cached until the next registration.", paymentProviders,
+				container.getBeansOfType(PaymentProvider.class));
+
+		try {
+			container.getBeanByType(Notifier.class);
+			fail("Beans without a primary bean among them are ambiguous.");
+		} catch (BeanConflictException expected) {
+			// expected
+		}
+		assertEquals(2, container.getBeansOfType(Notifier.class).size());
+		assertEquals(Collections.emptyList(), container.getBeansOfType(String.class));
+	}
+
+	@Test
+	public void testFindBeanDoesNotThrow() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.primarytests");
+		container.start();
+
+		Optional<Checkout> checkout = container.findBeanByType(Checkout.class);
+		assertTrue(checkout.isPresent());
+		assertSame("Successful lookups are cached.", checkout, container.findBeanByType(Checkout.class));
+		assertEquals(Optional.empty(), container.findBeanByType(String.class));
+		assertEquals(Optional.empty(), container.findBeanByType(Notifier.class));
+		assertTrue(container.findBeanByType(PaymentProvider.class).get() instanceof CardPaymentProvider);
+
+		assertEquals(Optional.empty(), container.findBeanByNameAndType("missing", Object.class));
+		assertEquals(Optional.empty(), container.findBeanByNameAndType(Checkout.class.getName(), String.class));
+		Optional<Checkout> namedCheckout = container.findBeanByNameAndType(Checkout.class.getName(), Checkout.class);
+		assertSame(checkout.get(), namedCheckout.get());
+		assertSame("Successful lookups by name are cached.", namedCheckout,
+				container.findBeanByNameAndType(Checkout.class.getName(), Checkout.class));
+		assertEquals(Optional.empty(), container.findBeanByNameAndType(Checkout.class.getName(), String.class));
+		container.addBean("checkout", checkout.get());
+		assertNotSame("A registration invalidates the cached lookups.", namedCheckout,
+				container.findBeanByNameAndType(Checkout.class.getName(), Checkout.class));
+
+		LWDIContainer childContainer = container.createChildContainer();
+		assertSame(checkout.get(), childContainer.findBeanByType(Checkout.class).get());
+	}
+
+	@Test
+	public void testCachedLookupByNameChecksType() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.primarytests");
+		container.start();
+
+		Checkout checkout = container.getBeanByNameAndType(Checkout.class.getName(), Checkout.class);
+		assertSame(checkout, container.getBeanByNameAndType(Checkout.class.getName(), Checkout.class));
+		assertSame(checkout, container.findBeanByNameAndType(Checkout.class.getName(), Checkout.class).get());
+		try {
+			container.getBeanByNameAndType(Checkout.class.getName(), String.class);
+			fail("A cached bean of another type must not be returned.");
+		} catch (NoSuitableBeanFoundException e) {
+			assertEquals("No bean named " + Checkout.class.getName() + " of type java.lang.String was found.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testLookupByTransitiveSupertypes() throws IOException {
+		Path scanCacheDirectory = temporaryFolder.getRoot().toPath();
+		for (int configuration = 0; configuration < 3; configuration++) {
+			LWDIContainer container = new LWDIContainer();
+			// The bean index, a classpath scan and the scan cache written by the previous scan.
+			container.setBeanIndexEnabled(configuration == 0);
+			container.setScanCacheDirectory(configuration > 0 ? scanCacheDirectory : null);
+			container.scanPackage("com.trent.queo.lwdic.hierarchytests");
+			container.start();
+
+			Dog dog = container.getBeanByType(Dog.class);
+			assertSame(dog, container.getBeanByType(AbstractMammal.class));
+			assertSame(dog, container.getBeanByType(AbstractAnimal.class));
+			assertSame(dog, container.getBeanByType(Pet.class));
+			assertSame(dog, container.getBeanByType(Animal.class));
+
+			PetOwner petOwner = container.getBeanByType(PetOwner.class);
+			assertSame(dog, petOwner.pet);
+			assertSame(dog, petOwner.animal);
+		}
+	}
+
+	@Test
+	public void testFrozenContainerResolvesTheSameBeans() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.hierarchytests");
+		container.scanPackage("com.trent.queo.lwdic.primarytests");
+		container.start();
+		Map<String, Set<Object>> beans = container.getBeans();
+		RegistryFootprint liveFootprint = container.getRegistryFootprint();
+
+		container.freeze();
+
+		assertTrue(container.isFrozen());
+		assertEquals(beans, container.getBeans());
+		Dog dog = container.getBeanByType(Dog.class);
+		assertSame(dog, container.getBeanByType(Animal.class));
+		assertSame(dog, container.getBeanByType(PetOwner.class).pet);
+		assertSame(container.getBeanByType(CardPaymentProvider.class), container.getBeanByType(PaymentProvider.class));
+		assertEquals(2, container.getBeansOfType(Notifier.class).size());
+		assertFalse(container.findBeanByType(String.class).isPresent());
+
+		RegistryFootprint frozenFootprint = container.getRegistryFootprint();
+		assertTrue(frozenFootprint.isFrozen());
+		assertEquals(liveFootprint.getBindingCount(), frozenFootprint.getBindingCount());
+		assertEquals(liveFootprint.getBeanDefinitionReferences(), frozenFootprint.getBeanDefinitionReferences());
+		assertTrue(frozenFootprint.getEstimatedBytes() < liveFootprint.getEstimatedBytes());
+	}
+
+	@Test(expected = ContainerFrozenException.class)
+	public void testFrozenContainerRejectsBeans() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.hierarchytests");
+		container.freeze();
+
+		container.addBean("additionalBean", new Object());
+	}
+
+	@Test
+	public void testFrozenContainerRejectsRefreshWithoutChanges() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.shutdowntests");
+		container.start();
+		container.freeze();
+		List<String> destroyedBeans = container.getBeanByType(ShutdownLog.class).destroyedBeans;
+		OrderRepository repository = container.getBeanByType(OrderRepository.class);
+
+		try {
+			container.refresh(OrderRepository.class.getName());
+			fail("A frozen container must not be refreshed.");
+		} catch (ContainerFrozenException e) {
+			assertTrue(destroyedBeans.isEmpty());
+		}
+		assertSame(repository, container.getBeanByType(OrderRepository.class));
+		assertSame(repository, container.getBeanByType(OrderService.class).repository);
+
+		assertEquals(4, container.stop().getBeanShutdowns().size());
+		assertTrue(destroyedBeans.contains("OrderRepository"));
+	}
+
+	@Test
+	public void testTimedMethodsAreRecordedWhileEnabled() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.timingtests");
+		container.start();
+		PriceCalculator priceCalculator = container.getBeanByType(PriceCalculator.class);
+
+		MethodTimings methodTimings = container.enableMethodTimings();
+		try {
+			priceCalculator.calculate(3, 5);
+			priceCalculator.calculate(4, 5);
+			priceCalculator.discount(100);
+		} finally {
+			container.disableMethodTimings();
+		}
+		priceCalculator.calculate(5, 5);
+
+		assertNull(container.getMethodTimings());
+		assertEquals(2, methodTimings.getHistogram(PriceCalculator.class.getName() + ".calculate").getCount());
+		assertEquals(1, methodTimings.getHistogram("discount").getCount());
+	}
+
+	@Test
+	public void testPrototypeBeansAreCreatedPerResolution() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.scopetests");
+		container.start();
+
+		TemplateParser parser = container.getBeanByType(TemplateParser.class);
+		assertNotSame(parser, container.getBeanByType(TemplateParser.class));
+		assertNotSame(parser, container.findBeanByType(TemplateParser.class).get());
+		assertTrue(parser.initialized);
+
+		TemplateRenderer renderer = container.getBeanByType(TemplateRenderer.class);
+		assertTrue(renderer.parser.initialized);
+		assertNotSame(renderer.parser, renderer.parsers.get());
+		assertNotSame(renderer.parsers.get(), renderer.parsers.get());
+	}
+
+	@Test
+	public void testPooledBeansAreBorrowedFromTheirPool() throws InterruptedException {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.scopetests");
+		container.start();
+
+		BeanPool<ScratchBuffer> pool = container.getBeanPool(ScratchBuffer.class);
+		TemplateRenderer renderer = container.getBeanByType(TemplateRenderer.class);
+		assertSame(pool, renderer.buffers);
+		assertEquals("Hello", renderer.render("Hello"));
+		assertEquals("World", renderer.render("World"));
+		assertEquals(2, pool.getBorrowCount());
+		assertEquals(1, pool.getCreatedCount());
+		assertEquals(0.5, pool.getHitRate(), 0);
+
+		ScratchBuffer first = pool.borrow();
+		ScratchBuffer second = pool.borrow();
+		ScratchBuffer third = pool.borrow();
+		assertNotNull(first.settings);
+		assertNotSame(first, second);
+		pool.release(first);
+		pool.release(second);
+		pool.release(third);
+		// The pool keeps at most poolSize idle instances, the third one is dropped.
+		assertEquals(2, pool.getSize());
+
+		// Idle instances can be borrowed by any thread.
+		Thread borrower = new Thread(() -> pool.borrow());
+		borrower.start();
+		borrower.join();
+		assertEquals(1, pool.getSize());
+		assertEquals(3, pool.getCreatedCount());
+
+		try {
+			container.getBeanByType(ScratchBuffer.class);
+			fail("Pooled beans have to be borrowed from their pool.");
+		} catch (NoSuitableBeanFoundException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testCachedBeansAreRecreatedAfterEviction() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.evictiontests");
+		container.start();
+		BeanCache cache = container.getBeanCache();
+		assertEquals(2, cache.getCachedBeanCount());
+		assertEquals(0, cache.getCachedInstanceCount());
+
+		ExchangeRateTable rates = container.getBeanByType(ExchangeRateTable.class);
+		assertTrue(rates.loaded);
+		assertSame(rates, container.getBeanByType(ExchangeRateTable.class));
+		CurrencyConverter converter = container.getBeanByType(CurrencyConverter.class);
+		assertSame(rates, converter.rates.get());
+
+		container.evictCachedBeans();
+		assertEquals(1, cache.getEvictionCount(EvictionCause.EXPLICIT));
+		assertEquals(0, cache.getCachedInstanceCount());
+		assertEquals(4, converter.convert(2, "USD"), 0);
+		ExchangeRateTable recreatedRates = converter.rates.get();
+		assertNotSame(rates, recreatedRates);
+		assertTrue(recreatedRates.loaded);
+		assertSame(recreatedRates, container.getBeanByType(ExchangeRateTable.class));
+		assertEquals(1, cache.getRecreationCount());
+		assertEquals(1, cache.getRecreationLatency().getCount());
+	}
+
+	@Test
+	public void testCachedBeansAreEvictedByBudgetAndIdleTimeout() throws InterruptedException {
+		LWDIContainer container = new LWDIContainer();
+		container.setCachedBeanBudget(1);
+		container.scanPackage("com.trent.queo.lwdic.evictiontests");
+		container.start();
+		BeanCache cache = container.getBeanCache();
+
+		ExchangeRateTable rates = container.getBeanByType(ExchangeRateTable.class);
+		container.getBeanByType(HolidayCalendar.class);
+		assertEquals(1, cache.getCachedInstanceCount());
+		assertEquals(1, cache.getEvictionCount(EvictionCause.BUDGET));
+		assertNotSame(rates, container.getBeanByType(ExchangeRateTable.class));
+		assertEquals(2, cache.getEvictionCount(EvictionCause.BUDGET));
+
+		container.setCachedBeanIdleTimeout(1, TimeUnit.MILLISECONDS);
+		Thread.sleep(20);
+		cache.evictIdleBeans();
+		assertEquals(0, cache.getCachedInstanceCount());
+		assertEquals(1, cache.getEvictionCount(EvictionCause.IDLE));
+		assertEquals(3, cache.getEvictionCount());
+		container.setCachedBeanIdleTimeout(0, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void testStopDestroysBeansInReverseDependencyOrder() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.shutdowntests");
+		container.start();
+		List<String> destroyedBeans = container.getBeanByType(ShutdownLog.class).destroyedBeans;
+		MailSender mailSender = container.getBeanByType(MailSender.class);
+
+		ShutdownReport report = container.stop();
+		assertEquals(4, destroyedBeans.size());
+		assertTrue(destroyedBeans.indexOf("OrderService") < destroyedBeans.indexOf("OrderRepository"));
+		assertTrue(destroyedBeans.indexOf("OrderRepository") < destroyedBeans.indexOf("ConnectionPool"));
+		// A close method annotated with @Destroy is only called once.
+		assertEquals(1, mailSender.closeCalls);
+
+		assertTrue(report.isClean());
+		assertEquals(4, report.getBeanShutdowns().size());
+		assertNull(report.getBeanShutdown(ShutdownLog.class.getName()));
+		ShutdownReport.BeanShutdown repositoryShutdown = report.getBeanShutdown(OrderRepository.class.getName());
+		assertEquals(Outcome.DESTROYED, repositoryShutdown.getOutcome());
+		assertTrue(repositoryShutdown.getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+		assertTrue(report.getTotalTimeNanos() >= repositoryShutdown.getDurationNanos());
+
+		assertTrue(container.stop().getBeanShutdowns().isEmpty());
+		assertEquals(4, destroyedBeans.size());
+	}
+
+	@Test
+	public void testRefreshDestroysReplacedBeans() {
+		LWDIContainer container = new LWDIContainer();
+		container.scanPackage("com.trent.queo.lwdic.shutdowntests");
+		container.start();
+		List<String> destroyedBeans = container.getBeanByType(ShutdownLog.class).destroyedBeans;
+		OrderRepository repository = container.getBeanByType(OrderRepository.class);
+
+		container.refresh(OrderRepository.class.getName(), ConnectionPool.class.getName());
+		assertEquals(Arrays.asList("OrderRepository", "ConnectionPool"), destroyedBeans);
+		OrderRepository refreshedRepository = container.getBeanByType(OrderRepository.class);
+		assertNotSame(repository, refreshedRepository);
+		assertSame(refreshedRepository, container.getBeanByType(OrderService.class).repository);
+
+		// The replaced beans are not destroyed again, the new ones are.
+		ShutdownReport report = container.stop();
+		assertEquals(4, report.getBeanShutdowns().size());
+		assertEquals(6, destroyedBeans.size());
+	}
+
+	@Test
+	public void testStopReportsFailedAndTimedOutBeans() {
+		LWDIContainer container = new LWDIContainer();
+		container.setDestroyTimeout(50, TimeUnit.MILLISECONDS);
+		container.scanPackage("com.trent.queo.lwdic.shutdownfailures");
+		container.start();
+		HangingWorker worker = container.getBeanByType(HangingWorker.class);
+
+		ShutdownReport report = container.stop();
+		worker.release.countDown();
+		assertFalse(report.isClean());
+		assertEquals(Outcome.TIMED_OUT, report.getBeanShutdown(HangingWorker.class.getName()).getOutcome());
+		assertEquals(Outcome.FAILED, report.getBeanShutdown(BrokenFileStore.class.getName()).getOutcome());
+		assertEquals(1, report.getFailures().size());
+
+		LWDIContainer closedContainer = new LWDIContainer();
+		closedContainer.setDestroyTimeout(50, TimeUnit.MILLISECONDS);
+		closedContainer.scanPackage("com.trent.queo.lwdic.shutdownfailures");
+		closedContainer.start();
+		HangingWorker closedWorker = closedContainer.getBeanByType(HangingWorker.class);
+		try {
+			closedContainer.close();
+			fail("The failure of BrokenFileStore has to be reported.");
+		} catch (BeanDestructionException e) {
+			assertEquals(1, e.getSuppressed().length);
+			assertTrue(e.getSuppressed()[0].getCause() instanceof IOException);
+		} finally {
+			closedWorker.release.countDown();
+		}
+	}
+}
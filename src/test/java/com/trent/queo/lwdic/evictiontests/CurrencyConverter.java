@@ -0,0 +1,17 @@
+package com.trent.queo.lwdic.evictiontests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+import java.util.function.Supplier;
+
+@Bean
+public class CurrencyConverter {
+
+	@Inject
+	public Supplier<ExchangeRateTable> rates;
+
+	public double convert(double amount, String currency) {
+		return amount * rates.get().source.getRate(currency);
+	}
+}
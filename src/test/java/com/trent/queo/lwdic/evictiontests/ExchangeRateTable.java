@@ -0,0 +1,20 @@
+package com.trent.queo.lwdic.evictiontests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Scope;
+
+@Bean(scope = Scope.CACHED)
+public class ExchangeRateTable {
+
+	@Inject
+	public RateSource source;
+
+	public boolean loaded;
+
+	@Init
+	void load() {
+		loaded = source != null;
+	}
+}
@@ -0,0 +1,8 @@
+package com.trent.queo.lwdic.evictiontests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Scope;
+
+@Bean(scope = Scope.CACHED)
+public class HolidayCalendar {
+}
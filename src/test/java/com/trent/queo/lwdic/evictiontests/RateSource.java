@@ -0,0 +1,11 @@
+package com.trent.queo.lwdic.evictiontests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+@Bean
+public class RateSource {
+
+	public double getRate(String currency) {
+		return "EUR".equals(currency) ? 1 : 2;
+	}
+}
@@ -0,0 +1,13 @@
+package com.trent.queo.lwdic.fieldinjection;
+
+import com.trent.queo.lwdic.annotations.Inject;
+
+public abstract class AbstractInjectionTarget {
+
+	@Inject
+	protected ServiceBean inheritedService;
+
+	public ServiceBean getInheritedService() {
+		return inheritedService;
+	}
+}
@@ -0,0 +1,24 @@
+package com.trent.queo.lwdic.fieldinjection;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Named;
+
+@Bean
+public class PrivateFieldInjectionTarget extends AbstractInjectionTarget {
+
+	@Inject
+	private ServiceBean service;
+
+	@Inject
+	@Named(name = "value")
+	Integer value;
+
+	public ServiceBean getService() {
+		return service;
+	}
+
+	public Integer getValue() {
+		return value;
+	}
+}
@@ -0,0 +1,4 @@
+package com.trent.queo.lwdic.hierarchytests;
+
+public abstract class AbstractMammal extends AbstractAnimal {
+}
@@ -0,0 +1,7 @@
+package com.trent.queo.lwdic.hierarchytests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+@Bean
+public class Dog extends AbstractMammal {
+}
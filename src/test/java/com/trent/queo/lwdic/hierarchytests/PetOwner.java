@@ -0,0 +1,14 @@
+package com.trent.queo.lwdic.hierarchytests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class PetOwner {
+
+	@Inject
+	public AbstractAnimal pet;
+
+	@Inject
+	public Animal animal;
+}
@@ -0,0 +1,129 @@
+package com.trent.queo.lwdic.index;
+
+import com.trent.queo.lwdic.container.LWDIContainer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BeanIndexProcessorTest {
+
+	private static final String SOURCE = "package com.acme.beans;\n"
+			+ "import com.trent.queo.lwdic.annotations.Bean;\n"
+			+ "import com.trent.queo.lwdic.annotations.Named;\n"
+			+ "public class Beans {\n"
+			+ "  public interface Service extends Runnable {}\n"
+			+ "  public static abstract class AbstractService implements Service {}\n"
+			+ "  @Bean @Named(name = \"service\") public static class NamedService extends AbstractService { public void run() {} }\n"
+			+ "  @Bean(injectable = false) public static class Disabled {}\n"
+			+ "}\n";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testIndexIsWrittenForBeans() throws IOException {
+		Path workDir = compile(true, "Beans", SOURCE);
+		assertTrue(Files.exists(workDir.resolve(BeanIndex.INDEX_LOCATION)));
+
+		BeanIndex beanIndex;
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{workDir.toUri().toURL()}, null)) {
+			beanIndex = BeanIndex.load(classLoader);
+		}
+		assertNotNull(beanIndex);
+		assertTrue(beanIndex.covers("com.acme"));
+		assertFalse(beanIndex.covers("com.trent"));
+
+		List<BeanIndexEntry> entries = beanIndex.getEntries("com.acme.beans");
+		assertEquals(2, entries.size());
+
+		BeanIndexEntry disabled = entries.get(0);
+		assertEquals("com.acme.beans.Beans$Disabled", disabled.getClassName());
+		assertFalse(disabled.isInjectable());
+		assertNull(disabled.getSuperclassName());
+		assertEquals(Collections.emptyList(), disabled.getInterfaceNames());
+
+		BeanIndexEntry service = entries.get(1);
+		assertEquals("com.acme.beans.Beans$NamedService", service.getClassName());
+		assertEquals("service", service.getName());
+		assertTrue(service.isInjectable());
+		assertFalse(service.isAbstractType());
+		assertEquals("com.acme.beans.Beans$AbstractService", service.getSuperclassName());
+		assertEquals(Collections.singletonList("com.acme.beans.Beans$AbstractService"), service.getSuperclassNames());
+		assertEquals(Arrays.asList("com.acme.beans.Beans$Service", Runnable.class.getName()), service.getInterfaceNames());
+	}
+
+	@Test
+	public void testClasspathRootsWithoutIndexAreScannedOnRequest() throws IOException {
+		Path indexedRoot = compile(true, "IndexedService", "package com.acme.lib;\n"
+				+ "@com.trent.queo.lwdic.annotations.Bean public class IndexedService {}\n");
+		// Splits com.acme.lib across both roots and adds beans to the parent package, which the index does not list.
+		Path plainRoot = compile(false, "PlainService", "package com.acme.lib;\n"
+				+ "@com.trent.queo.lwdic.annotations.Bean public class PlainService {}\n");
+		compile(plainRoot, false, "Application", "package com.acme;\n"
+				+ "@com.trent.queo.lwdic.annotations.Bean public class Application {}\n");
+		assertFalse(Files.exists(plainRoot.resolve(BeanIndex.INDEX_LOCATION)));
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{indexedRoot.toUri().toURL(), plainRoot.toUri().toURL()},
+				getClass().getClassLoader())) {
+			BeanIndex beanIndex = BeanIndex.load(classLoader);
+			assertNotNull(beanIndex);
+			assertTrue(beanIndex.isIndexedRoot(indexedRoot.toString()));
+			assertFalse(beanIndex.isIndexedRoot(plainRoot.toString()));
+
+			// By default, the index is trusted for the packages it covers.
+			LWDIContainer indexedContainer = new LWDIContainer();
+			indexedContainer.setClassLoader(classLoader);
+			indexedContainer.scanPackage("com.acme.lib");
+			assertEquals(Collections.singleton("com.acme.lib.IndexedService"), indexedContainer.getBeans().keySet());
+
+			LWDIContainer libraryContainer = new LWDIContainer();
+			libraryContainer.setClassLoader(classLoader);
+			libraryContainer.setScanRootsWithoutIndex(true);
+			libraryContainer.scanPackage("com.acme.lib");
+			assertEquals(new HashSet<>(Arrays.asList("com.acme.lib.IndexedService", "com.acme.lib.PlainService")),
+					libraryContainer.getBeans().keySet());
+
+			LWDIContainer applicationContainer = new LWDIContainer();
+			applicationContainer.setClassLoader(classLoader);
+			applicationContainer.setScanRootsWithoutIndex(true);
+			applicationContainer.scanPackage("com.acme");
+			assertEquals(new HashSet<>(Arrays.asList("com.acme.Application", "com.acme.lib.IndexedService", "com.acme.lib.PlainService")),
+					applicationContainer.getBeans().keySet());
+		}
+	}
+
+	private Path compile(boolean indexed, String className, String source) throws IOException {
+		return compile(temporaryFolder.newFolder().toPath(), indexed, className, source);
+	}
+
+	private static Path compile(Path workDir, boolean indexed, String className, String source) throws IOException {
+		Path sourceFile = workDir.resolve(className + ".java");
+		Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		List<String> arguments = new ArrayList<>(Arrays.asList("-classpath", System.getProperty("java.class.path"),
+				"-d", workDir.toString(), sourceFile.toString()));
+		arguments.addAll(indexed ? Arrays.asList("-processor", BeanIndexProcessor.class.getName()) : Collections.singletonList("-proc:none"));
+		int result = compiler.run(null, null, null, arguments.toArray(new String[0]));
+		assertEquals("The test sources could not be compiled.", 0, result);
+		Files.delete(sourceFile);
+		return workDir;
+	}
+}
@@ -0,0 +1,88 @@
+package com.trent.queo.lwdic.index;
+
+import com.trent.queo.lwdic.annotations.Scope;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScanCacheTest {
+
+	private static final byte[] FINGERPRINT = {1, 2, 3};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testCachedBeansAreRead() throws IOException {
+		ScanCache scanCache = new ScanCache(temporaryFolder.getRoot().toPath());
+		assertNull(scanCache.read("com.acme", FINGERPRINT));
+
+		List<BeanIndexEntry> entries = Arrays.asList(
+				new BeanIndexEntry("com.acme.Service", "service", true, true, true, false, Scope.POOLED, 4,
+						Arrays.asList("com.acme.AbstractService", "com.acme.BaseService"),
+						Arrays.asList("com.acme.IService", Runnable.class.getName())),
+				new BeanIndexEntry("com.acme.Disabled", null, false, false, false, true, Collections.<String>emptyList(),
+						Collections.<String>emptyList()));
+		scanCache.write("com.acme", FINGERPRINT, entries);
+
+		List<BeanIndexEntry> cachedEntries = scanCache.read("com.acme", FINGERPRINT);
+		assertNotNull(cachedEntries);
+		assertEquals(2, cachedEntries.size());
+
+		BeanIndexEntry service = cachedEntries.get(0);
+		assertEquals("com.acme.Service", service.getClassName());
+		assertEquals("service", service.getName());
+		assertTrue(service.isInjectable());
+		assertTrue(service.isLazy());
+		assertTrue(service.isPrimary());
+		assertFalse(service.isAbstractType());
+		assertEquals(Scope.POOLED, service.getScope());
+		assertEquals(4, service.getPoolSize());
+		assertEquals(Arrays.asList("com.acme.AbstractService", "com.acme.BaseService"), service.getSuperclassNames());
+		assertEquals(Arrays.asList("com.acme.IService", Runnable.class.getName()), service.getInterfaceNames());
+
+		BeanIndexEntry disabled = cachedEntries.get(1);
+		assertNull(disabled.getName());
+		assertFalse(disabled.isInjectable());
+		assertTrue(disabled.isAbstractType());
+		assertEquals(Scope.SINGLETON, disabled.getScope());
+		assertNull(disabled.getSuperclassName());
+		assertEquals(Collections.emptyList(), disabled.getInterfaceNames());
+
+		assertNull("A cache with another fingerprint has to be ignored.", scanCache.read("com.acme", new byte[]{1, 2, 4}));
+		assertNull(scanCache.read("com.acme.other", FINGERPRINT));
+	}
+
+	@Test
+	public void testFingerprintChangesWithClasses() throws IOException {
+		Path classesDirectory = temporaryFolder.getRoot().toPath();
+		Path classFile = Files.createDirectories(classesDirectory.resolve("com/acme")).resolve("Service.class");
+		Files.write(classFile, new byte[]{1});
+		// Cached beans list their supertypes, which may be declared in other packages.
+		Path superclassFile = Files.createDirectories(classesDirectory.resolve("com/shared")).resolve("AbstractService.class");
+		Files.write(superclassFile, new byte[]{1});
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toUri().toURL()}, null)) {
+			byte[] fingerprint = ScanCache.fingerprint(classLoader);
+			assertArrayEquals(fingerprint, ScanCache.fingerprint(classLoader));
+
+			Files.setLastModifiedTime(classFile, FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis() + 1000));
+			byte[] changedClassFingerprint = ScanCache.fingerprint(classLoader);
+			assertFalse(Arrays.equals(fingerprint, changedClassFingerprint));
+
+			Files.write(superclassFile, new byte[]{1, 2});
+			assertFalse(Arrays.equals(changedClassFingerprint, ScanCache.fingerprint(classLoader)));
+		}
+	}
+}
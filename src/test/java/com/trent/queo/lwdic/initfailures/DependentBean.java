@@ -0,0 +1,19 @@
+package com.trent.queo.lwdic.initfailures;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class DependentBean {
+
+	@Inject
+	public FailingFirstBean failingFirstBean;
+
+	public volatile boolean initialized;
+
+	@Init
+	public void initialize() {
+		initialized = true;
+	}
+}
@@ -0,0 +1,13 @@
+package com.trent.queo.lwdic.initfailures;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+
+@Bean
+public class FailingSecondBean {
+
+	@Init
+	public void initialize() {
+		throw new IllegalStateException("Second bean failed.");
+	}
+}
@@ -0,0 +1,13 @@
+package com.trent.queo.lwdic.inittests;
+
+import com.trent.queo.lwdic.annotations.Init;
+
+public abstract class AbstractReporter {
+
+	public volatile boolean baseInitialized;
+
+	@Init
+	protected void initializeBase() {
+		baseInitialized = true;
+	}
+}
@@ -0,0 +1,22 @@
+package com.trent.queo.lwdic.inittests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class CachePreloader {
+
+	@Inject
+	public ConnectionPool connectionPool;
+
+	public volatile boolean poolWarmedUpBeforePreload;
+
+	public volatile int preloadCount;
+
+	@Init
+	void preload() {
+		poolWarmedUpBeforePreload = connectionPool.warmedUp;
+		preloadCount++;
+	}
+}
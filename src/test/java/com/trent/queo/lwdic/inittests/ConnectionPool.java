@@ -0,0 +1,16 @@
+package com.trent.queo.lwdic.inittests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+
+@Bean
+public class ConnectionPool {
+
+	public volatile boolean warmedUp;
+
+	@Init
+	public void warmUp() throws InterruptedException {
+		Thread.sleep(20);
+		warmedUp = true;
+	}
+}
@@ -0,0 +1,15 @@
+package com.trent.queo.lwdic.inittests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+
+@Bean
+public class MetricsReporter extends AbstractReporter {
+
+	public volatile boolean baseInitializedFirst;
+
+	@Init
+	public void initialize() {
+		baseInitializedFirst = baseInitialized;
+	}
+}
@@ -0,0 +1,23 @@
+package com.trent.queo.lwdic.lazylocktests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+import com.trent.queo.lwdic.annotations.Inject;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+@Bean(lazy = true)
+public class ReportGenerator {
+
+	@Inject
+	public Supplier<ReportTemplates> templates;
+
+	public ReportTemplates loadedTemplates;
+
+	// Waits for another thread resolving an unrelated lazy bean while this bean is created.
+	@Init
+	void loadTemplates() {
+		loadedTemplates = CompletableFuture.supplyAsync(templates).join();
+	}
+}
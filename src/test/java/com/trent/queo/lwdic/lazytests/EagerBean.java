@@ -0,0 +1,11 @@
+package com.trent.queo.lwdic.lazytests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class EagerBean {
+
+	@Inject
+	public UsedLazyBean usedLazyBean;
+}
@@ -0,0 +1,7 @@
+package com.trent.queo.lwdic.lazytests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+@Bean(lazy = true)
+public class UnusedLazyBean {
+}
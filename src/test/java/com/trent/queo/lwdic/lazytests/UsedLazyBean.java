@@ -0,0 +1,12 @@
+package com.trent.queo.lwdic.lazytests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean(lazy = true)
+public class UsedLazyBean {
+
+	// Circular dependency to the bean that triggers the creation of this lazy bean.
+	@Inject
+	public EagerBean eagerBean;
+}
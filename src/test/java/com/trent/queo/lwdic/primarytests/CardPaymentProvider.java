@@ -0,0 +1,9 @@
+package com.trent.queo.lwdic.primarytests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Primary;
+
+@Bean
+@Primary
+public class CardPaymentProvider implements PaymentProvider {
+}
@@ -0,0 +1,11 @@
+package com.trent.queo.lwdic.primarytests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class Checkout {
+
+	@Inject
+	public PaymentProvider paymentProvider;
+}
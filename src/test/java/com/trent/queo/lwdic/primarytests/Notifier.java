@@ -0,0 +1,4 @@
+package com.trent.queo.lwdic.primarytests;
+
+public interface Notifier {
+}
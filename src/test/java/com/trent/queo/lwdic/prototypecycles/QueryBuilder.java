@@ -0,0 +1,16 @@
+package com.trent.queo.lwdic.prototypecycles;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Scope;
+
+@Bean(scope = Scope.PROTOTYPE)
+public class QueryBuilder {
+
+	public final QueryContext context;
+
+	@Inject
+	public QueryBuilder(QueryContext context) {
+		this.context = context;
+	}
+}
@@ -0,0 +1,12 @@
+package com.trent.queo.lwdic.prototypecycles;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Scope;
+
+@Bean(scope = Scope.PROTOTYPE)
+public class QueryContext {
+
+	@Inject
+	public QueryBuilder builder;
+}
@@ -0,0 +1,21 @@
+package com.trent.queo.lwdic.providertests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+import java.util.function.Supplier;
+
+@Bean
+public class CyclicProviderA {
+
+	private final Supplier<CyclicProviderB> cyclicProviderB;
+
+	@Inject
+	public CyclicProviderA(Supplier<CyclicProviderB> cyclicProviderB) {
+		this.cyclicProviderB = cyclicProviderB;
+	}
+
+	public CyclicProviderB getCyclicProviderB() {
+		return cyclicProviderB.get();
+	}
+}
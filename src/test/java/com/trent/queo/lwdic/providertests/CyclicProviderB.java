@@ -0,0 +1,19 @@
+package com.trent.queo.lwdic.providertests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class CyclicProviderB {
+
+	private final CyclicProviderA cyclicProviderA;
+
+	@Inject
+	public CyclicProviderB(CyclicProviderA cyclicProviderA) {
+		this.cyclicProviderA = cyclicProviderA;
+	}
+
+	public CyclicProviderA getCyclicProviderA() {
+		return cyclicProviderA;
+	}
+}
@@ -0,0 +1,7 @@
+package com.trent.queo.lwdic.providertests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+@Bean(lazy = true)
+public class HeavyService {
+}
@@ -0,0 +1,13 @@
+package com.trent.queo.lwdic.providertests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+import java.util.function.Supplier;
+
+@Bean
+public class RareCaller {
+
+	@Inject
+	public Supplier<HeavyService> heavyService;
+}
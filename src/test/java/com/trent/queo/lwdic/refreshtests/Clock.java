@@ -0,0 +1,4 @@
+package com.trent.queo.lwdic.refreshtests;
+
+public interface Clock {
+}
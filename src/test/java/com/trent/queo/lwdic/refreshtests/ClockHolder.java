@@ -0,0 +1,19 @@
+package com.trent.queo.lwdic.refreshtests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class ClockHolder {
+
+	private final Clock clock;
+
+	@Inject
+	public ClockHolder(Clock clock) {
+		this.clock = clock;
+	}
+
+	public Clock getClock() {
+		return clock;
+	}
+}
@@ -0,0 +1,7 @@
+package com.trent.queo.lwdic.refreshtests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+@Bean
+public class SystemClock implements Clock {
+}
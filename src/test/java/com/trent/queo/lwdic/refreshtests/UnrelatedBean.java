@@ -0,0 +1,11 @@
+package com.trent.queo.lwdic.refreshtests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class UnrelatedBean {
+
+	@Inject
+	public ClockHolderConsumer clockHolderConsumer;
+}
@@ -0,0 +1,14 @@
+package com.trent.queo.lwdic.scopetests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Scope;
+
+@Bean(scope = Scope.POOLED, poolSize = 2)
+public class ScratchBuffer {
+
+	@Inject
+	public TemplateSettings settings;
+
+	public final StringBuilder content = new StringBuilder();
+}
@@ -0,0 +1,20 @@
+package com.trent.queo.lwdic.scopetests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Init;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.annotations.Scope;
+
+@Bean(scope = Scope.PROTOTYPE)
+public class TemplateParser {
+
+	@Inject
+	public TemplateSettings settings;
+
+	public boolean initialized;
+
+	@Init
+	void initialize() {
+		initialized = settings != null;
+	}
+}
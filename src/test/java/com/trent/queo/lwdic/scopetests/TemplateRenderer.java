@@ -0,0 +1,30 @@
+package com.trent.queo.lwdic.scopetests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+import com.trent.queo.lwdic.container.BeanPool;
+
+import java.util.function.Supplier;
+
+@Bean
+public class TemplateRenderer {
+
+	@Inject
+	public TemplateParser parser;
+
+	@Inject
+	public Supplier<TemplateParser> parsers;
+
+	@Inject
+	public BeanPool<ScratchBuffer> buffers;
+
+	public String render(String template) {
+		ScratchBuffer buffer = buffers.borrow();
+		try {
+			return buffer.content.append(template).toString();
+		} finally {
+			buffer.content.setLength(0);
+			buffers.release(buffer);
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.trent.queo.lwdic.shutdownfailures;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+import java.io.IOException;
+
+@Bean
+public class BrokenFileStore implements AutoCloseable {
+
+	@Override
+	public void close() throws IOException {
+		throw new IOException("Disk gone");
+	}
+}
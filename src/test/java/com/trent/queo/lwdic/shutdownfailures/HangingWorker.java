@@ -0,0 +1,17 @@
+package com.trent.queo.lwdic.shutdownfailures;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Destroy;
+
+import java.util.concurrent.CountDownLatch;
+
+@Bean
+public class HangingWorker {
+
+	public final CountDownLatch release = new CountDownLatch(1);
+
+	@Destroy
+	void awaitRelease() throws InterruptedException {
+		release.await();
+	}
+}
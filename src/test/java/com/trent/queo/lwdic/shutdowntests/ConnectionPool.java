@@ -0,0 +1,16 @@
+package com.trent.queo.lwdic.shutdowntests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class ConnectionPool implements AutoCloseable {
+
+	@Inject
+	public ShutdownLog log;
+
+	@Override
+	public void close() {
+		log.destroyedBeans.add("ConnectionPool");
+	}
+}
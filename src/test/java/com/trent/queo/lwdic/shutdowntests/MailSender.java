@@ -0,0 +1,21 @@
+package com.trent.queo.lwdic.shutdowntests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Destroy;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class MailSender implements AutoCloseable {
+
+	@Inject
+	public ShutdownLog log;
+
+	public int closeCalls;
+
+	@Destroy
+	@Override
+	public void close() {
+		closeCalls++;
+		log.destroyedBeans.add("MailSender");
+	}
+}
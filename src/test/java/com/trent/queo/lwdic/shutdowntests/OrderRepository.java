@@ -0,0 +1,22 @@
+package com.trent.queo.lwdic.shutdowntests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Destroy;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class OrderRepository {
+
+	@Inject
+	public ShutdownLog log;
+
+	@Inject
+	public ConnectionPool connectionPool;
+
+	@Destroy
+	void flush() throws InterruptedException {
+		// Gives the connection pool a chance to be closed too early.
+		Thread.sleep(20);
+		log.destroyedBeans.add("OrderRepository");
+	}
+}
@@ -0,0 +1,20 @@
+package com.trent.queo.lwdic.shutdowntests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Destroy;
+import com.trent.queo.lwdic.annotations.Inject;
+
+@Bean
+public class OrderService {
+
+	@Inject
+	public ShutdownLog log;
+
+	@Inject
+	public OrderRepository repository;
+
+	@Destroy
+	void stop() {
+		log.destroyedBeans.add("OrderService");
+	}
+}
@@ -0,0 +1,12 @@
+package com.trent.queo.lwdic.shutdowntests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Bean
+public class ShutdownLog {
+
+	public final List<String> destroyedBeans = new CopyOnWriteArrayList<>();
+}
@@ -0,0 +1,34 @@
+package com.trent.queo.lwdic.timing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBucketsHaveBoundedRelativeError() {
+		for (long value = 0; value < 1 << 20; value++) {
+			long highestValue = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value));
+			assertTrue(highestValue >= value);
+			assertTrue(highestValue - value <= value / 16);
+		}
+		assertEquals(LatencyHistogram.bucketOf(Long.MAX_VALUE), LatencyHistogram.bucketOf(1L << 50));
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 1000; value++) {
+			histogram.record(value * 1000);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500500000, histogram.getTotalTime());
+		assertEquals(1000000, histogram.getMaxTime());
+		assertEquals(500000, histogram.getValueAtPercentile(50), 500000 / 16);
+		assertEquals(990000, histogram.getValueAtPercentile(99), 990000 / 16);
+		assertEquals(1000000, histogram.getValueAtPercentile(100));
+		assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+	}
+}
@@ -0,0 +1,18 @@
+package com.trent.queo.lwdic.timingtests;
+
+import com.trent.queo.lwdic.annotations.Bean;
+import com.trent.queo.lwdic.annotations.Timed;
+
+@Bean
+public class PriceCalculator {
+
+	@Timed
+	public int calculate(int quantity, int unitPrice) {
+		return quantity * unitPrice;
+	}
+
+	@Timed("discount")
+	public int discount(int price) {
+		return price * 9 / 10;
+	}
+}